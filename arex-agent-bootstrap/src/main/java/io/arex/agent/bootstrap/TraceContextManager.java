@@ -6,7 +6,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 
 public class TraceContextManager {
-    private static final ArexThreadLocal<String> TRACE_CONTEXT = new ArexThreadLocal<>();
+    private static final ArexThreadLocal<TraceId> TRACE_CONTEXT = new ArexThreadLocal<>();
     private static IDGenerator idGenerator;
 
     public static void init(String ipAddress) {
@@ -21,26 +21,38 @@ public class TraceContextManager {
      * This method can only be called at the service entrance
      */
     public static String get(boolean createIfAbsent) {
-        String messageId = TRACE_CONTEXT.get();
-        if (messageId == null && createIfAbsent) {
-            messageId = idGenerator.next();
-            TRACE_CONTEXT.set(messageId);
+        TraceId traceId = getTraceId(createIfAbsent);
+        return traceId == null ? null : traceId.toString();
+    }
+
+    public static TraceId getTraceId() {
+        return TRACE_CONTEXT.get();
+    }
+
+    /**
+     * The string form of a created id is not rendered
+     */
+    public static TraceId getTraceId(boolean createIfAbsent) {
+        TraceId traceId = TRACE_CONTEXT.get();
+        if (traceId == null && createIfAbsent) {
+            traceId = idGenerator.next();
+            TRACE_CONTEXT.set(traceId);
         }
-        return messageId;
+        return traceId;
     }
 
     public static void set(String traceId) {
-        TRACE_CONTEXT.set(traceId);
+        TRACE_CONTEXT.set(traceId == null ? null : TraceId.of(traceId));
     }
 
     public static String remove() {
-        String messageId = TRACE_CONTEXT.get();
+        TraceId traceId = TRACE_CONTEXT.get();
         TRACE_CONTEXT.remove();
-        return messageId;
+        return traceId == null ? null : traceId.toString();
     }
 
     public static String generateId() {
-        return idGenerator.next();
+        return idGenerator.next().toString();
     }
 
     private static final class IDGenerator {
@@ -52,8 +64,8 @@ public class TraceContextManager {
             this.counter = new AtomicLong(initialCount);
         }
 
-        public String next() {
-            return PREFIX.concat(String.valueOf(getNowMillis())).concat(String.valueOf(counter.getAndIncrement()));
+        public TraceId next() {
+            return new TraceId(PREFIX, getNowMillis(), counter.getAndIncrement());
         }
 
         private long getNowMillis() {
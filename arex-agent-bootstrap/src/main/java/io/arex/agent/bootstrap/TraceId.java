@@ -0,0 +1,49 @@
+package io.arex.agent.bootstrap;
+
+/**
+ * Trace id held by the trace thread local.
+ * Generated ids are a long packed from the generator clock and counter, their string form
+ * "AREX-ip-millis counter" is only rendered when it is needed, e.g. written into a mocker or a response header.
+ * Ids from outside, such as replayed case ids, keep their string and have no handle.
+ */
+public final class TraceId {
+    static final int COUNTER_BITS = 22;
+    static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private final long handle;
+    private final String prefix;
+    private String value;
+
+    TraceId(String prefix, long millis, long counter) {
+        this.prefix = prefix;
+        this.handle = (millis << COUNTER_BITS) | (counter & COUNTER_MASK);
+    }
+
+    private TraceId(String value) {
+        this.prefix = null;
+        this.handle = 0L;
+        this.value = value;
+    }
+
+    public static TraceId of(String value) {
+        return new TraceId(value);
+    }
+
+    /**
+     * @return 0 if the id comes from outside
+     */
+    public long getHandle() {
+        return handle;
+    }
+
+    @Override
+    public String toString() {
+        String rendered = value;
+        if (rendered == null) {
+            // racy but idempotent
+            rendered = prefix + (handle >>> COUNTER_BITS) + (handle & COUNTER_MASK);
+            value = rendered;
+        }
+        return rendered;
+    }
+}
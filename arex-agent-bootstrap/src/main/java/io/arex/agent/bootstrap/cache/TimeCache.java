@@ -1,34 +1,104 @@
 package io.arex.agent.bootstrap.cache;
 
 import io.arex.agent.bootstrap.TraceContextManager;
-import io.arex.agent.bootstrap.internal.Pair;
+import io.arex.agent.bootstrap.ctx.ArexThreadLocal;
 
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Replay clock of the current trace, read on every intercepted time call of the JVM.
+ * The offset is kept in its own thread local, transmitted to async tasks with the trace id,
+ * and kept on the case for the threads attaching to it by record id.
+ * A global count of active offsets lets every thread return without a thread local read while nothing is replayed.
+ */
 public class TimeCache {
-    private static final ConcurrentHashMap<String, Pair<Long, Long>> CACHE = new ConcurrentHashMap<>(30);
+    private static final ArexThreadLocal<TimeOffset> OFFSET = new ArexThreadLocal<>();
+    private static final AtomicInteger ACTIVE_COUNT = new AtomicInteger();
 
+    /**
+     * @return replayed current time millis, 0 if the trace is not replaying time
+     */
     public static long get() {
-        String traceId = TraceContextManager.get();
-        if (traceId == null) {
+        if (ACTIVE_COUNT.get() == 0) {
             return 0L;
         }
-        Pair<Long, Long> time = CACHE.get(traceId);
-        return time == null ? 0L :
-                time.getFirst() + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time.getSecond());
+        TimeOffset offset = OFFSET.get();
+        return offset == null ? 0L : offset.currentTimeMillis();
     }
 
     public static void put(long value) {
-        String traceId = TraceContextManager.get();
-        if (traceId != null) {
-            CACHE.put(traceId, Pair.of(value, System.nanoTime()));
+        if (TraceContextManager.getTraceId() == null) {
+            return;
         }
+        TimeOffset previous = OFFSET.get();
+        if (previous != null) {
+            previous.release();
+        }
+        ACTIVE_COUNT.incrementAndGet();
+        OFFSET.set(new TimeOffset(value, System.nanoTime()));
     }
+
+    /**
+     * The offset stops for every thread of the trace, async tasks may still hold it
+     */
     public static void remove() {
-        String traceId = TraceContextManager.get();
-        if (traceId != null) {
-            CACHE.remove(traceId);
+        TimeOffset offset = OFFSET.get();
+        if (offset != null) {
+            offset.release();
+            OFFSET.remove();
+        }
+    }
+
+    /**
+     * @return the offset replayed on this thread, null if none
+     */
+    public static TimeOffset current() {
+        return OFFSET.get();
+    }
+
+    /**
+     * Replays the offset of an attached case on this thread, the thread which put it still owns and releases it
+     *
+     * @param offset null to stop replaying time on this thread
+     */
+    public static void attach(TimeOffset offset) {
+        if (offset == null) {
+            OFFSET.remove();
+        } else {
+            OFFSET.set(offset);
+        }
+    }
+
+    static int activeCount() {
+        return ACTIVE_COUNT.get();
+    }
+
+    public static final class TimeOffset {
+        private final long millis;
+        private final long nanos;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        TimeOffset(long millis, long nanos) {
+            this.millis = millis;
+            this.nanos = nanos;
+        }
+
+        long currentTimeMillis() {
+            if (released.get()) {
+                return 0L;
+            }
+            return millis + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanos);
+        }
+
+        /**
+         * Stops the offset for every thread holding it, idempotent
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                ACTIVE_COUNT.decrementAndGet();
+            }
         }
     }
 }
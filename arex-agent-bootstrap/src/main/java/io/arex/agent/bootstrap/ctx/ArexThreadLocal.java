@@ -1,93 +1,107 @@
 package io.arex.agent.bootstrap.ctx;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * transmittable-thread-local simple version
  * 1. Avoid too many package dependencies
  * 2. Support more ThreadPool（agent）
  * 3. transmittable-thread-local not work in nio.reactor.Worker（@see AbstractMultiworkerIOReactor）
- * 4. Change from InheritableThreadLocal to ThreadLocal，avoid collect unexpected data
+ * 4. Values are not inherited by child threads, avoid collect unexpected data
+ *
+ * Each instance owns a fixed slot, the values of a thread are one array read with a single thread local lookup.
+ * Snapshots share that array until the thread writes again (copy on write),
+ * so capturing an unchanged thread and replaying on an empty one allocate nothing.
+ * Instances are meant to be static fields, slots are never reused.
  */
-public class ArexThreadLocal<T> extends ThreadLocal<T> {
+public class ArexThreadLocal<T> {
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+    private static final ThreadLocal<Values> VALUES = new ThreadLocal<>();
+
+    private final int index;
 
     public ArexThreadLocal() {
+        this.index = NEXT_INDEX.getAndIncrement();
     }
 
-    @Override
+    @SuppressWarnings("unchecked")
     public final T get() {
-        T value = super.get();
-        if (null != value) addThisToHolder();
-        return value;
+        Values values = VALUES.get();
+        if (values == null) {
+            return null;
+        }
+        Object[] slots = values.slots;
+        return index < slots.length ? (T) slots[index] : null;
     }
 
-    @Override
     public final void set(T value) {
         if (null == value) {
             remove();
-        } else {
-            super.set(value);
-            addThisToHolder();
+            return;
+        }
+        Values values = VALUES.get();
+        if (values == null) {
+            values = new Values();
+            VALUES.set(values);
         }
+        values.set(index, value);
     }
 
-    @Override
     public final void remove() {
-        removeThisFromHolder();
-        super.remove();
-    }
-
-    public void superRemove() {
-        super.remove();
-    }
-
-    public T copyValue() {
-        return get();
+        Values values = VALUES.get();
+        if (values != null && index < values.slots.length && values.slots[index] != null) {
+            values.set(index, null);
+        }
     }
 
-    private static final ThreadLocal<WeakHashMap<ArexThreadLocal<Object>, ?>> holder =
-            new InheritableThreadLocal<WeakHashMap<ArexThreadLocal<Object>, ?>>() {
-                @Override
-                protected WeakHashMap<ArexThreadLocal<Object>, ?> initialValue() {
-                    return new WeakHashMap<>();
-                }
-
-                @Override
-                protected WeakHashMap<ArexThreadLocal<Object>, ?> childValue(WeakHashMap<ArexThreadLocal<Object>, ?> parentValue) {
-                    return new WeakHashMap<ArexThreadLocal<Object>, Object>(parentValue);
-                }
-            };
-
-    @SuppressWarnings("unchecked")
-    private void addThisToHolder() {
-        if (!holder.get().containsKey(this)) {
-            holder.get().put((ArexThreadLocal<Object>) this, null);
+    /**
+     * Slots of one thread. The array may be shared with a snapshot, it is copied before the next write.
+     */
+    private static final class Values {
+        private Object[] slots = Transmitter.Snapshot.EMPTY.values;
+        private int count;
+        private Transmitter.Snapshot snapshot;
+
+        private void set(int index, Object value) {
+            if (snapshot != null || index >= slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(slots.length, Math.max(index + 1, NEXT_INDEX.get())));
+                snapshot = null;
+            }
+            Object previous = slots[index];
+            slots[index] = value;
+            if (previous == null) {
+                count++;
+            } else if (value == null) {
+                count--;
+            }
         }
-    }
 
-    private void removeThisFromHolder() {
-        holder.get().remove(this);
+        private void install(Transmitter.Snapshot installed) {
+            slots = installed.values;
+            count = installed.count;
+            snapshot = installed;
+        }
     }
 
     public static class Transmitter {
 
+        /**
+         * @return null if nothing is set on this thread
+         */
         public static Object capture() {
-            HashMap<ArexThreadLocal<Object>, Object> values = captureValues();
-            return values == null ? null : new Snapshot(captureValues());
+            Values values = VALUES.get();
+            if (values == null || values.count == 0) {
+                return null;
+            }
+            return snapshot(values);
         }
 
-        private static HashMap<ArexThreadLocal<Object>, Object> captureValues() {
-            HashMap<ArexThreadLocal<Object>, Object> values = null;
-            for (ArexThreadLocal<Object> threadLocal : holder.get().keySet()) {
-                if (null == values) {
-                    values = new HashMap<>();
-                }
-                values.put(threadLocal, threadLocal.copyValue());
+        private static Snapshot snapshot(Values values) {
+            if (values.snapshot == null) {
+                values.snapshot = new Snapshot(values.slots, values.count);
             }
-            return values;
+            return values.snapshot;
         }
 
         public static Object replay(Object captured) {
@@ -95,22 +109,13 @@ public class ArexThreadLocal<T> extends ThreadLocal<T> {
                 return null;
             }
 
-            final Snapshot capturedSnapshot = (Snapshot) captured;
-            return new Snapshot(replayValues(capturedSnapshot.values));
-        }
-
-        private static HashMap<ArexThreadLocal<Object>, Object> replayValues(HashMap<ArexThreadLocal<Object>, Object> captured) {
-            HashMap<ArexThreadLocal<Object>, Object> backup = new HashMap<>();
-            for (final Iterator<ArexThreadLocal<Object>> iterator = holder.get().keySet().iterator(); iterator.hasNext(); ) {
-                ArexThreadLocal<Object> threadLocal = iterator.next();
-                backup.put(threadLocal, threadLocal.get());
-                if (!captured.containsKey(threadLocal)) {
-                    iterator.remove();
-                    threadLocal.superRemove();
-                }
+            Values values = VALUES.get();
+            if (values == null) {
+                values = new Values();
+                VALUES.set(values);
             }
-
-            setTtlTo(captured);
+            Snapshot backup = values.count == 0 ? Snapshot.EMPTY : snapshot(values);
+            values.install((Snapshot) captured);
             return backup;
         }
 
@@ -119,33 +124,26 @@ public class ArexThreadLocal<T> extends ThreadLocal<T> {
                 return;
             }
 
-            final Snapshot backupSnapshot = (Snapshot) backup;
-            restoreValues(backupSnapshot.values);
-        }
-
-        private static void restoreValues(HashMap<ArexThreadLocal<Object>, Object> backup) {
-            for (final Iterator<ArexThreadLocal<Object>> iterator = holder.get().keySet().iterator(); iterator.hasNext(); ) {
-                ArexThreadLocal<Object> threadLocal = iterator.next();
-                if (!backup.containsKey(threadLocal)) {
-                    iterator.remove();
-                    threadLocal.superRemove();
-                }
+            Values values = VALUES.get();
+            if (values == null) {
+                values = new Values();
+                VALUES.set(values);
             }
-            setTtlTo(backup);
+            values.install((Snapshot) backup);
         }
 
-        public static void setTtlTo(HashMap<ArexThreadLocal<Object>, Object> ttlValues) {
-            for (Map.Entry<ArexThreadLocal<Object>, Object> entry : ttlValues.entrySet()) {
-                ArexThreadLocal<Object> threadLocal = entry.getKey();
-                threadLocal.set(entry.getValue());
-            }
-        }
+        /**
+         * Immutable values of a thread at capture time, indexed by slot
+         */
+        public static final class Snapshot {
+            public static final Snapshot EMPTY = new Snapshot(new Object[0], 0);
 
-        public static class Snapshot {
-            final HashMap<ArexThreadLocal<Object>, Object> values;
+            final Object[] values;
+            final int count;
 
-            public Snapshot(HashMap<ArexThreadLocal<Object>, Object> values) {
+            private Snapshot(Object[] values, int count) {
                 this.values = values;
+                this.count = count;
             }
         }
 
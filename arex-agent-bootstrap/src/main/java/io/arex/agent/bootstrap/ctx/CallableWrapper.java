@@ -44,7 +44,7 @@ public class CallableWrapper<V> implements Callable<V> {
     }
 
     public static <T> Callable<T> get(Callable<T> callable) {
-        if (null == callable || TraceContextManager.get() == null) {
+        if (null == callable || TraceContextManager.getTraceId() == null) {
             return callable;
         }
 
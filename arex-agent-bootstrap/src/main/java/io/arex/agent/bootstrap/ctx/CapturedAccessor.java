@@ -0,0 +1,14 @@
+package io.arex.agent.bootstrap.ctx;
+
+/**
+ * Implemented by the agent on async tasks defined after it is installed, together with a field holding
+ * what {@link ArexThreadLocal.Transmitter#capture()} returned when the task was created.
+ * Classes loaded before cannot get a field, their captures stay in {@link io.arex.agent.bootstrap.internal.Cache#CAPTURED_CACHE}.
+ */
+public interface CapturedAccessor {
+    String FIELD_NAME = "arex$captured";
+
+    Object arex$getCaptured();
+
+    void arex$setCaptured(Object captured);
+}
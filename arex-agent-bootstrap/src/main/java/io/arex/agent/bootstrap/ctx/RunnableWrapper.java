@@ -41,7 +41,7 @@ public class RunnableWrapper implements Runnable {
     }
 
     public static Runnable get(Runnable runnable) {
-        if (null == runnable  || TraceContextManager.get() == null) {
+        if (null == runnable  || TraceContextManager.getTraceId() == null) {
             return runnable;
         }
 
@@ -2,6 +2,7 @@ package io.arex.agent.bootstrap.model;
 
 import io.arex.agent.bootstrap.util.StringUtil;
 import java.io.Serializable;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -40,6 +41,7 @@ public interface Mocker extends Serializable {
     public static class Target implements Serializable {
 
         private String body;
+        private byte[] bodyBytes;
         private Map<String, Object> attributes;
         private String type;
 
@@ -67,10 +69,26 @@ public interface Mocker extends Serializable {
             return result instanceof String ? (String) result : null;
         }
 
+        /**
+         * @return the Base64 of the raw bytes if the body was set by {@link #setBodyBytes(byte[])},
+         * encoded on each call, the JSON of the mocker is the only expected reader
+         */
         public String getBody() {
+            if (this.body == null && this.bodyBytes != null) {
+                return Base64.getEncoder().encodeToString(this.bodyBytes);
+            }
             return this.body;
         }
 
+        /**
+         * Not a bean getter, serializers of the mocker see the body only once
+         *
+         * @return the raw body, null if the body is a string
+         */
+        public byte[] bodyBytes() {
+            return this.bodyBytes;
+        }
+
         public Map<String, Object> getAttributes() {
             return this.attributes;
         }
@@ -81,6 +99,15 @@ public interface Mocker extends Serializable {
 
         public void setBody(String body) {
             this.body = body;
+            this.bodyBytes = null;
+        }
+
+        /**
+         * Keep a raw body as it is, binary serializers write the bytes and JSON gets their Base64 from {@link #getBody()}
+         */
+        public void setBodyBytes(byte[] bodyBytes) {
+            this.bodyBytes = bodyBytes;
+            this.body = null;
         }
 
         public void setAttributes(Map<String, Object> attributes) {
@@ -0,0 +1,93 @@
+package io.arex.agent.bootstrap.util;
+
+/**
+ * Thread safe set of primitive longs: open addressing with linear probing, no boxing.
+ * 0 marks an empty slot, the value 0 itself is kept in a flag.
+ */
+public class ConcurrentLongHashSet {
+    private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+    private long[] table;
+    private int size;
+    private boolean containsZero;
+
+    public ConcurrentLongHashSet() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    public ConcurrentLongHashSet(int expectedSize) {
+        this.table = new long[tableSize(expectedSize)];
+    }
+
+    /**
+     * @return false if the value was already in the set
+     */
+    public synchronized boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = indexOf(table, value);
+        if (table[index] == value) {
+            return false;
+        }
+        table[index] = value;
+        if (++size * 2 > table.length) {
+            resize();
+        }
+        return true;
+    }
+
+    public synchronized boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        return table[indexOf(table, value)] == value;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized void clear() {
+        table = new long[tableSize(DEFAULT_EXPECTED_SIZE)];
+        size = 0;
+        containsZero = false;
+    }
+
+    /**
+     * @return the slot of the value, or the empty slot where it would be inserted
+     */
+    private static int indexOf(long[] table, long value) {
+        int mask = table.length - 1;
+        int index = (int) HashUtil.mix64(value) & mask;
+        while (table[index] != 0 && table[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resize() {
+        long[] resized = new long[table.length << 1];
+        for (long value : table) {
+            if (value != 0) {
+                resized[indexOf(resized, value)] = value;
+            }
+        }
+        table = resized;
+    }
+
+    private static int tableSize(int expectedSize) {
+        // at most half full
+        int tableSize = Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) << 1;
+        return Math.max(tableSize, 4);
+    }
+}
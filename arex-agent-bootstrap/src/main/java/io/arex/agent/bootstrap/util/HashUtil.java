@@ -0,0 +1,52 @@
+package io.arex.agent.bootstrap.util;
+
+/**
+ * 64-bit FNV-1a, streamed over several parts without building a joined string.
+ * The value returned for one part is the seed of the next one.
+ */
+public class HashUtil {
+    public static final long FNV64_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV64_PRIME = 0x100000001b3L;
+
+    private HashUtil() {
+    }
+
+    public static long fnv64(String value) {
+        return fnv64(FNV64_OFFSET_BASIS, value);
+    }
+
+    /**
+     * The length is hashed after the chars, so ("ab", "c") and ("a", "bc") differ, and null differs from empty
+     */
+    public static long fnv64(long hash, String value) {
+        if (value == null) {
+            return fnv64(hash, -1L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV64_PRIME;
+        }
+        return fnv64(hash, (long) value.length());
+    }
+
+    public static long fnv64(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= value & 0xFF;
+            hash *= FNV64_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+
+    /**
+     * Murmur3 finalizer, spreads the bits of a key before it is masked into a table index
+     */
+    public static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
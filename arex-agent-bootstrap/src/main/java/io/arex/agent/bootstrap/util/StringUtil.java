@@ -363,6 +363,31 @@ public class StringUtil {
         return true;
     }
 
+    /**
+     * Length of the UTF-8 encoding without encoding, a lone surrogate counts as the one byte of '?'
+     * as in String.getBytes
+     */
+    public static int utf8Length(CharSequence value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                length++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // 4 bytes for the 2 chars of the pair
+                length += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            }
+        }
+        return length;
+    }
+
     static boolean regionMatches(CharSequence cs, boolean ignoreCase, int thisStart, CharSequence substring, int start, int length) {
         if (cs instanceof String && substring instanceof String) {
             return ((String)cs).regionMatches(ignoreCase, thisStart, (String)substring, start, length);
@@ -0,0 +1,31 @@
+package io.arex.agent.bootstrap;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceIdTest {
+
+    @Test
+    void render() {
+        TraceId traceId = new TraceId("AREX-127-0-0-1-", 1000L, 15L);
+        assertEquals((1000L << TraceId.COUNTER_BITS) | 15L, traceId.getHandle());
+        assertEquals("AREX-127-0-0-1-100015", traceId.toString());
+        assertSame(traceId.toString(), traceId.toString());
+
+        TraceId external = TraceId.of("mock-case");
+        assertEquals(0L, external.getHandle());
+        assertEquals("mock-case", external.toString());
+    }
+
+    @Test
+    void generate() {
+        TraceContextManager.init("127.0.0.1");
+        TraceId traceId = TraceContextManager.getTraceId(true);
+        assertSame(traceId, TraceContextManager.getTraceId(false));
+        assertTrue(TraceContextManager.get().startsWith("AREX-127-0-0-1-"));
+
+        assertEquals(traceId.toString(), TraceContextManager.remove());
+        assertNull(TraceContextManager.getTraceId());
+    }
+}
@@ -0,0 +1,94 @@
+package io.arex.agent.bootstrap.cache;
+
+import io.arex.agent.bootstrap.TraceContextManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeCacheTest {
+
+    @AfterEach
+    void tearDown() {
+        TimeCache.remove();
+        TraceContextManager.remove();
+    }
+
+    @Test
+    void putAndRemove() {
+        TimeCache.put(1000L);
+        // no trace, nothing is replayed
+        assertEquals(0L, TimeCache.get());
+        assertEquals(0, TimeCache.activeCount());
+
+        TraceContextManager.set("mock-trace");
+        TimeCache.put(1000L);
+        assertEquals(1, TimeCache.activeCount());
+        assertTrue(TimeCache.get() >= 1000L);
+        TimeCache.put(2000L);
+        assertEquals(1, TimeCache.activeCount());
+        assertTrue(TimeCache.get() >= 2000L);
+
+        TimeCache.remove();
+        assertEquals(0, TimeCache.activeCount());
+        assertEquals(0L, TimeCache.get());
+    }
+
+    @Test
+    void attach() {
+        TraceContextManager.set("mock-trace");
+        TimeCache.put(1000L);
+        TimeCache.TimeOffset offset = TimeCache.current();
+        assertNotNull(offset);
+
+        TimeCache.attach(null);
+        assertNull(TimeCache.current());
+        assertEquals(0L, TimeCache.get());
+        // still active, the attaching thread does not own it
+        assertEquals(1, TimeCache.activeCount());
+
+        TimeCache.attach(offset);
+        assertTrue(TimeCache.get() >= 1000L);
+        offset.release();
+        assertEquals(0L, TimeCache.get());
+    }
+
+    @Test
+    void releasedOffsetIsNotReplayed() {
+        TimeCache.TimeOffset offset = new TimeCache.TimeOffset(1000L, System.nanoTime());
+        assertTrue(offset.currentTimeMillis() >= 1000L);
+        offset.release();
+        assertEquals(0L, offset.currentTimeMillis());
+    }
+
+    /**
+     * The time machine reads the cache on every time call, it must not allocate while nothing is replayed
+     */
+    @Test
+    void noAllocationWithoutReplay() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        Assumptions.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        long sum = 0;
+        for (int i = 0; i < 10_000; i++) {
+            sum += TimeCache.get();
+        }
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000_000; i++) {
+            sum += TimeCache.get();
+        }
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(0L, sum);
+        // the measurement itself may allocate a little
+        assertTrue(allocated < 1024, "allocated bytes: " + allocated);
+    }
+}
@@ -1,47 +1,89 @@
 package io.arex.agent.bootstrap.ctx;
 
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
-import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ArexThreadLocalTest {
 
     static ArexThreadLocal<String> target = null;
-
-    static HashMap<ArexThreadLocal<Object>, Object> snapshotMap = null;
+    static ArexThreadLocal<String> other = null;
 
     @BeforeAll
     static void setUp() {
         target = new ArexThreadLocal<>();
-        snapshotMap = new HashMap<>();
+        other = new ArexThreadLocal<>();
+    }
+
+    @AfterEach
+    void clean() {
+        target.remove();
+        other.remove();
     }
 
     @AfterAll
     static void tearDown() {
         target = null;
-        snapshotMap = null;
+        other = null;
     }
 
     @Test
     void capture() {
+        assertNull(ArexThreadLocal.Transmitter.capture());
         target.set("mock");
-        assertNotNull(ArexThreadLocal.Transmitter.capture());
+        Object captured = ArexThreadLocal.Transmitter.capture();
+        assertNotNull(captured);
+        // unchanged thread, the snapshot is reused
+        assertSame(captured, ArexThreadLocal.Transmitter.capture());
+
+        target.set("mock-changed");
+        assertNotSame(captured, ArexThreadLocal.Transmitter.capture());
+        target.set(null);
+        assertNull(target.get());
+        assertNull(ArexThreadLocal.Transmitter.capture());
     }
 
     @Test
     void replay() {
         assertNull(ArexThreadLocal.Transmitter.replay(null));
-        assertNotNull(ArexThreadLocal.Transmitter.replay(new ArexThreadLocal.Transmitter.Snapshot(snapshotMap)));
+        assertSame(ArexThreadLocal.Transmitter.Snapshot.EMPTY,
+                ArexThreadLocal.Transmitter.replay(ArexThreadLocal.Transmitter.Snapshot.EMPTY));
     }
 
     @Test
     void restore() {
         assertDoesNotThrow(() -> ArexThreadLocal.Transmitter.restore(null));
-        assertDoesNotThrow(() -> ArexThreadLocal.Transmitter.restore(
-                new ArexThreadLocal.Transmitter.Snapshot(snapshotMap)));
+        assertDoesNotThrow(() -> ArexThreadLocal.Transmitter.restore(ArexThreadLocal.Transmitter.Snapshot.EMPTY));
+    }
+
+    @Test
+    void replayAndRestore() throws InterruptedException {
+        target.set("mock-task");
+        Object captured = ArexThreadLocal.Transmitter.capture();
+        target.remove();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            other.set("mock-worker");
+            Object backup = ArexThreadLocal.Transmitter.replay(captured);
+            assertEquals("mock-task", target.get());
+            assertNull(other.get());
+            // writes during the task do not change the snapshot
+            target.set("mock-written");
+            ArexThreadLocal.Transmitter.restore(backup);
+            assertNull(target.get());
+            assertEquals("mock-worker", other.get());
+        });
+        worker.setUncaughtExceptionHandler((thread, e) -> failure.set(e));
+        worker.start();
+        worker.join();
+        assertNull(failure.get());
+        ArexThreadLocal.Transmitter.replay(captured);
+        assertEquals("mock-task", target.get());
     }
-}
\ No newline at end of file
+}
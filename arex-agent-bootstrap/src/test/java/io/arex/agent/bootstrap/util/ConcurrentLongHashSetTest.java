@@ -0,0 +1,62 @@
+package io.arex.agent.bootstrap.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLongHashSetTest {
+
+    @Test
+    void addAndContains() {
+        ConcurrentLongHashSet set = new ConcurrentLongHashSet(2);
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(0L));
+        assertFalse(set.add(0L));
+        assertTrue(set.contains(0L));
+        for (long i = 1; i <= 1000; i++) {
+            assertTrue(set.add(i * 31));
+        }
+        assertFalse(set.add(31L));
+        assertEquals(1001, set.size());
+        for (long i = 1; i <= 1000; i++) {
+            assertTrue(set.contains(i * 31));
+        }
+        assertFalse(set.contains(32L));
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0L));
+        assertFalse(set.contains(31L));
+    }
+
+    @Test
+    void concurrentAdd() throws InterruptedException {
+        ConcurrentLongHashSet set = new ConcurrentLongHashSet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch latch = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (long i = 1; i <= 10_000; i++) {
+                    set.add(i);
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(10_000, set.size());
+    }
+
+    @Test
+    void hash() {
+        assertEquals(HashUtil.fnv64("mock"), HashUtil.fnv64("mock"));
+        assertNotEquals(HashUtil.fnv64(HashUtil.fnv64("ab"), "c"), HashUtil.fnv64(HashUtil.fnv64("a"), "bc"));
+        assertNotEquals(HashUtil.fnv64((String) null), HashUtil.fnv64(""));
+        assertNotEquals(HashUtil.mix64(1L), HashUtil.mix64(2L));
+    }
+}
@@ -0,0 +1,24 @@
+package io.arex.agent.bootstrap.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashUtilTest {
+
+    @Test
+    void fnv64() {
+        assertEquals(HashUtil.fnv64("mock"), HashUtil.fnv64("mock"));
+        assertNotEquals(HashUtil.fnv64("mock1"), HashUtil.fnv64("mock2"));
+        assertNotEquals(HashUtil.fnv64((String) null), HashUtil.fnv64(""));
+        // parts are not concatenated
+        assertNotEquals(HashUtil.fnv64(HashUtil.fnv64("ab"), "c"), HashUtil.fnv64(HashUtil.fnv64("a"), "bc"));
+        assertNotEquals(HashUtil.fnv64(HashUtil.FNV64_OFFSET_BASIS, 1L), HashUtil.fnv64(HashUtil.FNV64_OFFSET_BASIS, 2L));
+    }
+
+    @Test
+    void mix64() {
+        assertEquals(0L, HashUtil.mix64(0L));
+        assertNotEquals(HashUtil.mix64(1L) & 0xFF, HashUtil.mix64(257L) & 0xFF);
+    }
+}
@@ -2,6 +2,7 @@ package io.arex.agent.bootstrap.util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -156,6 +157,14 @@ class StringUtilTest {
         assertTrue(actualResult);
     }
 
+    @Test
+    void utf8Length() {
+        String[] values = {"", "mock", "caf\u00e9", "\u4e2d\u6587", "\ud83d\ude00", "\ud83d", "a\ude00b"};
+        for (String value : values) {
+            assertEquals(value.getBytes(StandardCharsets.UTF_8).length, StringUtil.utf8Length(value), value);
+        }
+    }
+
     @Test
     void regionMatches() {
     }
@@ -9,6 +9,7 @@ import io.arex.foundation.healthy.HealthManager;
 import io.arex.foundation.serializer.JacksonSerializer;
 import io.arex.foundation.services.ConfigService;
 import io.arex.foundation.services.DataCollectorService;
+import io.arex.foundation.services.LocalStorageService;
 import io.arex.foundation.util.NetUtils;
 import io.arex.foundation.util.SPIUtil;
 import io.arex.inst.runtime.context.RecordLimiter;
@@ -83,9 +84,9 @@ public abstract class BaseAgentInstaller implements AgentInstaller {
         if (ConfigManager.INSTANCE.isLocalStorage()) {
             List<DataCollector> extendCollectorList =
                     SPIUtil.load(DataCollector.class, getClassLoader());
-            if (CollectionUtil.isNotEmpty(extendCollectorList)) {
-                collector = extendCollectorList.get(0);
-            }
+            // an extension takes precedence, the built-in local storage is only the fallback
+            collector = CollectionUtil.isNotEmpty(extendCollectorList) ?
+                    extendCollectorList.get(0) : LocalStorageService.INSTANCE;
         }
         collector.start();
         DataService.builder().setDataCollector(collector).build();
@@ -129,6 +129,8 @@ public class InstrumentationInstaller extends BaseAgentInstaller {
             )
             .with(new TransformListener(agentFile))
             .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+            // transformers see the loaded type of a retransformed class, its schema cannot change
+            .with(AgentBuilder.DescriptionStrategy.Default.HYBRID)
             .with(AgentBuilder.InitializationStrategy.NoOp.INSTANCE)
             .with(AgentBuilder.TypeStrategy.Default.REBASE)
             .with(AgentBuilder.LocationStrategy.ForClassLoader.STRONG
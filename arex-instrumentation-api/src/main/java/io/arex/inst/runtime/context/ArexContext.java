@@ -1,28 +1,36 @@
 package io.arex.inst.runtime.context;
 
+import io.arex.agent.bootstrap.cache.TimeCache;
+import io.arex.agent.bootstrap.util.ConcurrentLongHashSet;
 import io.arex.agent.bootstrap.util.StringUtil;
 import io.arex.inst.runtime.model.ArexConstants;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Most requests only record a few mockers, the structures of the context are created on first use.
+ */
 public class ArexContext {
 
     private final String caseId;
     private final String replayId;
     private final long createTime;
-    private final SequenceProvider sequence;
-    private final List<Integer> methodSignatureHashList = new ArrayList<>();
-    private final Map<String, Object> cachedReplayResultMap = new ConcurrentHashMap<>();
+    private volatile long expireTime;
+    private volatile SequenceProvider sequence;
+    private volatile ConcurrentLongHashSet methodSignatureHashes;
+    private volatile Map<String, Object> cachedReplayResultMap;
     private Map<String, Set<String>> excludeMockTemplate;
+    private volatile ReplayPrefetch replayPrefetch;
+    private volatile CaseMockerBuffer caseMockerBuffer;
+    private volatile TimeCache.TimeOffset timeOffset;
 
     private Map<String, Object> attachments = null;
 
     private boolean isRedirectRequest;
+    private volatile boolean cleared;
 
     public static ArexContext of(String caseId) {
         return of(caseId, null);
@@ -35,7 +43,6 @@ public class ArexContext {
     private ArexContext(String caseId, String replayId) {
         this.createTime = System.currentTimeMillis();
         this.caseId = caseId;
-        this.sequence = new SequenceProvider();
         this.replayId = replayId;
     }
 
@@ -51,6 +58,14 @@ public class ArexContext {
         return createTime;
     }
 
+    long getExpireTime() {
+        return expireTime;
+    }
+
+    void setExpireTime(long expireTime) {
+        this.expireTime = expireTime;
+    }
+
     public boolean isRecord() {
         return !isReplay();
     }
@@ -60,15 +75,51 @@ public class ArexContext {
     }
 
     public int calculateSequence(String target) {
-        return StringUtil.isEmpty(target) ? 0 : sequence.get(target);
-    }
-
-    public List<Integer> getMethodSignatureHashList() {
-        return methodSignatureHashList;
+        if (StringUtil.isEmpty(target)) {
+            return 0;
+        }
+        SequenceProvider provider = sequence;
+        if (provider == null) {
+            synchronized (this) {
+                provider = sequence;
+                if (provider == null) {
+                    provider = new SequenceProvider();
+                    sequence = provider;
+                }
+            }
+        }
+        return provider.get(target);
+    }
+
+    /**
+     * @return 64-bit hashes of the dynamic class method signatures already recorded
+     */
+    public ConcurrentLongHashSet getMethodSignatureHashes() {
+        ConcurrentLongHashSet hashes = methodSignatureHashes;
+        if (hashes == null) {
+            synchronized (this) {
+                hashes = methodSignatureHashes;
+                if (hashes == null) {
+                    hashes = new ConcurrentLongHashSet();
+                    methodSignatureHashes = hashes;
+                }
+            }
+        }
+        return hashes;
     }
 
     public Map<String, Object> getCachedReplayResultMap() {
-        return cachedReplayResultMap;
+        Map<String, Object> map = cachedReplayResultMap;
+        if (map == null) {
+            synchronized (this) {
+                map = cachedReplayResultMap;
+                if (map == null) {
+                    map = new ConcurrentHashMap<>();
+                    cachedReplayResultMap = map;
+                }
+            }
+        }
+        return map;
     }
     public Map<String, Set<String>> getExcludeMockTemplate() {
         return excludeMockTemplate;
@@ -78,6 +129,39 @@ public class ArexContext {
         this.excludeMockTemplate = excludeMockTemplate;
     }
 
+    /**
+     * @return null if the recorded mockers are not prefetched
+     */
+    public ReplayPrefetch getReplayPrefetch() {
+        return replayPrefetch;
+    }
+
+    public void setReplayPrefetch(ReplayPrefetch replayPrefetch) {
+        this.replayPrefetch = replayPrefetch;
+    }
+
+    /**
+     * @return null if the mockers of the case are saved one by one
+     */
+    public CaseMockerBuffer getCaseMockerBuffer() {
+        return caseMockerBuffer;
+    }
+
+    public void setCaseMockerBuffer(CaseMockerBuffer caseMockerBuffer) {
+        this.caseMockerBuffer = caseMockerBuffer;
+    }
+
+    /**
+     * @return the replayed clock of the case, null if time is not replayed
+     */
+    public TimeCache.TimeOffset getTimeOffset() {
+        return timeOffset;
+    }
+
+    public void setTimeOffset(TimeCache.TimeOffset timeOffset) {
+        this.timeOffset = timeOffset;
+    }
+
     public void setAttachment(String key, Object value) {
         if (attachments == null) {
             attachments = new HashMap<>();
@@ -123,15 +207,26 @@ public class ArexContext {
         return isRedirectRequest;
     }
 
+    /**
+     * @return true if the context was removed from the record map, threads still holding it must not use it
+     */
+    public boolean isCleared() {
+        return cleared;
+    }
+
+    /**
+     * Release the structures, async tasks may still hold the context after it expired
+     */
     public void clear() {
-        methodSignatureHashList.clear();
-        cachedReplayResultMap.clear();
-        sequence.clear();
-        if (excludeMockTemplate != null) {
-            excludeMockTemplate.clear();
-        }
-        if (attachments != null) {
-            attachments.clear();
+        cleared = true;
+        methodSignatureHashes = null;
+        cachedReplayResultMap = null;
+        sequence = null;
+        replayPrefetch = null;
+        if (caseMockerBuffer != null) {
+            caseMockerBuffer.drop();
         }
+        excludeMockTemplate = null;
+        attachments = null;
     }
 }
@@ -0,0 +1,73 @@
+package io.arex.inst.runtime.context;
+
+import io.arex.agent.bootstrap.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Serialized mockers of a recording case, kept until the entry point completes so the case is saved as one unit.
+ * Once the count or size budget is exceeded the whole case is dropped,
+ * the size is counted in UTF-8 bytes of the serialized mockers, the encoding they are sent with.
+ */
+public class CaseMockerBuffer {
+    private final int maxCount;
+    private final long maxBytes;
+    private List<String> mockers = new ArrayList<>();
+    private long bytes;
+    private boolean dropped;
+    private boolean flushed;
+
+    public CaseMockerBuffer(int maxCount, long maxBytes) {
+        this.maxCount = maxCount;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return false if the mocker was not buffered: the case is dropped or already flushed
+     */
+    public synchronized boolean add(String mockData) {
+        if (dropped || flushed) {
+            return false;
+        }
+        bytes += StringUtil.utf8Length(mockData);
+        if (mockers.size() >= maxCount || bytes > maxBytes) {
+            drop();
+            return false;
+        }
+        mockers.add(mockData);
+        return true;
+    }
+
+    /**
+     * Hand over the buffered mockers, mockers added later are not buffered any more
+     * @return empty if the case is dropped
+     */
+    public synchronized List<String> flush() {
+        if (dropped || flushed) {
+            return Collections.emptyList();
+        }
+        flushed = true;
+        List<String> result = mockers;
+        mockers = Collections.emptyList();
+        return result;
+    }
+
+    public synchronized void drop() {
+        dropped = true;
+        mockers = Collections.emptyList();
+    }
+
+    public synchronized boolean isDropped() {
+        return dropped;
+    }
+
+    public synchronized boolean isFlushed() {
+        return flushed;
+    }
+
+    public synchronized int size() {
+        return mockers.size();
+    }
+}
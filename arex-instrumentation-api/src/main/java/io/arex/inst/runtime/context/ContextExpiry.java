@@ -0,0 +1,130 @@
+package io.arex.inst.runtime.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hashed wheel of one second buckets expiring the contexts, driven by a daemon ticker.
+ * A tick only visits the bucket of the elapsed second, so expiry costs O(expired) instead of a scan of all contexts.
+ * A context scheduled again (e.g. completed before its ttl) leaves a stale entry behind, skipped when its bucket is visited.
+ */
+final class ContextExpiry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContextExpiry.class);
+    static final long TICK_MILLIS = 1000L;
+
+    private final Queue<Entry>[] buckets;
+    private final int mask;
+    private final Consumer<ArexContext> expiredListener;
+    private volatile ScheduledExecutorService ticker;
+    private long lastTick = -1;
+
+    /**
+     * @param bucketCount power of two, the wheel should cover the longest ttl to avoid visiting an entry twice
+     */
+    @SuppressWarnings("unchecked")
+    ContextExpiry(int bucketCount, Consumer<ArexContext> expiredListener) {
+        this.buckets = new Queue[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = bucketCount - 1;
+        this.expiredListener = expiredListener;
+    }
+
+    void schedule(ArexContext context, long expireTime) {
+        context.setExpireTime(expireTime);
+        buckets[bucketOf(expireTime / TICK_MILLIS)].offer(new Entry(context, expireTime));
+        startTicker();
+    }
+
+    /**
+     * Visit the buckets of the seconds elapsed since the last tick
+     * @return expired count
+     */
+    synchronized int tick(long now) {
+        long currentTick = now / TICK_MILLIS;
+        if (lastTick < 0) {
+            lastTick = currentTick - 1;
+        }
+        if (currentTick <= lastTick) {
+            return 0;
+        }
+        long from = Math.max(lastTick + 1, currentTick - mask);
+        lastTick = currentTick;
+
+        int expired = 0;
+        List<Entry> entries = new ArrayList<>();
+        for (long tick = from; tick <= currentTick; tick++) {
+            Queue<Entry> bucket = buckets[bucketOf(tick)];
+            Entry entry;
+            while ((entry = bucket.poll()) != null) {
+                entries.add(entry);
+            }
+            for (Entry polled : entries) {
+                if (polled.expireTime != polled.context.getExpireTime()) {
+                    continue;
+                }
+                if (polled.expireTime <= now) {
+                    expiredListener.accept(polled.context);
+                    expired++;
+                } else {
+                    // later round of the wheel
+                    bucket.offer(polled);
+                }
+            }
+            entries.clear();
+        }
+        if (expired > 0) {
+            LOGGER.debug("[arex] expired context count: {}", expired);
+        }
+        return expired;
+    }
+
+    private int bucketOf(long tick) {
+        return (int) (tick & mask);
+    }
+
+    private void startTicker() {
+        if (ticker != null) {
+            return;
+        }
+        synchronized (this) {
+            if (ticker == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "arex-context-expiry");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                executor.scheduleWithFixedDelay(this::safeTick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+                ticker = executor;
+            }
+        }
+    }
+
+    private void safeTick() {
+        try {
+            tick(System.currentTimeMillis());
+        } catch (Throwable e) {
+            LOGGER.warn("[arex] context expiry tick failed", e);
+        }
+    }
+
+    private static final class Entry {
+        private final ArexContext context;
+        private final long expireTime;
+
+        private Entry(ArexContext context, long expireTime) {
+            this.context = context;
+            this.expireTime = expireTime;
+        }
+    }
+}
@@ -1,29 +1,43 @@
 package io.arex.inst.runtime.context;
 
 import io.arex.agent.bootstrap.TraceContextManager;
+import io.arex.agent.bootstrap.cache.TimeCache;
+import io.arex.agent.bootstrap.ctx.ArexThreadLocal;
 import io.arex.agent.bootstrap.util.StringUtil;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
 
 public class ContextManager {
-    private static final Logger LOGGER = LoggerFactory.getLogger(ContextManager.class);
-
+    /**
+     * Index of the contexts by record id, for the threads which only know the id, e.g. a redirected request
+     */
     public static Map<String, ArexContext> RECORD_MAP = new ConcurrentHashMap<>();
+    /**
+     * Context of the current thread, transmitted to async tasks with the trace id
+     */
+    private static final ArexThreadLocal<ArexContext> CURRENT_CONTEXT = new ArexThreadLocal<>();
     private static final long RECORD_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
-    private static final ReentrantLock CLEANUP_LOCK = new ReentrantLock();
+    /**
+     * A completed case is kept a little longer for the requests joining it by record id, e.g. a redirect
+     */
+    private static final long COMPLETED_TTL_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final ContextExpiry EXPIRY = new ContextExpiry(64, ContextManager::expire);
 
     /**
      * agent call this method
      */
+    public static ArexContext current() {
+        ArexContext context = CURRENT_CONTEXT.get();
+        return context == null || context.isCleared() ? null : context;
+    }
+
+    /**
+     * @see #current()
+     */
     public static ArexContext currentContext() {
-        return currentContext(false, null);
+        return current();
     }
 
     /**
@@ -36,6 +50,8 @@ public class ContextManager {
             ArexContext context = ArexContext.of(caseId, TraceContextManager.generateId());
             // Each replay init generates the latest context(maybe exist previous recorded context)
             RECORD_MAP.put(caseId, context);
+            EXPIRY.schedule(context, context.getCreateTime() + RECORD_TTL_MILLIS);
+            CURRENT_CONTEXT.set(context);
             return context;
         }
 
@@ -44,11 +60,34 @@ public class ContextManager {
         if (StringUtil.isEmpty(traceId)) {
             return null;
         }
+        ArexContext context = RECORD_MAP.get(traceId);
         // first init execute
-        if (createIfAbsent) {
-            return RECORD_MAP.computeIfAbsent(traceId, ArexContext::of);
+        if (context == null && createIfAbsent) {
+            ArexContext created = ArexContext.of(traceId);
+            context = RECORD_MAP.putIfAbsent(traceId, created);
+            if (context == null) {
+                context = created;
+                EXPIRY.schedule(created, created.getCreateTime() + RECORD_TTL_MILLIS);
+            }
         }
-        return RECORD_MAP.get(traceId);
+        CURRENT_CONTEXT.set(context);
+        return context;
+    }
+
+    /**
+     * Continue the trace of the record id on this thread, e.g. a redirected request or a dubbo stream callback
+     */
+    public static ArexContext attach(String recordId) {
+        TraceContextManager.set(recordId);
+        ArexContext context = StringUtil.isEmpty(recordId) ? null : RECORD_MAP.get(recordId);
+        CURRENT_CONTEXT.set(context);
+        TimeCache.attach(context == null ? null : context.getTimeOffset());
+        return context;
+    }
+
+    public static void remove() {
+        TraceContextManager.remove();
+        CURRENT_CONTEXT.remove();
     }
 
     public static ArexContext getRecordContext(String recordId) {
@@ -56,42 +95,42 @@ public class ContextManager {
     }
 
     public static boolean needRecord() {
-        ArexContext context = currentContext();
+        ArexContext context = current();
         return context != null && !context.isReplay();
     }
 
     public static boolean needReplay() {
-        ArexContext context = currentContext();
+        ArexContext context = current();
         return context != null && context.isReplay();
     }
 
     public static boolean needRecordOrReplay() {
-        return currentContext() != null;
+        return current() != null;
     }
 
-    public static void overdueCleanUp() {
-        if (RECORD_MAP.size() > 0 && CLEANUP_LOCK.tryLock()) {
-            List<String> removeRecordIds = new ArrayList<>(RECORD_MAP.size());
-            try {
-                long now = System.currentTimeMillis();
-                for (Map.Entry<String, ArexContext> entry: RECORD_MAP.entrySet()) {
-                    if (isExpired(entry.getValue().getCreateTime(), now)) {
-                        entry.getValue().clear();
-                        RECORD_MAP.remove(entry.getKey());
-                        removeRecordIds.add(entry.getKey());
-                    }
-                }
-            } finally {
-                CLEANUP_LOCK.unlock();
-                if (removeRecordIds.size() > 0) {
-                    LOGGER.info("clean up expired count: {}, arex-record-id: {}",
-                            removeRecordIds.size(), String.join(",", removeRecordIds));
-                }
-            }
+    /**
+     * The entry point of the case completed, its context expires soon instead of at the end of the ttl.
+     * Its replayed clock keeps running until then for the requests joining it by record id.
+     */
+    public static void complete(ArexContext context) {
+        if (context == null || context.isCleared()) {
+            return;
+        }
+        long expireTime = System.currentTimeMillis() + COMPLETED_TTL_MILLIS;
+        if (expireTime < context.getExpireTime()) {
+            EXPIRY.schedule(context, expireTime);
         }
     }
 
-    private static boolean isExpired(long createTime, long now) {
-        return now - createTime >= RECORD_TTL_MILLIS;
+    /**
+     * The replayed clock of the case is released here, the thread which put it may never handle a request again
+     */
+    static void expire(ArexContext context) {
+        RECORD_MAP.remove(context.getCaseId(), context);
+        TimeCache.TimeOffset timeOffset = context.getTimeOffset();
+        if (timeOffset != null) {
+            timeOffset.release();
+        }
+        context.clear();
     }
 }
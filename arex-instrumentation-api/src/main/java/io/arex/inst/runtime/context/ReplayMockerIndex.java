@@ -0,0 +1,104 @@
+package io.arex.inst.runtime.context;
+
+import io.arex.agent.bootstrap.model.MockCategoryType;
+import io.arex.agent.bootstrap.model.MockStrategyEnum;
+import io.arex.agent.bootstrap.model.Mocker;
+import io.arex.agent.bootstrap.util.CollectionUtil;
+import io.arex.agent.bootstrap.util.HashUtil;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recorded mockers of the replaying case, loaded with one storage call when the replay context is created.
+ * Mockers are grouped by category, operation and a 64-bit hash of the request body,
+ * each group is consumed in recording order like the sequence kept by the storage service.
+ */
+public class ReplayMockerIndex {
+    private final Map<String, Sequence> sequences;
+
+    private ReplayMockerIndex(Map<String, Sequence> sequences) {
+        this.sequences = sequences;
+    }
+
+    /**
+     * Entry point mockers are skipped, they are the request being replayed and never queried.
+     */
+    public static ReplayMockerIndex of(List<? extends Mocker> mockers) {
+        if (CollectionUtil.isEmpty(mockers)) {
+            return new ReplayMockerIndex(new HashMap<>());
+        }
+
+        Map<String, List<Mocker>> groups = new HashMap<>();
+        for (Mocker mocker : mockers) {
+            if (mocker == null || mocker.getCategoryType() == null || mocker.getCategoryType().isEntryPoint()) {
+                continue;
+            }
+            groups.computeIfAbsent(key(mocker), k -> new ArrayList<>()).add(mocker);
+        }
+
+        Map<String, Sequence> sequences = new HashMap<>(groups.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<Mocker>> entry : groups.entrySet()) {
+            List<Mocker> group = entry.getValue();
+            group.sort(Comparator.comparingLong(Mocker::getCreationTime));
+            sequences.put(entry.getKey(), new Sequence(group));
+        }
+        return new ReplayMockerIndex(sequences);
+    }
+
+    /**
+     * @return null if the case has no recording for this request
+     */
+    public Sequence get(Mocker requestMocker) {
+        if (requestMocker == null || requestMocker.getCategoryType() == null) {
+            return null;
+        }
+        return sequences.get(key(requestMocker));
+    }
+
+    Sequence getSequence(String key) {
+        return sequences.get(key);
+    }
+
+    public int size() {
+        return sequences.size();
+    }
+
+    static String key(Mocker mocker) {
+        String body = mocker.getTargetRequest() == null ? null : mocker.getTargetRequest().getBody();
+        return key(mocker.getCategoryType(), mocker.getOperationName(), body);
+    }
+
+    static String key(MockCategoryType categoryType, String operationName, String body) {
+        return categoryType.getName() + '\n' + operationName + '\n' + Long.toHexString(HashUtil.fnv64(body));
+    }
+
+    public static class Sequence {
+        private final List<Mocker> mockers;
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        Sequence(List<Mocker> mockers) {
+            this.mockers = mockers;
+        }
+
+        /**
+         * Take the next recorded mocker, once the group is used up only FIND_LAST keeps answering with the last one.
+         * @return null if the group is used up and the storage service should decide
+         */
+        public Mocker next(MockStrategyEnum mockStrategy) {
+            int size = mockers.size();
+            int index = cursor.getAndUpdate(current -> current < size ? current + 1 : current);
+            if (index < size) {
+                return mockers.get(index);
+            }
+            if (mockStrategy == MockStrategyEnum.FIND_LAST) {
+                return mockers.get(size - 1);
+            }
+            return null;
+        }
+    }
+}
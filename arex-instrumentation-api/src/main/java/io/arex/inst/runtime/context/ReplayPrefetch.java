@@ -0,0 +1,74 @@
+package io.arex.inst.runtime.context;
+
+import io.arex.agent.bootstrap.model.Mocker;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Recorded mockers of the replaying case, loaded without blocking the entry thread (often a netty event loop).
+ * Until they arrive replay queries go to the storage service one by one. An operation queried that way
+ * keeps going to the storage service for the rest of the case, its recorded sequence is consumed there.
+ * <p>
+ * A prefetched mocker is not queried from the storage service, so the storage service keeps no replay result
+ * for it unless arex.replay.prefetch.report is enabled. Reports and later queries are then sent one after
+ * the other in call order, the storage sequence of an operation is never raced.
+ */
+public class ReplayPrefetch {
+    private final Set<String> queriedKeys = ConcurrentHashMap.newKeySet();
+    private volatile ReplayMockerIndex index;
+    private CompletableFuture<String> lastQuery;
+
+    /**
+     * @return the recorded sequence of the request, null if it has to be queried from the storage service
+     */
+    public ReplayMockerIndex.Sequence sequence(Mocker requestMocker) {
+        if (requestMocker == null || requestMocker.getCategoryType() == null) {
+            return null;
+        }
+        String key = ReplayMockerIndex.key(requestMocker);
+        ReplayMockerIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    queriedKeys.add(key);
+                    return null;
+                }
+            }
+        }
+        return queriedKeys.contains(key) ? null : current.getSequence(key);
+    }
+
+    /**
+     * No key is marked as queried once the index is installed
+     */
+    public synchronized void install(ReplayMockerIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * @return true once a prefetched mocker was reported, later queries must be sent in order
+     */
+    public synchronized boolean isReporting() {
+        return lastQuery != null;
+    }
+
+    /**
+     * Sends the query once the ones sent before through this method are answered, whatever their outcome
+     */
+    public synchronized CompletableFuture<String> sendInOrder(Supplier<CompletableFuture<String>> query) {
+        lastQuery = lastQuery == null ? query.get() :
+                lastQuery.handle((data, throwable) -> null).thenCompose(ignored -> query.get());
+        return lastQuery;
+    }
+
+    /**
+     * @return null until the recorded mockers arrived, or if the storage service returned none
+     */
+    public ReplayMockerIndex getIndex() {
+        return index;
+    }
+}
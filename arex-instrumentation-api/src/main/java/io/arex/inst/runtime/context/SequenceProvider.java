@@ -1,31 +1,69 @@
 package io.arex.inst.runtime.context;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import io.arex.agent.bootstrap.util.HashUtil;
 
+/**
+ * Call sequence per target of the case.
+ * Targets are keyed by their 64-bit FNV-1a hash in a primitive open addressing map, no boxing per call.
+ * The contexts are mostly used by the request thread only, an uncontended monitor is the cheap path,
+ * async tasks of the same case may still count concurrently.
+ */
 public class SequenceProvider {
-    static final int OFFSET_BASIS = 0x811C9DC5;
-    static final int FNV_PRIME = 16777619;
+    private static final int INITIAL_CAPACITY = 16;
 
     public static final SequenceProvider DEFAULT = new SequenceProvider();
 
-    private final ConcurrentHashMap<Integer, AtomicInteger> sequence = new ConcurrentHashMap<>(10);
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+    private int zeroKeyCount;
 
     public int get(String target) {
-        int key = generateKey(target);
-        return sequence.computeIfAbsent(key, k -> new AtomicInteger(0)).addAndGet(1);
+        return increment(HashUtil.fnv64(target));
     }
 
-    private int generateKey(String value) {
-        int key = OFFSET_BASIS;
-        for (int i = 0; i < value.length(); i++) {
-            key ^= value.charAt(i);
-            key *= FNV_PRIME;
+    synchronized int increment(long key) {
+        if (key == 0) {
+            return ++zeroKeyCount;
         }
-        return key;
+        int index = indexOf(keys, key);
+        if (keys[index] == 0) {
+            keys[index] = key;
+            if (++size * 2 > keys.length) {
+                resize();
+                index = indexOf(keys, key);
+            }
+        }
+        return ++counts[index];
+    }
+
+    private static int indexOf(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int index = (int) HashUtil.mix64(key) & mask;
+        while (keys[index] != 0 && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resize() {
+        long[] resizedKeys = new long[keys.length << 1];
+        int[] resizedCounts = new int[resizedKeys.length];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                int index = indexOf(resizedKeys, keys[i]);
+                resizedKeys[index] = keys[i];
+                resizedCounts[index] = counts[i];
+            }
+        }
+        keys = resizedKeys;
+        counts = resizedCounts;
     }
 
-    public void clear() {
-        sequence.clear();
+    public synchronized void clear() {
+        keys = new long[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        size = 0;
+        zeroKeyCount = 0;
     }
 }
@@ -4,7 +4,9 @@ import java.util.EventObject;
 
 public class CaseEvent extends EventObject {
     public enum Action { ENTER, CREATE, DESTROY }
-    CaseEvent.Action action;
+    private static final CaseEvent ENTER_EVENT = new CaseEvent(EventSource.empty(), Action.ENTER);
+    private static final CaseEvent DESTROY_EVENT = new CaseEvent(EventSource.empty(), Action.DESTROY);
+    final CaseEvent.Action action;
 
     private CaseEvent(EventSource source, CaseEvent.Action action) {
         super(source);
@@ -12,7 +14,7 @@ public class CaseEvent extends EventObject {
     }
 
     public static CaseEvent ofEnterEvent() {
-        return new CaseEvent(EventSource.empty(), CaseEvent.Action.ENTER);
+        return ENTER_EVENT;
     }
 
     public static CaseEvent ofCreateEvent(EventSource source) {
@@ -20,6 +22,6 @@ public class CaseEvent extends EventObject {
     }
 
     public static CaseEvent ofDestroyEvent() {
-        return new CaseEvent(EventSource.empty(), CaseEvent.Action.DESTROY);
+        return DESTROY_EVENT;
     }
 }
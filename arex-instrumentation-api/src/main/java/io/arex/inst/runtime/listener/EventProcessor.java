@@ -1,12 +1,13 @@
 package io.arex.inst.runtime.listener;
 
-import io.arex.agent.bootstrap.TraceContextManager;
 import io.arex.agent.bootstrap.cache.TimeCache;
 import io.arex.agent.bootstrap.model.Mocker;
 import io.arex.agent.bootstrap.util.StringUtil;
 import io.arex.inst.runtime.config.Config;
 import io.arex.inst.runtime.context.ArexContext;
+import io.arex.inst.runtime.context.CaseMockerBuffer;
 import io.arex.inst.runtime.context.ContextManager;
+import io.arex.inst.runtime.model.ArexConstants;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.util.LogUtil;
 import io.arex.inst.runtime.util.MockUtils;
@@ -28,6 +29,15 @@ public class EventProcessor {
         ArexContext context = ContextManager.currentContext(true, source.getCaseId());
         if (context != null) {
             context.setExcludeMockTemplate(Serializer.deserialize(source.getExcludeMockTemplate(), EXCLUDE_MOCK_TYPE));
+            Config config = Config.get();
+            if (context.isReplay() && config.getBoolean(ArexConstants.REPLAY_PREFETCH, false)) {
+                MockUtils.prefetchReplayMockers(context);
+            }
+            if (context.isRecord() && config.getBoolean(ArexConstants.RECORD_CASE_ATOMIC, false)) {
+                context.setCaseMockerBuffer(new CaseMockerBuffer(
+                        config.getInt(ArexConstants.RECORD_CASE_MAX_COUNT, 1000),
+                        config.getLong(ArexConstants.RECORD_CASE_MAX_BYTES, 8L << 20)));
+            }
         }
     }
 
@@ -39,6 +49,7 @@ public class EventProcessor {
                 long millis = parseLong(result);
                 if (millis > 0) {
                     TimeCache.put(millis);
+                    ContextManager.current().setTimeOffset(TimeCache.current());
                 }
             } else if (ContextManager.needRecord()) {
                 Mocker mocker = MockUtils.createDynamicClass(CLOCK_CLASS, CLOCK_METHOD);
@@ -52,6 +63,7 @@ public class EventProcessor {
     }
 
     public static void onExit(){
+        ContextManager.complete(ContextManager.current());
     }
 
     /**
@@ -59,8 +71,7 @@ public class EventProcessor {
      */
     public static void onRequest(){
         TimeCache.remove();
-        TraceContextManager.remove();
-        ContextManager.overdueCleanUp();
+        ContextManager.remove();
     }
 
     private static long parseLong(String value) {
@@ -27,4 +27,10 @@ public class ArexConstants {
     public static final String CURRENT_TIME_MILLIS_SIGNATURE = "java.lang.System.currentTimeMillis";
     public static final String NEXT_INT_SIGNATURE = "java.util.Random.nextInt";
     public static final String SERIALIZE_SKIP_INFO_CONFIG_KEY = "serializeSkipInfoList";
+    public static final String SERIALIZE_ACCESSOR_MODULE_CONFIG_KEY = "arex.serialize.accessor.module";
+    public static final String REPLAY_PREFETCH = "arex.replay.prefetch";
+    public static final String REPLAY_PREFETCH_REPORT = "arex.replay.prefetch.report";
+    public static final String RECORD_CASE_ATOMIC = "arex.record.case.atomic";
+    public static final String RECORD_CASE_MAX_COUNT = "arex.record.case.max.count";
+    public static final String RECORD_CASE_MAX_BYTES = "arex.record.case.max.bytes";
 }
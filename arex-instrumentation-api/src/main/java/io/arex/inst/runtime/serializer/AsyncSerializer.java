@@ -0,0 +1,162 @@
+package io.arex.inst.runtime.serializer;
+
+import io.arex.agent.bootstrap.util.StringUtil;
+import io.arex.inst.runtime.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded worker pool serializing recorded responses once the application call returned.
+ * Only values which can still be read correctly later are handed over: immutable JDK values,
+ * copies owned by the caller and the types configured in arex.record.async.serialize.types.
+ * Collections, beans and lazy loaded entities may be changed by the application after the call,
+ * they are serialized on the calling thread.
+ * A full pool only costs the caller an inline serialization, nothing is lost: rejections are counted
+ * and logged, they are not reported to the health manager which would slow down recording.
+ */
+public final class AsyncSerializer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncSerializer.class);
+    static final String ENABLE = "arex.record.async.serialize";
+    static final String THREADS = "arex.record.async.serialize.threads";
+    static final String QUEUE_SIZE = "arex.record.async.serialize.queue.size";
+    static final String TYPES = "arex.record.async.serialize.types";
+
+    private static final AtomicLong REJECTED_COUNT = new AtomicLong();
+    private static volatile ThreadPoolExecutor executor;
+    private static volatile TypePrefixes typePrefixes = new TypePrefixes(StringUtil.EMPTY);
+
+    private AsyncSerializer() {
+    }
+
+    public static boolean isEnabled() {
+        Config config = Config.get();
+        return config != null && config.getBoolean(ENABLE, false);
+    }
+
+    /**
+     * Per type policy: true if the value may be serialized after the application got it back
+     */
+    public static boolean isSafe(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum || value instanceof UUID || value instanceof BigDecimal
+                || value instanceof BigInteger || isImmutableNumber(value)) {
+            return true;
+        }
+        if (value instanceof TemporalAccessor && value.getClass().getName().startsWith("java.time.")) {
+            return true;
+        }
+        return configuredPrefixes().matches(value.getClass().getName());
+    }
+
+    private static boolean isImmutableNumber(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof Double || value instanceof Float;
+    }
+
+    private static TypePrefixes configuredPrefixes() {
+        Config config = Config.get();
+        String types = config == null ? StringUtil.EMPTY : config.getString(TYPES, StringUtil.EMPTY);
+        TypePrefixes current = typePrefixes;
+        if (!current.source.equals(types)) {
+            current = new TypePrefixes(types);
+            typePrefixes = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return false if the pool is full, the task is not run
+     */
+    public static boolean execute(Runnable task) {
+        try {
+            executor().execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            long rejected = REJECTED_COUNT.incrementAndGet();
+            if ((rejected & 1023) == 1) {
+                LOGGER.warn("[arex] async serialize pool is full, serialized inline, rejected: {}", rejected);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @return tasks serialized inline because the pool was full, since the agent started
+     */
+    public static long getRejectedCount() {
+        return REJECTED_COUNT.get();
+    }
+
+    private static ThreadPoolExecutor executor() {
+        ThreadPoolExecutor current = executor;
+        if (current == null) {
+            synchronized (AsyncSerializer.class) {
+                current = executor;
+                if (current == null) {
+                    Config config = Config.get();
+                    int threads = Math.max(config == null ? 2 : config.getInt(THREADS, 2), 1);
+                    int queueSize = Math.max(config == null ? 1024 : config.getInt(QUEUE_SIZE, 1024), 1);
+                    current = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                            new ArrayBlockingQueue<>(queueSize), new WorkerThreadFactory());
+                    current.allowCoreThreadTimeOut(true);
+                    executor = current;
+                    LOGGER.info("[arex] async serialize workers: {}, queue size: {}", threads, queueSize);
+                }
+            }
+        }
+        return current;
+    }
+
+    static final class TypePrefixes {
+        private final String source;
+        private final String[] prefixes;
+
+        TypePrefixes(String source) {
+            this.source = source;
+            String[] split = StringUtil.split(source, ',');
+            int count = 0;
+            for (int i = 0; split != null && i < split.length; i++) {
+                String prefix = split[i].trim();
+                if (!prefix.isEmpty()) {
+                    split[count++] = prefix;
+                }
+            }
+            this.prefixes = new String[count];
+            if (count > 0) {
+                System.arraycopy(split, 0, prefixes, 0, count);
+            }
+        }
+
+        boolean matches(String className) {
+            for (String prefix : prefixes) {
+                if (className.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "arex-serialize-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
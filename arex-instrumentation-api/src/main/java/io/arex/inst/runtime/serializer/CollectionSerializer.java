@@ -0,0 +1,249 @@
+package io.arex.inst.runtime.serializer;
+
+import io.arex.agent.bootstrap.ctx.ArexThreadLocal;
+import io.arex.inst.runtime.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Size aware serialization of large collections, both policies are disabled by default (0).
+ * Above arex.serialize.collection.max.size elements only the first ones are recorded and a warning is logged.
+ * From arex.serialize.parallel.threshold elements, chunks of {@link #CHUNK_SIZE} elements are serialized
+ * on the common ForkJoin pool and appended in order to a buffer reused by the calling thread.
+ * The forked chunks run under an empty ArEX snapshot, whichever thread executes them: getters and lazy loads
+ * of the application see no case context there, only the first chunk is serialized in the caller's context.
+ */
+public final class CollectionSerializer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CollectionSerializer.class);
+    static final String MAX_SIZE = "arex.serialize.collection.max.size";
+    static final String PARALLEL_THRESHOLD = "arex.serialize.parallel.threshold";
+    static final int CHUNK_SIZE = 512;
+    /**
+     * A thread does not keep a larger buffer after use
+     */
+    static final int MAX_RETAINED_CHARS = 1 << 20;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<>();
+    private static volatile Limits limits = new Limits(null);
+
+    private CollectionSerializer() {
+    }
+
+    /**
+     * @return true if a size policy applies to a collection of this size, otherwise it is serialized as usual
+     */
+    public static boolean isLarge(int size) {
+        Limits current = limits();
+        return current.isLimited(size) || current.isParallel(size);
+    }
+
+    /**
+     * Same result as {@link StringSerializable#serialize(Object)} of the list, large lists are written
+     * as json arrays of chunks merged into one array. Falls back to the whole list if a chunk is not an array.
+     */
+    public static String serializeList(StringSerializable serializer, List<?> list) {
+        final List<?> elements = limit(list);
+        if (!limits().isParallel(elements.size()) || !(elements instanceof RandomAccess)) {
+            return serializer.serialize(elements);
+        }
+        StringBuilder buffer = borrow();
+        try {
+            buffer.append('[');
+            boolean accepted = serializeChunks(elements.size(),
+                    (from, to) -> serializer.serialize(elements.subList(from, to)),
+                    (index, chunk) -> {
+                        if (chunk == null || chunk.length() < 2 || chunk.charAt(0) != '['
+                                || chunk.charAt(chunk.length() - 1) != ']') {
+                            return false;
+                        }
+                        if (index > 0) {
+                            buffer.append(',');
+                        }
+                        buffer.append(chunk, 1, chunk.length() - 1);
+                        return true;
+                    });
+            if (accepted) {
+                return buffer.append(']').toString();
+            }
+        } finally {
+            release(buffer);
+        }
+        return serializer.serialize(elements);
+    }
+
+    /**
+     * Serializes the elements one by one, a null result is written as "null"
+     *
+     * @param trailingSeparator true to write the separator after the last element too
+     */
+    public static String join(Collection<?> collection, Function<Object, String> elementSerializer,
+                              String separator, boolean trailingSeparator) {
+        int count = limitedSize(collection.size());
+        if (!limits().isParallel(count)) {
+            StringBuilder builder = borrow();
+            try {
+                int index = 0;
+                for (Object element : collection) {
+                    if (index == count) {
+                        break;
+                    }
+                    builder.append(elementSerializer.apply(element));
+                    if (++index < count || trailingSeparator) {
+                        builder.append(separator);
+                    }
+                }
+                return builder.toString();
+            } finally {
+                release(builder);
+            }
+        }
+
+        // a snapshot, workers never iterate the application collection
+        final Object[] elements = collection.toArray();
+        final int size = Math.min(count, elements.length);
+        StringBuilder buffer = borrow();
+        try {
+            serializeChunks(size, (from, to) -> {
+                StringBuilder chunk = borrow();
+                try {
+                    for (int i = from; i < to; i++) {
+                        chunk.append(elementSerializer.apply(elements[i]));
+                        if (i < size - 1 || trailingSeparator) {
+                            chunk.append(separator);
+                        }
+                    }
+                    return chunk.toString();
+                } finally {
+                    release(chunk);
+                }
+            }, (index, chunk) -> {
+                buffer.append(chunk);
+                return true;
+            });
+            return buffer.toString();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    private static <T> List<T> limit(List<T> list) {
+        int count = limitedSize(list.size());
+        return count < list.size() ? list.subList(0, count) : list;
+    }
+
+    private static int limitedSize(int size) {
+        Limits current = limits();
+        if (!current.isLimited(size)) {
+            return size;
+        }
+        LOGGER.warn("[arex] collection size: {} > max limit: {}, only the first elements are recorded",
+                size, current.maxSize);
+        return current.maxSize;
+    }
+
+    /**
+     * Read again only when the config is updated
+     */
+    private static Limits limits() {
+        Config config = Config.get();
+        Limits current = limits;
+        if (current.config != config) {
+            current = new Limits(config);
+            limits = current;
+        }
+        return current;
+    }
+
+    /**
+     * The buffer is taken from the thread while in use, an element serializer calling back here gets another one
+     */
+    private static StringBuilder borrow() {
+        StringBuilder buffer = BUFFER.get();
+        if (buffer == null) {
+            return new StringBuilder();
+        }
+        BUFFER.remove();
+        return buffer;
+    }
+
+    private static void release(StringBuilder buffer) {
+        if (buffer.capacity() <= MAX_RETAINED_CHARS) {
+            buffer.setLength(0);
+            BUFFER.set(buffer);
+        }
+    }
+
+    /**
+     * The chunks after the first one are forked to the common pool while the caller serializes the first one,
+     * each chunk is handed to the appender in order on the calling thread as soon as it is done.
+     * A forked chunk replaces the ArEX thread locals the pool thread may have (the agent transmits the caller's
+     * ones to ForkJoin tasks) with an empty snapshot, also when the caller runs it itself while joining.
+     *
+     * @return false if the appender rejected a chunk, the chunks left are cancelled
+     */
+    private static boolean serializeChunks(int size, ChunkSerializer chunkSerializer, ChunkAppender appender) {
+        int count = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        List<ForkJoinTask<String>> tasks = new ArrayList<>(count - 1);
+        try {
+            for (int i = 1; i < count; i++) {
+                final int from = i * CHUNK_SIZE;
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    Object backup = ArexThreadLocal.Transmitter.replay(ArexThreadLocal.Transmitter.Snapshot.EMPTY);
+                    try {
+                        return chunkSerializer.serialize(from, Math.min(from + CHUNK_SIZE, size));
+                    } finally {
+                        ArexThreadLocal.Transmitter.restore(backup);
+                    }
+                }).fork());
+            }
+            if (!appender.append(0, chunkSerializer.serialize(0, Math.min(CHUNK_SIZE, size)))) {
+                return false;
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                if (!appender.append(i + 1, tasks.get(i).join())) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            for (ForkJoinTask<String> task : tasks) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private interface ChunkSerializer {
+        String serialize(int from, int to);
+    }
+
+    private interface ChunkAppender {
+        boolean append(int index, String chunk);
+    }
+
+    private static final class Limits {
+        private final Config config;
+        private final int maxSize;
+        private final int parallelThreshold;
+
+        private Limits(Config config) {
+            this.config = config;
+            this.maxSize = config == null ? 0 : config.getInt(MAX_SIZE, 0);
+            this.parallelThreshold = config == null ? 0 : config.getInt(PARALLEL_THRESHOLD, 0);
+        }
+
+        private boolean isLimited(int size) {
+            return maxSize > 0 && size > maxSize;
+        }
+
+        private boolean isParallel(int size) {
+            return parallelThreshold > 0 && size >= Math.max(parallelThreshold, CHUNK_SIZE * 2);
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package io.arex.inst.runtime.serializer;
+
+import io.arex.agent.bootstrap.model.ArexMocker;
+import io.arex.agent.bootstrap.model.MockCategoryType;
+import io.arex.agent.bootstrap.model.Mocker;
+import io.arex.agent.bootstrap.util.StringUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary envelope of {@link ArexMocker}, the alternative to its JSON accepted by the storage service
+ * as {@link #CONTENT_TYPE}. Bodies are written as raw UTF-8 or raw bytes, no escaping nor Base64.
+ * <pre>
+ * record     := MAGIC VERSION varint(body length) body
+ * body       := category string(recordId) string(id) string(replayId) string(appId) varint(recordEnvironment)
+ *               string(recordVersion) varlong(creationTime) string(operationName) target(request) target(response)
+ * category   := varint(code), 0 is a category unknown to the table followed by string(name) bool bool
+ * string     := varint(UTF-8 length + 1) UTF-8, 0 is null
+ * target     := byte(TARGET_NULL) | byte(TARGET_STRING) string(body) string(type) attributes
+ *               | byte(TARGET_BYTES) bytes(bodyBytes) string(type) attributes
+ * bytes      := varint(length + 1) raw bytes
+ * attributes := varint(size + 1) (string(key) value)*, 0 is null
+ * </pre>
+ * Records are delimited by their length, a batch is their concatenation.
+ * Repeated strings across the mockers of a batch are left to the zstd frame around it.
+ */
+public class MockerCodec {
+    public static final String CONTENT_TYPE = "application/zstd-arex-mocker";
+
+    /**
+     * A UTF-8 continuation byte, never the first byte of JSON
+     */
+    static final byte MAGIC = (byte) 0xA7;
+    static final byte VERSION = 1;
+
+    /**
+     * Category codes are the index + 1, append only
+     */
+    private static final MockCategoryType[] CATEGORIES = {
+            MockCategoryType.SERVLET, MockCategoryType.DATABASE, MockCategoryType.HTTP_CLIENT,
+            MockCategoryType.CONFIG_FILE, MockCategoryType.DYNAMIC_CLASS, MockCategoryType.REDIS,
+            MockCategoryType.MESSAGE_PRODUCER, MockCategoryType.MESSAGE_CONSUMER, MockCategoryType.DUBBO_CONSUMER,
+            MockCategoryType.DUBBO_PROVIDER, MockCategoryType.DUBBO_STREAM_PROVIDER
+    };
+
+    private static final int TARGET_NULL = 0;
+    private static final int TARGET_STRING = 1;
+    /**
+     * Body set by {@link Mocker.Target#setBodyBytes(byte[])}, its JSON form is the Base64 of the bytes
+     */
+    private static final int TARGET_BYTES = 2;
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_STRING = 1;
+    private static final int TAG_TRUE = 2;
+    private static final int TAG_FALSE = 3;
+    private static final int TAG_INT = 4;
+    private static final int TAG_LONG = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_MAP = 7;
+    private static final int TAG_LIST = 8;
+
+    /**
+     * Magic, version and the longest varint of the body length
+     */
+    private static final int HEADER_RESERVED = 7;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 << 10;
+    private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(Output::new);
+
+    private MockerCodec() {
+    }
+
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length > 2 && data[0] == MAGIC;
+    }
+
+    /**
+     * Encoded in a buffer of the calling thread, the record is the only allocation.
+     *
+     * @return null if the mocker is not an {@link ArexMocker} or an attribute value has no binary form,
+     * the caller sends JSON instead
+     */
+    public static byte[] encode(Mocker mocker) {
+        if (!(mocker instanceof ArexMocker)) {
+            return null;
+        }
+        Output output = OUTPUT.get();
+        output.position = HEADER_RESERVED;
+        try {
+            if (!writeBody(output, (ArexMocker) mocker)) {
+                return null;
+            }
+            int bodyLength = output.position - HEADER_RESERVED;
+            byte[] record = new byte[2 + varintSize(bodyLength) + bodyLength];
+            record[0] = MAGIC;
+            record[1] = VERSION;
+            int offset = writeVarint(record, 2, bodyLength);
+            System.arraycopy(output.buffer, HEADER_RESERVED, record, offset, bodyLength);
+            return record;
+        } finally {
+            output.release();
+        }
+    }
+
+    /**
+     * @return the first record of the data
+     */
+    public static ArexMocker decode(byte[] data) {
+        Input input = new Input(data);
+        return readRecord(input);
+    }
+
+    /**
+     * @param data records of a batch
+     */
+    public static List<ArexMocker> decodeAll(byte[] data) {
+        Input input = new Input(data);
+        List<ArexMocker> mockers = new ArrayList<>();
+        while (input.position < data.length) {
+            mockers.add(readRecord(input));
+        }
+        return mockers;
+    }
+
+    /**
+     * Read without decoding the rest of the record
+     *
+     * @return empty if the data is not a record
+     */
+    public static String readRecordId(byte[] data) {
+        if (!isEncoded(data)) {
+            return "";
+        }
+        try {
+            Input input = new Input(data);
+            input.readHeader();
+            readCategory(input);
+            String recordId = input.readString();
+            return recordId == null ? "" : recordId;
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private static boolean writeBody(Output output, ArexMocker mocker) {
+        writeCategory(output, mocker.getCategoryType());
+        output.writeString(mocker.getRecordId());
+        output.writeString(mocker.getId());
+        output.writeString(mocker.getReplayId());
+        output.writeString(mocker.getAppId());
+        output.writeVarint(mocker.getRecordEnvironment());
+        output.writeString(mocker.getRecordVersion());
+        output.writeVarlong(mocker.getCreationTime());
+        output.writeString(mocker.getOperationName());
+        return writeTarget(output, mocker.getTargetRequest()) && writeTarget(output, mocker.getTargetResponse());
+    }
+
+    private static void writeCategory(Output output, MockCategoryType categoryType) {
+        if (categoryType == null) {
+            output.writeVarint(0);
+            output.writeString(null);
+            return;
+        }
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            if (CATEGORIES[i] == categoryType) {
+                output.writeVarint(i + 1);
+                return;
+            }
+        }
+        output.writeVarint(0);
+        output.writeString(categoryType.getName());
+        output.writeByte(categoryType.isEntryPoint() ? 1 : 0);
+        output.writeByte(categoryType.isSkipComparison() ? 1 : 0);
+    }
+
+    private static boolean writeTarget(Output output, Mocker.Target target) {
+        if (target == null) {
+            output.writeByte(TARGET_NULL);
+            return true;
+        }
+        if (target.bodyBytes() != null) {
+            output.writeByte(TARGET_BYTES);
+            output.writeBytes(target.bodyBytes());
+        } else {
+            output.writeByte(TARGET_STRING);
+            output.writeString(target.getBody());
+        }
+        output.writeString(target.getType());
+        return writeMap(output, target.getAttributes());
+    }
+
+    private static boolean writeMap(Output output, Map<?, ?> map) {
+        if (map == null) {
+            output.writeVarint(0);
+            return true;
+        }
+        output.writeVarint(map.size() + 1);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!(entry.getKey() instanceof String)) {
+                return false;
+            }
+            output.writeString((String) entry.getKey());
+            if (!writeValue(output, entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean writeValue(Output output, Object value) {
+        if (value == null) {
+            output.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            output.writeByte(TAG_STRING);
+            output.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            output.writeByte(TAG_INT);
+            output.writeVarlong(zigzag(((Number) value).longValue()));
+        } else if (value instanceof Long) {
+            output.writeByte(TAG_LONG);
+            output.writeVarlong(zigzag((Long) value));
+        } else if (value instanceof Double || value instanceof Float) {
+            output.writeByte(TAG_DOUBLE);
+            output.writeLong(Double.doubleToLongBits(((Number) value).doubleValue()));
+        } else if (value instanceof Map) {
+            output.writeByte(TAG_MAP);
+            return writeMap(output, (Map<?, ?>) value);
+        } else if (value instanceof Collection) {
+            output.writeByte(TAG_LIST);
+            Collection<?> collection = (Collection<?>) value;
+            output.writeVarint(collection.size());
+            for (Object element : collection) {
+                if (!writeValue(output, element)) {
+                    return false;
+                }
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static ArexMocker readRecord(Input input) {
+        int end = input.readHeader();
+        ArexMocker mocker = new ArexMocker(readCategory(input));
+        mocker.setRecordId(input.readString());
+        mocker.setId(input.readString());
+        mocker.setReplayId(input.readString());
+        mocker.setAppId(input.readString());
+        mocker.setRecordEnvironment(input.readVarint());
+        mocker.setRecordVersion(input.readString());
+        mocker.setCreationTime(input.readVarlong());
+        mocker.setOperationName(input.readString());
+        mocker.setTargetRequest(readTarget(input));
+        mocker.setTargetResponse(readTarget(input));
+        if (input.position != end) {
+            throw new IllegalArgumentException("mocker record length mismatch");
+        }
+        return mocker;
+    }
+
+    private static MockCategoryType readCategory(Input input) {
+        int code = input.readVarint();
+        if (code > 0) {
+            if (code > CATEGORIES.length) {
+                throw new IllegalArgumentException("unknown mocker category code: " + code);
+            }
+            return CATEGORIES[code - 1];
+        }
+        String name = input.readString();
+        if (name == null) {
+            return null;
+        }
+        return MockCategoryType.create(name, input.readByte() != 0, input.readByte() != 0);
+    }
+
+    private static Mocker.Target readTarget(Input input) {
+        int kind = input.readByte();
+        if (kind == TARGET_NULL) {
+            return null;
+        }
+        Mocker.Target target = new Mocker.Target();
+        if (kind == TARGET_BYTES) {
+            target.setBodyBytes(input.readBytes());
+        } else if (kind == TARGET_STRING) {
+            target.setBody(input.readString());
+        } else {
+            throw new IllegalArgumentException("unknown mocker target kind: " + kind);
+        }
+        target.setType(input.readString());
+        target.setAttributes(readMap(input));
+        return target;
+    }
+
+    private static Map<String, Object> readMap(Input input) {
+        int size = input.readVarint() - 1;
+        if (size < 0) {
+            return null;
+        }
+        Map<String, Object> map = new LinkedHashMap<>(Math.max(4, (int) (size / .75f) + 1));
+        for (int i = 0; i < size; i++) {
+            map.put(input.readString(), readValue(input));
+        }
+        return map;
+    }
+
+    private static Object readValue(Input input) {
+        int tag = input.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return input.readString();
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_INT:
+                return (int) unzigzag(input.readVarlong());
+            case TAG_LONG:
+                return unzigzag(input.readVarlong());
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(input.readLong());
+            case TAG_MAP:
+                return readMap(input);
+            case TAG_LIST:
+                int size = input.readVarint();
+                List<Object> list = new ArrayList<>(Math.min(size, input.remaining()));
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(input));
+                }
+                return list;
+            default:
+                throw new IllegalArgumentException("unknown mocker attribute tag: " + tag);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarint(byte[] buffer, int offset, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static final class Output {
+        private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+        private int position;
+
+        private void ensure(int length) {
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+            }
+        }
+
+        private void release() {
+            if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+                buffer = new byte[INITIAL_BUFFER_SIZE];
+            }
+        }
+
+        private void writeByte(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeVarint(int value) {
+            ensure(5);
+            position = MockerCodec.writeVarint(buffer, position, value);
+        }
+
+        private void writeVarlong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeBytes(byte[] value) {
+            writeVarint(value.length + 1);
+            ensure(value.length);
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+
+        /**
+         * UTF-8 straight from the chars, no intermediate array. Lone surrogates become '?' as in String.getBytes
+         */
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            int length = StringUtil.utf8Length(value);
+            writeVarint(length + 1);
+            ensure(length);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                    } else {
+                        buffer[position++] = '?';
+                    }
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] data;
+        private int position;
+
+        private Input(byte[] data) {
+            this.data = data;
+        }
+
+        private int remaining() {
+            return data.length - position;
+        }
+
+        /**
+         * @return the end of the record
+         */
+        private int readHeader() {
+            if (remaining() < 3 || data[position] != MAGIC) {
+                throw new IllegalArgumentException("not a mocker record");
+            }
+            if (data[position + 1] != VERSION) {
+                throw new IllegalArgumentException("unsupported mocker record version: " + data[position + 1]);
+            }
+            position += 2;
+            int length = readVarint();
+            if (length < 0 || length > remaining()) {
+                throw new IllegalArgumentException("truncated mocker record");
+            }
+            return position + length;
+        }
+
+        private int readByte() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("truncated mocker record");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        private int readVarint() {
+            return (int) readVarlong();
+        }
+
+        private long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("malformed varint");
+        }
+
+        private long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+
+        private byte[] readBytes() {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > remaining()) {
+                throw new IllegalArgumentException("truncated mocker record");
+            }
+            byte[] value = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return value;
+        }
+
+        private String readString() {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > remaining()) {
+                throw new IllegalArgumentException("truncated mocker record");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
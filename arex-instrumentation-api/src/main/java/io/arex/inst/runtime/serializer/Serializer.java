@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class Serializer {
@@ -48,16 +49,10 @@ public class Serializer {
         try {
             String typeName = TypeUtil.getName(object);
             if (typeName.contains(NESTED_LIST)) {
-                StringBuilder jsonBuilder = new StringBuilder();
-                List<List<?>> ans = (List<List<?>>) object;
-                for (int i = 0; i < ans.size(); i++) {
-                    jsonBuilder.append(serialize(ans.get(i)));
-                    if (i == ans.size() - 1) {
-                        continue;
-                    }
-                    jsonBuilder.append(SERIALIZE_SEPARATOR);
-                }
-                return jsonBuilder.toString();
+                return CollectionSerializer.join((List<?>) object, Serializer::serialize, SERIALIZE_SEPARATOR, false);
+            }
+            if (object instanceof List && CollectionSerializer.isLarge(((List<?>) object).size())) {
+                return CollectionSerializer.serializeList(INSTANCE.getSerializer(serializer), (List<?>) object);
             }
             return INSTANCE.getSerializer(serializer).serialize(object);
         } catch (Exception ex) {
@@ -66,6 +61,29 @@ public class Serializer {
         }
     }
 
+    /**
+     * Serialize to UTF-8 bytes without an intermediate string when the serializer supports it
+     *
+     * @param object object to be serialized
+     * @return UTF-8 bytes of the result string
+     */
+    public static byte[] serializeToBytes(Object object) {
+        if (object == null || INSTANCE == null) {
+            return null;
+        }
+        if (object instanceof Throwable || TypeUtil.getName(object).contains(NESTED_LIST)) {
+            String result = serialize(object);
+            return result == null ? null : result.getBytes(StandardCharsets.UTF_8);
+        }
+
+        try {
+            return INSTANCE.getSerializer().serializeToBytes(object);
+        } catch (Exception ex) {
+            LOGGER.warn("serializeToBytes", ex);
+            return null;
+        }
+    }
+
     public static Serializer getINSTANCE() {
         return INSTANCE;
     }
@@ -1,6 +1,7 @@
 package io.arex.inst.runtime.serializer;
 
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 
 public interface StringSerializable {
 
@@ -14,6 +15,17 @@ public interface StringSerializable {
      */
     String serialize(Object object);
 
+    /**
+     * Serialize to UTF-8 bytes, serializers able to write bytes directly should override it
+     *
+     * @param object object to be serialized
+     * @return UTF-8 bytes of the result string
+     */
+    default byte[] serializeToBytes(Object object) {
+        String result = serialize(object);
+        return result == null ? null : result.getBytes(StandardCharsets.UTF_8);
+    }
+
     /**
      * Deserialize by Class
      *
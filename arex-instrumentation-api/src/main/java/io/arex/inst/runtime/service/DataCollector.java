@@ -2,10 +2,72 @@ package io.arex.inst.runtime.service;
 
 import io.arex.agent.bootstrap.model.MockStrategyEnum;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface DataCollector {
     void start();
 
     void save(String mockData);
 
+    /**
+     * Save a mocker serialized to UTF-8 bytes, collectors working on strings may keep the default.
+     */
+    default void save(byte[] mockData) {
+        save(new String(mockData, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return true if {@link #save(byte[])} also takes mockers encoded by
+     * {@link io.arex.inst.runtime.serializer.MockerCodec}, may turn false once the storage service refused them
+     */
+    default boolean isBinaryAccepted() {
+        return false;
+    }
+
+    /**
+     * Save the mockers of a case as one unit, collectors without a batch path may keep the default.
+     */
+    default void saveCase(List<String> mockDataList) {
+        for (String mockData : mockDataList) {
+            save(mockData);
+        }
+    }
+
     String query(String postData, MockStrategyEnum mockStrategy);
+
+    /**
+     * Query without blocking the caller, collectors backed by a blocking store may keep the default.
+     */
+    default CompletableFuture<String> queryAsync(String postData, MockStrategyEnum mockStrategy) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            future.complete(query(postData, mockStrategy));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Query all recorded mockers of a case in one call, null if the collector does not support it.
+     */
+    default String queryAll(String postData) {
+        return null;
+    }
+
+    /**
+     * Same as {@link #queryAll(String)} without blocking the caller, collectors backed by a local store
+     * may keep the default.
+     */
+    default CompletableFuture<String> queryAllAsync(String postData) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            future.complete(queryAll(postData));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
 }
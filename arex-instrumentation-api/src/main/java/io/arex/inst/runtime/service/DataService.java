@@ -2,6 +2,9 @@ package io.arex.inst.runtime.service;
 
 import io.arex.agent.bootstrap.model.MockStrategyEnum;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public class DataService {
 
     public static DataService INSTANCE;
@@ -20,10 +23,34 @@ public class DataService {
         saver.save(data);
     }
 
+    public void save(byte[] data) {
+        saver.save(data);
+    }
+
+    public boolean isBinaryAccepted() {
+        return saver.isBinaryAccepted();
+    }
+
+    public void saveCase(List<String> dataList) {
+        saver.saveCase(dataList);
+    }
+
     public String query(String data, MockStrategyEnum mockStrategy) {
         return saver.query(data, mockStrategy);
     }
 
+    public CompletableFuture<String> queryAsync(String data, MockStrategyEnum mockStrategy) {
+        return saver.queryAsync(data, mockStrategy);
+    }
+
+    public String queryAll(String data) {
+        return saver.queryAll(data);
+    }
+
+    public CompletableFuture<String> queryAllAsync(String data) {
+        return saver.queryAllAsync(data);
+    }
+
     public static class Builder {
 
         private DataCollector collector;
@@ -8,12 +8,21 @@ import io.arex.agent.bootstrap.model.Mocker.Target;
 import io.arex.agent.bootstrap.util.StringUtil;
 import io.arex.inst.runtime.config.Config;
 import io.arex.inst.runtime.context.ArexContext;
+import io.arex.inst.runtime.context.CaseMockerBuffer;
 import io.arex.inst.runtime.context.ContextManager;
+import io.arex.inst.runtime.context.ReplayMockerIndex;
+import io.arex.inst.runtime.context.ReplayPrefetch;
+import io.arex.inst.runtime.model.ArexConstants;
+import io.arex.inst.runtime.serializer.AsyncSerializer;
+import io.arex.inst.runtime.serializer.MockerCodec;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.service.DataService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
 
 public final class MockUtils {
 
@@ -71,7 +80,7 @@ public final class MockUtils {
     public static ArexMocker create(MockCategoryType categoryType, String operationName) {
         ArexMocker mocker = new ArexMocker();
         long createTime = System.currentTimeMillis();
-        ArexContext context = ContextManager.currentContext();
+        ArexContext context = ContextManager.current();
         if (context != null) {
             mocker.setRecordId(context.getCaseId());
             mocker.setReplayId(context.getReplayId());
@@ -88,15 +97,85 @@ public final class MockUtils {
     }
 
     public static void recordMocker(Mocker requestMocker) {
+        ArexContext context = ContextManager.current();
+        recordMocker(requestMocker, context == null ? null : context.getCaseMockerBuffer());
+    }
+
+    /**
+     * Record with the response serialized into the target response body.
+     * With async serialization on, responses safe to read later are serialized and saved by the serialize workers,
+     * see {@link AsyncSerializer}. Mockers of atomic cases are kept inline so the entry point flushes all of them.
+     *
+     * @param serializer serializer name, null for the default one
+     * @param snapshot true if the response is a copy owned by the caller, it is serialized later whatever its type
+     */
+    public static void recordMocker(Mocker requestMocker, Object response, String serializer, boolean snapshot) {
+        ArexContext context = ContextManager.current();
+        CaseMockerBuffer caseMockerBuffer = context == null ? null : context.getCaseMockerBuffer();
+        if (caseMockerBuffer == null && AsyncSerializer.isEnabled() && (snapshot || AsyncSerializer.isSafe(response))
+                && AsyncSerializer.execute(new SerializeTask(requestMocker, response, serializer))) {
+            return;
+        }
+        requestMocker.getTargetResponse().setBody(serialize(response, serializer));
+        recordMocker(requestMocker, caseMockerBuffer);
+    }
+
+    public static void recordMocker(Mocker requestMocker, Object response) {
+        recordMocker(requestMocker, response, null, false);
+    }
+
+    private static String serialize(Object response, String serializer) {
+        return serializer == null ? Serializer.serialize(response) : Serializer.serialize(response, serializer);
+    }
+
+    private static void recordMocker(Mocker requestMocker, CaseMockerBuffer caseMockerBuffer) {
+        if (caseMockerBuffer == null && !Config.get().isEnableDebug()) {
+            // binary record if the storage service takes it, else UTF-8 bytes straight from the serializer,
+            // the mocker never exists as a string
+            byte[] postData = DataService.INSTANCE.isBinaryAccepted() ? MockerCodec.encode(requestMocker) : null;
+            if (postData == null) {
+                postData = Serializer.serializeToBytes(requestMocker);
+            }
+            if (postData != null) {
+                DataService.INSTANCE.save(postData);
+            }
+            return;
+        }
+
         String postJson = Serializer.serialize(requestMocker);
 
         if (Config.get().isEnableDebug()) {
             LOGGER.info("{}\nrequest: {}", requestMocker.logBuilder(), postJson);
         }
 
+        if (caseMockerBuffer != null) {
+            recordCaseMocker(caseMockerBuffer, requestMocker, postJson);
+            return;
+        }
+
         DataService.INSTANCE.save(postJson);
     }
 
+    /**
+     * Buffer the mocker in the case, the entry point completes the case and saves all its mockers at once.
+     * Mockers recorded after the entry point, from async tasks, are saved one by one.
+     */
+    private static void recordCaseMocker(CaseMockerBuffer caseMockerBuffer, Mocker requestMocker, String postJson) {
+        boolean entryPoint = requestMocker.getCategoryType() != null && requestMocker.getCategoryType().isEntryPoint();
+        if (caseMockerBuffer.add(postJson)) {
+            if (entryPoint) {
+                DataService.INSTANCE.saveCase(caseMockerBuffer.flush());
+            }
+            return;
+        }
+
+        if (caseMockerBuffer.isFlushed()) {
+            DataService.INSTANCE.save(postJson);
+        } else if (entryPoint) {
+            LOGGER.warn("[arex] case is over the buffer budget and dropped, record id: {}", requestMocker.getRecordId());
+        }
+    }
+
     public static Mocker replayMocker(Mocker requestMocker) {
         return replayMocker(requestMocker, MockStrategyEnum.FIND_LAST);
     }
@@ -104,8 +183,142 @@ public final class MockUtils {
     public static Mocker replayMocker(Mocker requestMocker, MockStrategyEnum mockStrategy) {
         String postJson = Serializer.serialize(requestMocker);
 
+        ReplayPrefetch prefetch = currentPrefetch();
+        Mocker prefetched = replayFromIndex(prefetch, requestMocker, postJson, mockStrategy);
+        if (prefetched != null) {
+            return prefetched;
+        }
+
+        if (prefetch != null && prefetch.isReporting()) {
+            return queryInOrder(prefetch, requestMocker, postJson, mockStrategy).join();
+        }
+
         String data = DataService.INSTANCE.query(postJson, mockStrategy);
 
+        return parseReplayMocker(requestMocker, postJson, data);
+    }
+
+    /**
+     * Replay without blocking the calling thread, the future is completed by the storage client thread.
+     * Storage errors are logged and complete the future with null, callers treat it as a replay miss.
+     */
+    public static CompletableFuture<Mocker> replayMockerAsync(Mocker requestMocker) {
+        return replayMockerAsync(requestMocker, MockStrategyEnum.FIND_LAST);
+    }
+
+    public static CompletableFuture<Mocker> replayMockerAsync(Mocker requestMocker, MockStrategyEnum mockStrategy) {
+        String postJson = Serializer.serialize(requestMocker);
+
+        ReplayPrefetch prefetch = currentPrefetch();
+        Mocker prefetched = replayFromIndex(prefetch, requestMocker, postJson, mockStrategy);
+        if (prefetched != null) {
+            return CompletableFuture.completedFuture(prefetched);
+        }
+
+        if (prefetch != null && prefetch.isReporting()) {
+            return queryInOrder(prefetch, requestMocker, postJson, mockStrategy);
+        }
+
+        return DataService.INSTANCE.queryAsync(postJson, mockStrategy).handle((data, throwable) -> {
+            if (throwable != null) {
+                LOGGER.warn("[arex] replay query failed. request: {}", postJson, throwable);
+                return null;
+            }
+            return parseReplayMocker(requestMocker, postJson, data);
+        });
+    }
+
+    /**
+     * Load all recorded mockers of the case in one call without waiting for them, replay queries are answered
+     * locally once they arrived. If the storage service returns nothing or fails, queries keep going to the network.
+     */
+    public static void prefetchReplayMockers(ArexContext context) {
+        ArexMocker requestMocker = new ArexMocker();
+        requestMocker.setRecordId(context.getCaseId());
+        requestMocker.setReplayId(context.getReplayId());
+        requestMocker.setAppId(System.getProperty("arex.service.name"));
+        requestMocker.setRecordVersion(Config.get().getRecordVersion());
+        String postJson = Serializer.serialize(requestMocker);
+
+        ReplayPrefetch prefetch = new ReplayPrefetch();
+        context.setReplayPrefetch(prefetch);
+        DataService.INSTANCE.queryAllAsync(postJson).whenComplete((data, throwable) -> {
+            if (throwable != null) {
+                LOGGER.warn("[arex] replay prefetch failed. request: {}", postJson, throwable);
+                return;
+            }
+            ReplayMockerIndex index = parseReplayMockers(postJson, data);
+            if (index != null && !context.isCleared()) {
+                prefetch.install(index);
+            }
+        });
+    }
+
+    static ReplayMockerIndex parseReplayMockers(String postJson, String data) {
+        try {
+            if (StringUtil.isEmpty(data) || EMPTY_JSON.equals(data)) {
+                return null;
+            }
+            ArexMocker[] mockers = Serializer.deserialize(data, ArexMocker[].class);
+            if (mockers == null) {
+                return null;
+            }
+            ReplayMockerIndex index = ReplayMockerIndex.of(Arrays.asList(mockers));
+            if (Config.get().isEnableDebug()) {
+                LOGGER.info("[arex] prefetched {} replay operations, request: {}", index.size(), postJson);
+            }
+            return index;
+        } catch (Throwable e) {
+            LOGGER.warn("[arex] replay prefetch failed. request: {}", postJson, e);
+            return null;
+        }
+    }
+
+    private static ReplayPrefetch currentPrefetch() {
+        ArexContext context = ContextManager.current();
+        return context == null ? null : context.getReplayPrefetch();
+    }
+
+    /**
+     * A query sent after reports of prefetched mockers, the storage service must see them first
+     */
+    private static CompletableFuture<Mocker> queryInOrder(ReplayPrefetch prefetch, Mocker requestMocker,
+            String postJson, MockStrategyEnum mockStrategy) {
+        return prefetch.sendInOrder(() -> DataService.INSTANCE.queryAsync(postJson, mockStrategy))
+                .handle((data, throwable) -> {
+                    if (throwable != null) {
+                        LOGGER.warn("[arex] replay query failed. request: {}", postJson, throwable);
+                        return null;
+                    }
+                    return parseReplayMocker(requestMocker, postJson, data);
+                });
+    }
+
+    /**
+     * Only a miss goes to the network. With arex.replay.prefetch.report the request is also reported to
+     * the storage service, in call order and without waiting, so it keeps the replay result used for comparison.
+     */
+    private static Mocker replayFromIndex(ReplayPrefetch prefetch, Mocker requestMocker, String postJson,
+            MockStrategyEnum mockStrategy) {
+        if (prefetch == null) {
+            return null;
+        }
+        ReplayMockerIndex.Sequence sequence = prefetch.sequence(requestMocker);
+        Mocker responseMocker = sequence == null ? null : sequence.next(mockStrategy);
+        if (responseMocker == null) {
+            return null;
+        }
+
+        if (Config.get().isEnableDebug()) {
+            LOGGER.info("{}\nrequest: {}\nresponse: prefetched", requestMocker.logBuilder(), postJson);
+        }
+        if (Config.get().getBoolean(ArexConstants.REPLAY_PREFETCH_REPORT, false)) {
+            prefetch.sendInOrder(() -> DataService.INSTANCE.queryAsync(postJson, mockStrategy));
+        }
+        return responseMocker;
+    }
+
+    private static Mocker parseReplayMocker(Mocker requestMocker, String postJson, String data) {
         if (Config.get().isEnableDebug()) {
             LOGGER.info("{}\nrequest: {}\nresponse: {}", requestMocker.logBuilder(), postJson, data);
         }
@@ -133,6 +346,21 @@ public final class MockUtils {
             responseMocker.getTargetResponse().getType());
     }
 
+    public static CompletableFuture<Object> replayBodyAsync(Mocker requestMocker) {
+        return replayBodyAsync(requestMocker, MockStrategyEnum.FIND_LAST);
+    }
+
+    public static CompletableFuture<Object> replayBodyAsync(Mocker requestMocker, MockStrategyEnum mockStrategy) {
+        return replayMockerAsync(requestMocker, mockStrategy).thenApply(responseMocker -> {
+            if (!checkResponseMocker(responseMocker)) {
+                return null;
+            }
+
+            return Serializer.deserialize(responseMocker.getTargetResponse().getBody(),
+                responseMocker.getTargetResponse().getType());
+        });
+    }
+
     public static boolean checkResponseMocker(Mocker responseMocker) {
         if (responseMocker == null) {
             return false;
@@ -155,4 +383,26 @@ public final class MockUtils {
 
         return true;
     }
+
+    private static final class SerializeTask implements Runnable {
+        private final Mocker requestMocker;
+        private final Object response;
+        private final String serializer;
+
+        SerializeTask(Mocker requestMocker, Object response, String serializer) {
+            this.requestMocker = requestMocker;
+            this.response = response;
+            this.serializer = serializer;
+        }
+
+        @Override
+        public void run() {
+            try {
+                requestMocker.getTargetResponse().setBody(serialize(response, serializer));
+                recordMocker(requestMocker, null);
+            } catch (Throwable e) {
+                LOGGER.warn("[arex] async record failed, operation: {}", requestMocker.getOperationName(), e);
+            }
+        }
+    }
 }
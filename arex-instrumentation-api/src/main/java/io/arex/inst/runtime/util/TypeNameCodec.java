@@ -0,0 +1,215 @@
+package io.arex.inst.runtime.util;
+
+import io.arex.agent.bootstrap.internal.Cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Both directions of {@link TypeUtil} names without rebuilding them on every record.
+ * Names of a class with the classes of its elements are interned on the class that lives the shortest,
+ * the one whose loader descends from the loaders of all the others. Classes of unrelated loaders are not cached.
+ * Types resolved from names are indexed per class loader with weak keys.
+ * Nothing here keeps an application class or its class loader alive.
+ */
+public final class TypeNameCodec {
+    static final int MAX_NAMES_PER_CLASS = 32;
+    static final int MAX_TYPES_PER_LOADER = 4096;
+
+    private static final Object NO_CONTEXT_LOADER = new Object();
+
+    private static final ClassValue<Map<NameKey, String>> NAMES = new ClassValue<Map<NameKey, String>>() {
+        @Override
+        protected Map<NameKey, String> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(4);
+        }
+    };
+
+    /**
+     * Types are weakly referenced by the index: a class is kept by its loader,
+     * a parameterized type is kept by its owner class, see {@link #owner(Type)}
+     */
+    private static final Cache<Object, Map<String, Reference<Type>>> TYPES = Cache.weakMap();
+
+    private static final ClassValue<Set<Type>> PINNED_TYPES = new ClassValue<Set<Type>>() {
+        @Override
+        protected Set<Type> computeValue(Class<?> type) {
+            return ConcurrentHashMap.newKeySet(4);
+        }
+    };
+
+    private TypeNameCodec() {}
+
+    /**
+     * @param second the value class of a map, null for a single element
+     * @return raw-first or raw-first,second
+     */
+    static String name(Class<?> raw, Class<?> first, Class<?> second) {
+        Class<?> owner = owner(raw, first, second);
+        if (owner == null) {
+            return buildName(raw, first, second);
+        }
+        Map<NameKey, String> names = NAMES.get(owner);
+        NameKey key = new NameKey(raw, first, second);
+        String name = names.get(key);
+        if (name == null) {
+            name = buildName(raw, first, second);
+            if (names.size() < MAX_NAMES_PER_CLASS) {
+                names.putIfAbsent(key, name);
+            }
+        }
+        return name;
+    }
+
+    private static String buildName(Class<?> raw, Class<?> first, Class<?> second) {
+        StringBuilder builder = new StringBuilder(raw.getName()).append(TypeUtil.HORIZONTAL_LINE)
+            .append(first.getName());
+        if (second != null) {
+            builder.append(TypeUtil.COMMA).append(second.getName());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * @return the type resolved for this name by the loader, or null if not resolved yet or collected
+     */
+    static Type get(ClassLoader loader, String typeName) {
+        Map<String, Reference<Type>> types = TYPES.get(loaderKey(loader));
+        if (types == null) {
+            return null;
+        }
+        Reference<Type> reference = types.get(typeName);
+        return reference == null ? null : reference.get();
+    }
+
+    static void put(ClassLoader loader, String typeName, Type type) {
+        if (!(type instanceof Class)) {
+            Class<?> owner = owner(type);
+            if (owner == null) {
+                return;
+            }
+            PINNED_TYPES.get(owner).add(type);
+        }
+        Map<String, Reference<Type>> types = loaderTypes(loaderKey(loader));
+        if (types.size() < MAX_TYPES_PER_LOADER) {
+            types.put(typeName, new WeakReference<>(type));
+        }
+    }
+
+    private static Object loaderKey(ClassLoader loader) {
+        return loader == null ? NO_CONTEXT_LOADER : loader;
+    }
+
+    private static Map<String, Reference<Type>> loaderTypes(Object key) {
+        Map<String, Reference<Type>> types = TYPES.get(key);
+        if (types == null) {
+            synchronized (TYPES) {
+                types = TYPES.get(key);
+                if (types == null) {
+                    types = new ConcurrentHashMap<>();
+                    TYPES.put(key, types);
+                }
+            }
+        }
+        return types;
+    }
+
+    private static Class<?> owner(Class<?> raw, Class<?> first, Class<?> second) {
+        Class<?> owner = shorterLived(raw, first);
+        return owner == null || second == null ? owner : shorterLived(owner, second);
+    }
+
+    /**
+     * The class whose loader lives the shortest: a type argument loaded by an application class loader
+     * rather than the JDK collection holding it, so List&lt;Order&gt; goes away with Order.
+     * A child loader keeps its parent alive, so the owner is the class whose loader descends from the loaders
+     * of all the classes of the type.
+     *
+     * @return null for type variables and wildcards, or if two classes of the type have unrelated loaders
+     * (e.g. two sibling webapps), they are not cached
+     */
+    public static Class<?> owner(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Class<?> owner = owner(parameterizedType.getRawType());
+            if (owner != null && parameterizedType.getOwnerType() != null) {
+                owner = shorterLived(owner, owner(parameterizedType.getOwnerType()));
+            }
+            for (Type argument : parameterizedType.getActualTypeArguments()) {
+                if (owner == null) {
+                    return null;
+                }
+                owner = shorterLived(owner, owner(argument));
+            }
+            return owner;
+        }
+        if (type instanceof GenericArrayType) {
+            return owner(((GenericArrayType) type).getGenericComponentType());
+        }
+        return null;
+    }
+
+    /**
+     * @return the class whose loader is the same as or a descendant of the loader of the other one,
+     * null if either is null or their loaders are unrelated
+     */
+    private static Class<?> shorterLived(Class<?> current, Class<?> other) {
+        if (current == null || other == null) {
+            return null;
+        }
+        ClassLoader currentLoader = current.getClassLoader();
+        ClassLoader otherLoader = other.getClassLoader();
+        if (currentLoader == otherLoader || isAncestor(otherLoader, currentLoader)) {
+            return current;
+        }
+        return isAncestor(currentLoader, otherLoader) ? other : null;
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader loader) {
+        if (ancestor == null) {
+            return true;
+        }
+        for (ClassLoader parent = loader; parent != null; parent = parent.getParent()) {
+            if (parent == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class NameKey {
+        private final Class<?> raw;
+        private final Class<?> first;
+        private final Class<?> second;
+
+        private NameKey(Class<?> raw, Class<?> first, Class<?> second) {
+            this.raw = raw;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof NameKey)) {
+                return false;
+            }
+            NameKey other = (NameKey) obj;
+            return raw == other.raw && first == other.first && second == other.second;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 31 * raw.hashCode() + first.hashCode();
+            return second == null ? hash : 31 * hash + second.hashCode();
+        }
+    }
+}
@@ -14,8 +14,6 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import sun.reflect.generics.reflectiveObjects.ParameterizedTypeImpl;
 
 public class TypeUtil {
@@ -24,10 +22,30 @@ public class TypeUtil {
     public static final char HORIZONTAL_LINE = '-';
     public static final String HORIZONTAL_LINE_STR = "-";
     public static final String DEFAULT_CLASS_NAME = "java.lang.String";
-    private static final ConcurrentMap<String, Field> GENERIC_FIELD_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The field declared with each type parameter of the class, null if none
+     */
+    private static final ClassValue<Field[]> GENERIC_FIELDS = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            final Type[] typeParameters = type.getTypeParameters();
+            Field[] fields = new Field[typeParameters.length];
+            for (int i = 0; i < typeParameters.length; i++) {
+                final String typeName = typeParameters[i].getTypeName();
+                for (Field declaredField : type.getDeclaredFields()) {
+                    if (declaredField.getGenericType().getTypeName().equals(typeName)) {
+                        declaredField.setAccessible(true);
+                        fields[i] = declaredField;
+                        break;
+                    }
+                }
+            }
+            return fields;
+        }
+    };
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TypeUtil.class);
-    private static final ConcurrentMap<String, Type> TYPE_NAME_CACHE = new ConcurrentHashMap<>();
     /**
      * Suppresses default constructor, ensuring non-instantiability.
      */
@@ -38,7 +56,8 @@ public class TypeUtil {
             return null;
         }
 
-        Type type = TYPE_NAME_CACHE.get(typeName);
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        Type type = TypeNameCodec.get(loader, typeName);
         if (type != null) {
             return type;
         }
@@ -56,7 +75,7 @@ public class TypeUtil {
                 if (raw.getTypeParameters().length == 1) {
                     final Type[] args = new Type[]{forName(types[1])};
                     final ParameterizedTypeImpl parameterizedType = ParameterizedTypeImpl.make(raw, args, null);
-                    TYPE_NAME_CACHE.put(typeName, parameterizedType);
+                    TypeNameCodec.put(loader, typeName, parameterizedType);
                     return parameterizedType;
                 }
 
@@ -64,13 +83,13 @@ public class TypeUtil {
                     final String[] split = StringUtil.splitByFirstSeparator(types[1], COMMA);
                     Type[] args = new Type[]{forName(split[0]), forName(split[1])};
                     ParameterizedTypeImpl parameterizedType = ParameterizedTypeImpl.make(raw, args, null);
-                    TYPE_NAME_CACHE.put(typeName, parameterizedType);
+                    TypeNameCodec.put(loader, typeName, parameterizedType);
                     return parameterizedType;
                 }
-                TYPE_NAME_CACHE.put(typeName, raw);
+                TypeNameCodec.put(loader, typeName, raw);
                 return raw;
             }
-            TYPE_NAME_CACHE.put(typeName, raw);
+            TypeNameCodec.put(loader, typeName, raw);
             return raw;
         } catch (Throwable ex) {
             LOGGER.warn(LogUtil.buildTitle("forName"), ex);
@@ -113,26 +132,19 @@ public class TypeUtil {
 
     private static String genericTypeToString(Object result) {
         final Class<?> rawClass = result.getClass();
-        StringBuilder builder = new StringBuilder();
-        String rawClassName = rawClass.getName();
-        builder.append(rawClassName).append(HORIZONTAL_LINE);
-        final Type[] typeParameters = rawClass.getTypeParameters();
-        for (int i = 0; i < typeParameters.length; i++) {
-            final String typeName = typeParameters[i].getTypeName();
-            String cacheKey = rawClassName + typeName;
-            Field field = GENERIC_FIELD_CACHE.get(cacheKey);
-            if (field == null) {
-                for (Field declaredField : rawClass.getDeclaredFields()) {
-                    if (declaredField.getGenericType().getTypeName().equals(typeName)) {
-                        declaredField.setAccessible(true);
-                        GENERIC_FIELD_CACHE.put(cacheKey, declaredField);
-                        field = declaredField;
-                        break;
-                    }
-                }
+        final Field[] fields = GENERIC_FIELDS.get(rawClass);
+        if (fields.length <= 2) {
+            Object first = getFieldValue(fields[0], result);
+            Object second = fields.length == 2 ? getFieldValue(fields[1], result) : null;
+            if (isPlainValue(first) && (fields.length == 1 || isPlainValue(second))) {
+                return TypeNameCodec.name(rawClass, first.getClass(), second == null ? null : second.getClass());
             }
-            builder.append(invokeGetFieldType(field, result));
-            if (i == typeParameters.length - 1) {
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append(rawClass.getName()).append(HORIZONTAL_LINE);
+        for (int i = 0; i < fields.length; i++) {
+            builder.append(invokeGetFieldType(fields[i], result));
+            if (i == fields.length - 1) {
                return builder.toString();
             }
             builder.append(COMMA);
@@ -140,6 +152,25 @@ public class TypeUtil {
         return builder.toString();
     }
 
+    private static Object getFieldValue(Field field, Object result) {
+        if (field == null) {
+            return null;
+        }
+        try {
+            return field.get(result);
+        } catch (Throwable ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the name of the value is its class name, names built from such classes are interned
+     */
+    private static boolean isPlainValue(Object value) {
+        return value != null && !(value instanceof Map) && !(value instanceof Optional)
+            && !(value instanceof Collection) && !(value instanceof Type) && !isGenericType(value);
+    }
+
     private static String invokeGetFieldType(Field field, Object result) {
         if (field == null || result == null) {
             return null;
@@ -197,6 +228,9 @@ public class TypeUtil {
             }
 
             if (!(innerObj instanceof List)) {
+                if (isPlainValue(innerObj)) {
+                    return TypeNameCodec.name(result.getClass(), innerObj.getClass(), null);
+                }
                 builder.append(getName(innerObj));
                 return builder.toString();
             }
@@ -224,6 +258,9 @@ public class TypeUtil {
     }
 
     private static String optionalToString(Optional<?> result) {
+        if (isPlainValue(result.orElse(null))) {
+            return TypeNameCodec.name(Optional.class, result.get().getClass(), null);
+        }
         StringBuilder builder = new StringBuilder();
         builder.append(Optional.class.getName());
         result.ifPresent(o -> builder.append(HORIZONTAL_LINE).append(getName(o)));
@@ -237,6 +274,11 @@ public class TypeUtil {
         StringBuilder builder = new StringBuilder();
         builder.append(result.getClass().getName()).append(HORIZONTAL_LINE);
         for (Map.Entry<?, ?> entry : result.entrySet()) {
+            if (entry.getValue() == null || isPlainValue(entry.getValue())) {
+                return TypeNameCodec.name(result.getClass(),
+                    entry.getKey() == null ? String.class : entry.getKey().getClass(),
+                    entry.getValue() == null ? String.class : entry.getValue().getClass());
+            }
             String keyClassName = entry.getKey() == null ? DEFAULT_CLASS_NAME : entry.getKey().getClass().getName();
             String valueClassName = entry.getValue() == null ? DEFAULT_CLASS_NAME : getName(entry.getValue());
             builder.append(keyClassName).append(COMMA).append(valueClassName);
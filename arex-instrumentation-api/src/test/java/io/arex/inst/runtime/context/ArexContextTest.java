@@ -0,0 +1,26 @@
+package io.arex.inst.runtime.context;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArexContextTest {
+
+    @Test
+    void lazyStructures() {
+        ArexContext context = ArexContext.of("mock-case");
+        assertEquals(0, context.calculateSequence(null));
+        assertEquals(1, context.calculateSequence("mock-case"));
+        assertEquals(2, context.calculateSequence("mock-case"));
+        assertSame(context.getMethodSignatureHashes(), context.getMethodSignatureHashes());
+        assertSame(context.getCachedReplayResultMap(), context.getCachedReplayResultMap());
+        context.getMethodSignatureHashes().add(1L);
+        context.setAttachment("mock-key", "mock-value");
+
+        context.clear();
+        assertTrue(context.isCleared());
+        assertNull(context.getAttachment("mock-key"));
+        assertTrue(context.getMethodSignatureHashes().isEmpty());
+        assertEquals(1, context.calculateSequence("mock-case"));
+    }
+}
@@ -0,0 +1,48 @@
+package io.arex.inst.runtime.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaseMockerBufferTest {
+
+    @Test
+    void flush() {
+        CaseMockerBuffer buffer = new CaseMockerBuffer(10, 100);
+        assertTrue(buffer.add("mock1"));
+        assertTrue(buffer.add("mock2"));
+        assertEquals(2, buffer.size());
+
+        assertEquals(Arrays.asList("mock1", "mock2"), buffer.flush());
+        assertTrue(buffer.isFlushed());
+        // added after the entry point
+        assertFalse(buffer.add("mock3"));
+        assertTrue(buffer.flush().isEmpty());
+    }
+
+    @Test
+    void dropWhenOverBudget() {
+        CaseMockerBuffer countBuffer = new CaseMockerBuffer(2, 100);
+        assertTrue(countBuffer.add("mock1"));
+        assertTrue(countBuffer.add("mock2"));
+        assertFalse(countBuffer.add("mock3"));
+        assertTrue(countBuffer.isDropped());
+        assertFalse(countBuffer.add("mock4"));
+        assertTrue(countBuffer.flush().isEmpty());
+        assertFalse(countBuffer.isFlushed());
+
+        CaseMockerBuffer sizeBuffer = new CaseMockerBuffer(10, 8);
+        assertTrue(sizeBuffer.add("mock1"));
+        assertFalse(sizeBuffer.add("mock2"));
+        assertTrue(sizeBuffer.isDropped());
+        assertEquals(0, sizeBuffer.size());
+
+        // 3 bytes per char
+        CaseMockerBuffer utf8Buffer = new CaseMockerBuffer(10, 8);
+        assertTrue(utf8Buffer.add("\u4e2d\u6587"));
+        assertFalse(utf8Buffer.add("\u4e2d"));
+        assertTrue(utf8Buffer.isDropped());
+    }
+}
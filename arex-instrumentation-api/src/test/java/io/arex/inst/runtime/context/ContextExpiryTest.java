@@ -0,0 +1,55 @@
+package io.arex.inst.runtime.context;
+
+import io.arex.agent.bootstrap.TraceContextManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextExpiryTest {
+
+    @Test
+    void tick() {
+        List<ArexContext> expired = new ArrayList<>();
+        ContextExpiry expiry = new ContextExpiry(8, expired::add);
+        // far from the clock of the background ticker
+        long now = System.currentTimeMillis() + 3_600_000L;
+        expiry.tick(now);
+
+        ArexContext first = ArexContext.of("mock-1");
+        ArexContext second = ArexContext.of("mock-2");
+        ArexContext wrapped = ArexContext.of("mock-3");
+        expiry.schedule(first, now + 2000);
+        expiry.schedule(second, now + 5000);
+        // beyond the wheel, visited once before it expires
+        expiry.schedule(wrapped, now + 10_000);
+
+        assertEquals(0, expiry.tick(now + 1000));
+        assertEquals(1, expiry.tick(now + 2000));
+        assertSame(first, expired.get(0));
+
+        // completed earlier, the first entry is stale
+        expiry.schedule(second, now + 3000);
+        assertEquals(1, expiry.tick(now + 3000));
+        assertEquals(0, expiry.tick(now + 5000));
+        assertEquals(2, expired.size());
+
+        assertEquals(1, expiry.tick(now + 10_000));
+        assertSame(wrapped, expired.get(2));
+    }
+
+    @Test
+    void completeAndExpire() {
+        TraceContextManager.init("127.0.0.1");
+        ArexContext context = ContextManager.currentContext(true, "mock-expiry");
+        assertSame(context, ContextManager.getRecordContext("mock-expiry"));
+        long expireTime = context.getExpireTime();
+        assertTrue(expireTime > System.currentTimeMillis());
+
+        ContextManager.complete(context);
+        assertTrue(context.getExpireTime() < expireTime);
+        ContextManager.remove();
+    }
+}
@@ -1,8 +1,11 @@
 package io.arex.inst.runtime.context;
 
 import io.arex.agent.bootstrap.TraceContextManager;
+import io.arex.agent.bootstrap.TraceId;
+import io.arex.agent.bootstrap.cache.TimeCache;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -52,4 +55,56 @@ class ContextManagerTest {
                 arguments(false, null, emptyMocker, predicate2)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void currentAndAttach() {
+        ArexContext context = ContextManager.currentContext(true, "mock-case");
+        assertSame(context, ContextManager.current());
+        assertTrue(ContextManager.needRecordOrReplay());
+
+        // an expired context is not used any more
+        context.clear();
+        assertNull(ContextManager.current());
+
+        ContextManager.RECORD_MAP.put("mock-record", ArexContext.of("mock-record"));
+        assertSame(ContextManager.RECORD_MAP.get("mock-record"), ContextManager.attach("mock-record"));
+        assertTrue(ContextManager.needRecord());
+        assertNull(ContextManager.attach("mock-missing"));
+        assertFalse(ContextManager.needRecordOrReplay());
+
+        // the replayed clock follows the case
+        Mockito.when(TraceContextManager.getTraceId()).thenReturn(Mockito.mock(TraceId.class));
+        TimeCache.put(1000L);
+        ContextManager.RECORD_MAP.get("mock-record").setTimeOffset(TimeCache.current());
+        TimeCache.attach(null);
+        ContextManager.attach("mock-record");
+        assertTrue(TimeCache.get() >= 1000L);
+        TimeCache.remove();
+
+        ContextManager.attach("mock-record");
+        ContextManager.remove();
+        assertNull(ContextManager.current());
+    }
+
+    @Test
+    void expireReleasesTimeOffset() {
+        Mockito.when(TraceContextManager.getTraceId()).thenReturn(Mockito.mock(TraceId.class));
+        ArexContext context = ContextManager.currentContext(true, "mock-expire");
+        TimeCache.put(1000L);
+        context.setTimeOffset(TimeCache.current());
+        // the entry thread does not handle another request
+        TimeCache.attach(null);
+        ContextManager.complete(context);
+
+        ContextManager.attach("mock-expire");
+        assertTrue(TimeCache.get() >= 1000L);
+
+        ContextManager.expire(context);
+        assertNull(ContextManager.getRecordContext("mock-expire"));
+        // async tasks of the case may still hold the offset
+        TimeCache.attach(context.getTimeOffset());
+        assertEquals(0L, TimeCache.get());
+        TimeCache.attach(null);
+        ContextManager.remove();
+    }
+}
@@ -0,0 +1,61 @@
+package io.arex.inst.runtime.context;
+
+import io.arex.agent.bootstrap.model.ArexMocker;
+import io.arex.agent.bootstrap.model.MockCategoryType;
+import io.arex.agent.bootstrap.model.MockStrategyEnum;
+import io.arex.agent.bootstrap.model.Mocker;
+import io.arex.agent.bootstrap.model.Mocker.Target;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayMockerIndexTest {
+
+    @Test
+    void nextInRecordingOrder() {
+        ArexMocker second = mocker(MockCategoryType.DATABASE, "query", "select 1", 2);
+        ArexMocker first = mocker(MockCategoryType.DATABASE, "query", "select 1", 1);
+        ArexMocker other = mocker(MockCategoryType.DATABASE, "query", "select 2", 3);
+        ReplayMockerIndex index = ReplayMockerIndex.of(Arrays.asList(second, other, first));
+        assertEquals(2, index.size());
+
+        ReplayMockerIndex.Sequence sequence = index.get(mocker(MockCategoryType.DATABASE, "query", "select 1", 0));
+        assertSame(first, sequence.next(MockStrategyEnum.FIND_LAST));
+        assertSame(second, sequence.next(MockStrategyEnum.FIND_LAST));
+        // used up
+        assertSame(second, sequence.next(MockStrategyEnum.FIND_LAST));
+        assertNull(sequence.next(MockStrategyEnum.OVER_BREAK));
+        assertNull(sequence.next(MockStrategyEnum.STRICT_MATCH));
+    }
+
+    @Test
+    void get() {
+        ReplayMockerIndex index = ReplayMockerIndex.of(Arrays.asList(
+                mocker(MockCategoryType.SERVLET, "/api", "{}", 1),
+                mocker(MockCategoryType.REDIS, "get", null, 2)));
+        // entry point is not indexed
+        assertEquals(1, index.size());
+        assertNull(index.get(mocker(MockCategoryType.SERVLET, "/api", "{}", 0)));
+        assertNull(index.get(mocker(MockCategoryType.REDIS, "set", null, 0)));
+        assertNull(index.get(mocker(MockCategoryType.REDIS, "get", "key", 0)));
+        assertNull(index.get(null));
+        assertNotNull(index.get(mocker(MockCategoryType.REDIS, "get", null, 0)));
+
+        assertEquals(0, ReplayMockerIndex.of(Collections.emptyList()).size());
+        assertEquals(0, ReplayMockerIndex.of(null).size());
+    }
+
+    static ArexMocker mocker(MockCategoryType categoryType, String operationName, String body, long creationTime) {
+        ArexMocker mocker = new ArexMocker();
+        mocker.setCategoryType(categoryType);
+        mocker.setOperationName(operationName);
+        mocker.setCreationTime(creationTime);
+        Target target = new Target();
+        target.setBody(body);
+        mocker.setTargetRequest(target);
+        return mocker;
+    }
+}
@@ -0,0 +1,62 @@
+package io.arex.inst.runtime.context;
+
+import io.arex.agent.bootstrap.model.ArexMocker;
+import io.arex.agent.bootstrap.model.MockCategoryType;
+import io.arex.agent.bootstrap.model.MockStrategyEnum;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.arex.inst.runtime.context.ReplayMockerIndexTest.mocker;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayPrefetchTest {
+
+    @Test
+    void sequence() {
+        ArexMocker get = mocker(MockCategoryType.REDIS, "get", "key", 1);
+        ArexMocker set = mocker(MockCategoryType.REDIS, "set", "key", 2);
+        ReplayPrefetch prefetch = new ReplayPrefetch();
+
+        // not arrived yet, queried from the storage service
+        assertNull(prefetch.sequence(mocker(MockCategoryType.REDIS, "get", "key", 0)));
+        assertNull(prefetch.getIndex());
+
+        prefetch.install(ReplayMockerIndex.of(Arrays.asList(get, set)));
+        assertNotNull(prefetch.getIndex());
+        // its recorded sequence is consumed by the storage service
+        assertNull(prefetch.sequence(mocker(MockCategoryType.REDIS, "get", "key", 0)));
+        assertSame(set, prefetch.sequence(mocker(MockCategoryType.REDIS, "set", "key", 0))
+                .next(MockStrategyEnum.FIND_LAST));
+        assertNull(prefetch.sequence(mocker(MockCategoryType.REDIS, "del", "key", 0)));
+        assertNull(prefetch.sequence(null));
+    }
+
+    @Test
+    void sendInOrder() {
+        ReplayPrefetch prefetch = new ReplayPrefetch();
+        assertFalse(prefetch.isReporting());
+
+        CompletableFuture<String> first = new CompletableFuture<>();
+        AtomicInteger sent = new AtomicInteger();
+        prefetch.sendInOrder(() -> {
+            sent.incrementAndGet();
+            return first;
+        });
+        assertTrue(prefetch.isReporting());
+        CompletableFuture<String> second = prefetch.sendInOrder(() -> {
+            sent.incrementAndGet();
+            return CompletableFuture.completedFuture("second");
+        });
+        // waits for the first answer
+        assertEquals(1, sent.get());
+        assertFalse(second.isDone());
+
+        // whatever its outcome
+        first.completeExceptionally(new IllegalStateException("mock"));
+        assertEquals(2, sent.get());
+        assertEquals("second", second.join());
+    }
+}
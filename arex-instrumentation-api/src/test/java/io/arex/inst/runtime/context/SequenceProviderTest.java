@@ -0,0 +1,25 @@
+package io.arex.inst.runtime.context;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceProviderTest {
+
+    @Test
+    void get() {
+        SequenceProvider provider = new SequenceProvider();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, provider.get("mock-target-" + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2, provider.get("mock-target-" + i));
+        }
+        assertEquals(1, provider.increment(0L));
+        assertEquals(2, provider.increment(0L));
+
+        provider.clear();
+        assertEquals(1, provider.get("mock-target-0"));
+        assertEquals(1, provider.increment(0L));
+    }
+}
@@ -0,0 +1,71 @@
+package io.arex.inst.runtime.serializer;
+
+import io.arex.inst.runtime.config.ConfigBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSerializerTest {
+
+    @Test
+    void isSafe() {
+        ConfigBuilder.create("mock").addProperty(AsyncSerializer.ENABLE, "true")
+                .addProperty(AsyncSerializer.TYPES, " io.arex.inst.runtime.serializer.AsyncSerializerTest$Safe, ").build();
+        assertTrue(AsyncSerializer.isEnabled());
+        assertTrue(AsyncSerializer.isSafe(null));
+        assertTrue(AsyncSerializer.isSafe("mock"));
+        assertTrue(AsyncSerializer.isSafe(1L));
+        assertTrue(AsyncSerializer.isSafe(BigDecimal.ONE));
+        assertTrue(AsyncSerializer.isSafe(LocalDateTime.now()));
+        assertTrue(AsyncSerializer.isSafe(new Safe()));
+        // mutable values are serialized inline
+        assertFalse(AsyncSerializer.isSafe(new ArrayList<>()));
+        assertFalse(AsyncSerializer.isSafe(new StringBuilder()));
+        assertFalse(AsyncSerializer.isSafe(new Object()));
+
+        ConfigBuilder.create("mock").build();
+        assertFalse(AsyncSerializer.isEnabled());
+        assertFalse(AsyncSerializer.isSafe(new Safe()));
+    }
+
+    @Test
+    void executeAndReject() throws Exception {
+        ConfigBuilder.create("mock").addProperty(AsyncSerializer.THREADS, "1")
+                .addProperty(AsyncSerializer.QUEUE_SIZE, "1").build();
+        long rejected = AsyncSerializer.getRejectedCount();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(2);
+        assertTrue(AsyncSerializer.execute(() -> {
+            started.countDown();
+            await(release);
+            finished.countDown();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(AsyncSerializer.execute(finished::countDown));
+        // the worker is busy and the queue is full
+        assertFalse(AsyncSerializer.execute(finished::countDown));
+        assertEquals(rejected + 1, AsyncSerializer.getRejectedCount());
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class Safe {
+    }
+}
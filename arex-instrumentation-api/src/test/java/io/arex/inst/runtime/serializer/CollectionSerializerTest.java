@@ -0,0 +1,133 @@
+package io.arex.inst.runtime.serializer;
+
+import io.arex.agent.bootstrap.ctx.ArexThreadLocal;
+import io.arex.inst.runtime.config.ConfigBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionSerializerTest {
+    private static final int SIZE = CollectionSerializer.CHUNK_SIZE * 3 + 7;
+    private static final ArexThreadLocal<String> CONTEXT = new ArexThreadLocal<>();
+
+    @AfterEach
+    void tearDown() {
+        ConfigBuilder.create("mock").build();
+    }
+
+    @Test
+    void serializeList() {
+        StringSerializable serializer = arraySerializer();
+        List<Integer> list = numbers(SIZE);
+        String expected = serializer.serialize(list);
+
+        ConfigBuilder.create("mock").build();
+        assertEquals(expected, CollectionSerializer.serializeList(serializer, list));
+
+        ConfigBuilder.create("mock").addProperty(CollectionSerializer.PARALLEL_THRESHOLD, "1").build();
+        assertEquals(expected, CollectionSerializer.serializeList(serializer, list));
+        // 1 call per chunk
+        Mockito.verify(serializer, Mockito.times(2 + 4)).serialize(Mockito.any());
+
+        ConfigBuilder.create("mock").addProperty(CollectionSerializer.MAX_SIZE, "2").build();
+        assertEquals("[0,1]", CollectionSerializer.serializeList(serializer, list));
+    }
+
+    @Test
+    void serializeListNotArray() {
+        StringSerializable serializer = Mockito.mock(StringSerializable.class);
+        Mockito.when(serializer.serialize(Mockito.any())).thenReturn("mock");
+        ConfigBuilder.create("mock").addProperty(CollectionSerializer.PARALLEL_THRESHOLD, "1").build();
+        assertEquals("mock", CollectionSerializer.serializeList(serializer, numbers(SIZE)));
+    }
+
+    @Test
+    void isLarge() {
+        assertFalse(CollectionSerializer.isLarge(SIZE));
+
+        ConfigBuilder.create("mock").addProperty(CollectionSerializer.MAX_SIZE, "2").build();
+        assertFalse(CollectionSerializer.isLarge(2));
+        assertTrue(CollectionSerializer.isLarge(3));
+
+        ConfigBuilder.create("mock").addProperty(CollectionSerializer.PARALLEL_THRESHOLD, "1").build();
+        assertFalse(CollectionSerializer.isLarge(CollectionSerializer.CHUNK_SIZE));
+        assertTrue(CollectionSerializer.isLarge(CollectionSerializer.CHUNK_SIZE * 2));
+    }
+
+    @Test
+    void joinNested() {
+        ConfigBuilder.create("mock").addProperty(CollectionSerializer.PARALLEL_THRESHOLD, "1").build();
+        List<Integer> inner = numbers(SIZE);
+        String innerJoined = CollectionSerializer.join(inner, String::valueOf, ",", false);
+        // the element serializer joins on the same thread while the outer buffer is in use
+        String joined = CollectionSerializer.join(numbers(SIZE),
+                element -> CollectionSerializer.join(inner, String::valueOf, ",", false), "|", false);
+        assertEquals(SIZE * (innerJoined.length() + 1) - 1, joined.length());
+        assertTrue(joined.startsWith(innerJoined + "|" + innerJoined));
+    }
+
+    @Test
+    void forkedChunksWithoutContext() {
+        ConfigBuilder.create("mock").addProperty(CollectionSerializer.PARALLEL_THRESHOLD, "1").build();
+        CONTEXT.set("case");
+        try {
+            String joined = CollectionSerializer.join(numbers(SIZE),
+                    element -> String.valueOf(CONTEXT.get()), ",", false);
+            String[] contexts = joined.split(",");
+            assertEquals(SIZE, contexts.length);
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(i < CollectionSerializer.CHUNK_SIZE ? "case" : "null", contexts[i]);
+            }
+            assertEquals("case", CONTEXT.get());
+        } finally {
+            CONTEXT.remove();
+        }
+    }
+
+    @Test
+    void join() {
+        List<Integer> list = numbers(SIZE);
+        String expected = CollectionSerializer.join(list, String::valueOf, "|", false);
+        assertTrue(expected.startsWith("0|1|"));
+        assertTrue(expected.endsWith("|" + (SIZE - 1)));
+        assertEquals("0|1|", CollectionSerializer.join(numbers(2), String::valueOf, "|", true));
+
+        ConfigBuilder.create("mock").addProperty(CollectionSerializer.PARALLEL_THRESHOLD, "1").build();
+        assertEquals(expected, CollectionSerializer.join(list, String::valueOf, "|", false));
+        assertEquals(expected + "|", CollectionSerializer.join(list, String::valueOf, "|", true));
+        Set<Integer> set = new HashSet<>(list);
+        assertEquals(expected.length(), CollectionSerializer.join(set, String::valueOf, "|", false).length());
+
+        ConfigBuilder.create("mock").addProperty(CollectionSerializer.MAX_SIZE, "2").build();
+        assertEquals("0|1", CollectionSerializer.join(list, String::valueOf, "|", false));
+        assertEquals("null|null", CollectionSerializer.join(list, element -> null, "|", false));
+    }
+
+    private static List<Integer> numbers(int size) {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static StringSerializable arraySerializer() {
+        StringSerializable serializer = Mockito.mock(StringSerializable.class);
+        Mockito.when(serializer.serialize(Mockito.any())).thenAnswer(invocation -> {
+            List<?> list = invocation.getArgument(0);
+            StringBuilder builder = new StringBuilder("[");
+            for (int i = 0; i < list.size(); i++) {
+                builder.append(i == 0 ? "" : ",").append(list.get(i));
+            }
+            return builder.append(']').toString();
+        });
+        return serializer;
+    }
+}
@@ -0,0 +1,138 @@
+package io.arex.inst.runtime.serializer;
+
+import io.arex.agent.bootstrap.model.ArexMocker;
+import io.arex.agent.bootstrap.model.MockCategoryType;
+import io.arex.agent.bootstrap.model.Mocker;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MockerCodecTest {
+
+    @Test
+    void databaseMocker() {
+        ArexMocker mocker = mocker(MockCategoryType.DATABASE, "query");
+        Mocker.Target request = new Mocker.Target();
+        request.setBody("select * from t where name = ?");
+        request.setAttribute("dbName", "dbé😀");
+        request.setAttribute("parameters", "{\"1\":\"quoted \\\"value\\\"\"}");
+        mocker.setTargetRequest(request);
+        Mocker.Target response = new Mocker.Target();
+        response.setBody("[{\"id\":1}]");
+        response.setType("java.util.ArrayList-java.util.HashMap");
+        mocker.setTargetResponse(response);
+
+        byte[] record = MockerCodec.encode(mocker);
+        assertTrue(MockerCodec.isEncoded(record));
+        assertEquals("mock-record", MockerCodec.readRecordId(record));
+
+        ArexMocker decoded = MockerCodec.decode(record);
+        assertSame(MockCategoryType.DATABASE, decoded.getCategoryType());
+        assertEquals("mock-record", decoded.getRecordId());
+        assertNull(decoded.getReplayId());
+        assertEquals("mock-app", decoded.getAppId());
+        assertEquals(1, decoded.getRecordEnvironment());
+        assertEquals(1700000000000L, decoded.getCreationTime());
+        assertEquals("query", decoded.getOperationName());
+        assertEquals(request.getBody(), decoded.getTargetRequest().getBody());
+        assertNull(decoded.getTargetRequest().getType());
+        assertEquals(request.getAttributes(), decoded.getTargetRequest().getAttributes());
+        assertEquals(response.getBody(), decoded.getTargetResponse().getBody());
+        assertEquals(response.getType(), decoded.getTargetResponse().getType());
+        assertNull(decoded.getTargetResponse().getAttributes());
+    }
+
+    @Test
+    void httpMocker() {
+        ArexMocker mocker = mocker(MockCategoryType.create("mock-category", true, false), "/api/test");
+        Mocker.Target request = new Mocker.Target();
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("content-type", "application/json");
+        request.setAttribute("Headers", headers);
+        request.setAttribute("HttpMethod", "POST");
+        request.setAttribute("Status", 200);
+        request.setAttribute("Length", -5L);
+        request.setAttribute("Ratio", 0.5d);
+        request.setAttribute("Chunked", false);
+        request.setAttribute("Values", Arrays.asList("a", null, 1));
+        mocker.setTargetRequest(request);
+
+        ArexMocker decoded = MockerCodec.decode(MockerCodec.encode(mocker));
+        assertEquals("mock-category", decoded.getCategoryType().getName());
+        assertTrue(decoded.getCategoryType().isEntryPoint());
+        assertEquals(request.getAttributes(), decoded.getTargetRequest().getAttributes());
+        assertNull(decoded.getTargetResponse());
+    }
+
+    @Test
+    void bodyBytes() {
+        ArexMocker mocker = mocker(MockCategoryType.SERVLET, "/upload");
+        Mocker.Target request = new Mocker.Target();
+        byte[] body = {0, (byte) 0xFF, '"', '\\'};
+        request.setBodyBytes(body);
+        mocker.setTargetRequest(request);
+
+        byte[] record = MockerCodec.encode(mocker);
+        Mocker.Target decoded = MockerCodec.decode(record).getTargetRequest();
+        assertArrayEquals(body, decoded.bodyBytes());
+        assertEquals(Base64.getEncoder().encodeToString(body), decoded.getBody());
+
+        request.setBody("text");
+        assertNull(request.bodyBytes());
+        assertEquals("text", MockerCodec.decode(MockerCodec.encode(mocker)).getTargetRequest().getBody());
+    }
+
+    @Test
+    void unsupportedAttribute() {
+        ArexMocker mocker = mocker(MockCategoryType.HTTP_CLIENT, "get");
+        Mocker.Target request = new Mocker.Target();
+        request.setAttribute("bytes", new byte[1]);
+        mocker.setTargetRequest(request);
+        assertNull(MockerCodec.encode(mocker));
+        assertNull(MockerCodec.encode(null));
+    }
+
+    @Test
+    void decodeAll() {
+        byte[] first = MockerCodec.encode(mocker(MockCategoryType.SERVLET, "first"));
+        byte[] second = MockerCodec.encode(mocker(MockCategoryType.REDIS, "second"));
+        byte[] batch = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, batch, first.length, second.length);
+
+        List<ArexMocker> mockers = MockerCodec.decodeAll(batch);
+        assertEquals(2, mockers.size());
+        assertEquals("first", mockers.get(0).getOperationName());
+        assertSame(MockCategoryType.REDIS, mockers.get(1).getCategoryType());
+    }
+
+    @Test
+    void malformed() {
+        byte[] json = "{\"recordId\":\"mock-record\"}".getBytes(StandardCharsets.UTF_8);
+        assertFalse(MockerCodec.isEncoded(json));
+        assertEquals("", MockerCodec.readRecordId(json));
+        assertThrows(IllegalArgumentException.class, () -> MockerCodec.decode(json));
+
+        byte[] record = MockerCodec.encode(mocker(MockCategoryType.SERVLET, "truncated"));
+        assertThrows(IllegalArgumentException.class,
+                () -> MockerCodec.decode(Arrays.copyOf(record, record.length - 1)));
+        assertEquals(Collections.emptyList(), MockerCodec.decodeAll(new byte[0]));
+    }
+
+    private static ArexMocker mocker(MockCategoryType categoryType, String operationName) {
+        ArexMocker mocker = new ArexMocker(categoryType);
+        mocker.setRecordId("mock-record");
+        mocker.setAppId("mock-app");
+        mocker.setRecordEnvironment(1);
+        mocker.setCreationTime(1700000000000L);
+        mocker.setOperationName(operationName);
+        return mocker;
+    }
+}
@@ -0,0 +1,122 @@
+package io.arex.inst.runtime.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TypeNameCodecTest {
+    List<TypeNameCodecTest> ownedList;
+    HashMap<String, Long> jdkMap;
+
+    @Test
+    void owner() throws Exception {
+        assertEquals(String.class, TypeNameCodec.owner(String.class));
+        // the application class rather than the JDK collection
+        assertEquals(TypeNameCodecTest.class, TypeNameCodec.owner(fieldType("ownedList")));
+        assertEquals(HashMap.class, TypeNameCodec.owner(fieldType("jdkMap")));
+    }
+
+    @Test
+    void ownerByLoaderAncestry() throws Exception {
+        ClassLoader loader = getClass().getClassLoader();
+        Class<?> childItem = new ItemLoader(loader).loadItem();
+        Class<?> siblingItem = new ItemLoader(loader).loadItem();
+
+        // the child loader class, whatever the argument order
+        assertEquals(childItem, TypeNameCodec.owner(new TestParameterizedType(HashMap.class, childItem, TypeNameCodecTest.class)));
+        assertEquals(childItem, TypeNameCodec.owner(new TestParameterizedType(HashMap.class, TypeNameCodecTest.class, childItem)));
+        // unrelated loaders, not cached
+        assertNull(TypeNameCodec.owner(new TestParameterizedType(HashMap.class, childItem, siblingItem)));
+
+        String name = TypeNameCodec.name(HashMap.class, childItem, siblingItem);
+        assertEquals("java.util.HashMap-" + Item.class.getName() + "," + Item.class.getName(), name);
+        assertNotSame(name, TypeNameCodec.name(HashMap.class, childItem, siblingItem));
+        assertSame(TypeNameCodec.name(HashMap.class, childItem, TypeNameCodecTest.class),
+            TypeNameCodec.name(HashMap.class, childItem, TypeNameCodecTest.class));
+    }
+
+    @Test
+    void name() {
+        String name = TypeNameCodec.name(ArrayList.class, TypeNameCodecTest.class, null);
+        assertEquals("java.util.ArrayList-io.arex.inst.runtime.util.TypeNameCodecTest", name);
+        assertSame(name, TypeNameCodec.name(ArrayList.class, TypeNameCodecTest.class, null));
+        assertEquals("java.util.HashMap-java.lang.String,java.lang.Long",
+            TypeNameCodec.name(HashMap.class, String.class, Long.class));
+    }
+
+    @Test
+    void typesPerLoader() throws Exception {
+        Type type = fieldType("ownedList");
+        ClassLoader loader = getClass().getClassLoader();
+        TypeNameCodec.put(loader, "typesPerLoader", type);
+        assertSame(type, TypeNameCodec.get(loader, "typesPerLoader"));
+        try (URLClassLoader other = new URLClassLoader(new URL[0], loader)) {
+            assertNull(TypeNameCodec.get(other, "typesPerLoader"));
+        }
+        assertNull(TypeNameCodec.get(null, "typesPerLoader"));
+    }
+
+    private static Type fieldType(String name) throws NoSuchFieldException {
+        return TypeNameCodecTest.class.getDeclaredField(name).getGenericType();
+    }
+
+    static class Item {
+    }
+
+    /**
+     * Defines its own copy of {@link Item}
+     */
+    private static class ItemLoader extends ClassLoader {
+        private ItemLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> loadItem() throws IOException {
+            String resource = Item.class.getName().replace('.', '/') + ".class";
+            try (InputStream input = getParent().getResourceAsStream(resource)) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                byte[] buffer = new byte[1024];
+                for (int read; (read = input.read(buffer)) != -1; ) {
+                    output.write(buffer, 0, read);
+                }
+                byte[] bytes = output.toByteArray();
+                return defineClass(Item.class.getName(), bytes, 0, bytes.length);
+            }
+        }
+    }
+
+    private static class TestParameterizedType implements ParameterizedType {
+        private final Class<?> raw;
+        private final Type[] arguments;
+
+        private TestParameterizedType(Class<?> raw, Type... arguments) {
+            this.raw = raw;
+            this.arguments = arguments;
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return arguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return raw;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return null;
+        }
+    }
+}
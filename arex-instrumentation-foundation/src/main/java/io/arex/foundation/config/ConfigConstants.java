@@ -1,5 +1,7 @@
 package io.arex.foundation.config;
 
+import io.arex.inst.runtime.model.ArexConstants;
+
 public class ConfigConstants {
 
     public static final String ENABLE_DEBUG = "arex.enable.debug";
@@ -22,4 +24,27 @@ public class ConfigConstants {
     public static final String DURING_WORK = "arex.during.work";
     public static final String AGENT_VERSION = "arex.agent.version";
     public static final String IP_VALIDATE = "arex.ip.validate";
+    public static final String STORAGE_BATCH_ENABLE = "arex.storage.batch.enable";
+    public static final String STORAGE_BATCH_SIZE = "arex.storage.batch.size";
+    public static final String STORAGE_BATCH_LINGER_MS = "arex.storage.batch.linger.ms";
+    public static final String STORAGE_BATCH_IN_FLIGHT = "arex.storage.batch.inflight";
+    public static final String STORAGE_BINARY_ENABLE = "arex.storage.binary.enable";
+    public static final String REPLAY_PREFETCH = ArexConstants.REPLAY_PREFETCH;
+    public static final String REPLAY_PREFETCH_REPORT = ArexConstants.REPLAY_PREFETCH_REPORT;
+    public static final String STORAGE_LOCAL_PATH = "arex.storage.local.path";
+    public static final String STORAGE_LOCAL_SEGMENT_SIZE = "arex.storage.local.segment.size";
+    public static final String STORAGE_LOCAL_MAX_SEGMENTS = "arex.storage.local.max.segments";
+    public static final String STORAGE_SPILL_ENABLE = "arex.storage.spill.enable";
+    public static final String STORAGE_SPILL_PATH = "arex.storage.spill.path";
+    public static final String STORAGE_SPILL_SIZE = "arex.storage.spill.size";
+    public static final String RECORD_CASE_ATOMIC = ArexConstants.RECORD_CASE_ATOMIC;
+    public static final String RECORD_CASE_MAX_COUNT = ArexConstants.RECORD_CASE_MAX_COUNT;
+    public static final String RECORD_CASE_MAX_BYTES = ArexConstants.RECORD_CASE_MAX_BYTES;
+    public static final String RECORD_ASYNC_SERIALIZE = "arex.record.async.serialize";
+    public static final String RECORD_ASYNC_SERIALIZE_THREADS = "arex.record.async.serialize.threads";
+    public static final String RECORD_ASYNC_SERIALIZE_QUEUE_SIZE = "arex.record.async.serialize.queue.size";
+    public static final String RECORD_ASYNC_SERIALIZE_TYPES = "arex.record.async.serialize.types";
+    public static final String SERIALIZE_COLLECTION_MAX_SIZE = "arex.serialize.collection.max.size";
+    public static final String SERIALIZE_PARALLEL_THRESHOLD = "arex.serialize.parallel.threshold";
+    public static final String COMPRESS_DICTIONARY_ENABLE = "arex.compress.dictionary.enable";
 }
@@ -56,6 +56,29 @@ public class ConfigManager {
     private String targetAddress;
     private int dubboStreamReplayThreshold;
     private boolean disableReplay;
+    private boolean storageBatchEnable;
+    private int storageBatchSize;
+    private long storageBatchLingerMillis;
+    private int storageBatchInFlight;
+    private boolean storageBinaryEnable;
+    private boolean replayPrefetch;
+    private boolean replayPrefetchReport;
+    private String storageLocalPath;
+    private int storageLocalSegmentSize;
+    private int storageLocalMaxSegments;
+    private boolean storageSpillEnable;
+    private String storageSpillPath;
+    private int storageSpillSize;
+    private boolean recordCaseAtomic;
+    private int recordCaseMaxCount;
+    private long recordCaseMaxBytes;
+    private boolean recordAsyncSerialize;
+    private int recordAsyncSerializeThreads;
+    private int recordAsyncSerializeQueueSize;
+    private String recordAsyncSerializeTypes;
+    private int serializeCollectionMaxSize;
+    private int serializeParallelThreshold;
+    private boolean compressDictionaryEnable;
     private List<ConfigListener> listeners = new ArrayList<>();
     private Map<String, String> extendField;
 
@@ -165,6 +188,31 @@ public class ConfigManager {
         setExcludeServiceOperations(System.getProperty(EXCLUDE_SERVICE_OPERATION));
         setDubboStreamReplayThreshold(System.getProperty(DUBBO_STREAM_REPLAY_THRESHOLD, "100"));
         setDisableReplay(System.getProperty(DISABLE_REPLAY));
+        setStorageBatchEnable(System.getProperty(STORAGE_BATCH_ENABLE));
+        setStorageBatchSize(System.getProperty(STORAGE_BATCH_SIZE, "50"));
+        setStorageBatchLingerMillis(System.getProperty(STORAGE_BATCH_LINGER_MS, "100"));
+        setStorageBatchInFlight(System.getProperty(STORAGE_BATCH_IN_FLIGHT, "4"));
+        setStorageBinaryEnable(System.getProperty(STORAGE_BINARY_ENABLE));
+        setReplayPrefetch(System.getProperty(REPLAY_PREFETCH));
+        setReplayPrefetchReport(System.getProperty(REPLAY_PREFETCH_REPORT));
+        setStorageLocalPath(System.getProperty(STORAGE_LOCAL_PATH,
+                Paths.get(System.getProperty("user.home"), ".arex", "storage").toString()));
+        setStorageLocalSegmentSize(System.getProperty(STORAGE_LOCAL_SEGMENT_SIZE, "64"));
+        setStorageLocalMaxSegments(System.getProperty(STORAGE_LOCAL_MAX_SEGMENTS, "16"));
+        setStorageSpillEnable(System.getProperty(STORAGE_SPILL_ENABLE));
+        setStorageSpillPath(System.getProperty(STORAGE_SPILL_PATH,
+                Paths.get(System.getProperty("user.home"), ".arex", "spill").toString()));
+        setStorageSpillSize(System.getProperty(STORAGE_SPILL_SIZE, "64"));
+        setRecordCaseAtomic(System.getProperty(RECORD_CASE_ATOMIC));
+        setRecordCaseMaxCount(System.getProperty(RECORD_CASE_MAX_COUNT, "1000"));
+        setRecordCaseMaxBytes(System.getProperty(RECORD_CASE_MAX_BYTES, String.valueOf(8L << 20)));
+        setRecordAsyncSerialize(System.getProperty(RECORD_ASYNC_SERIALIZE));
+        setRecordAsyncSerializeThreads(System.getProperty(RECORD_ASYNC_SERIALIZE_THREADS, "2"));
+        setRecordAsyncSerializeQueueSize(System.getProperty(RECORD_ASYNC_SERIALIZE_QUEUE_SIZE, "1024"));
+        setRecordAsyncSerializeTypes(System.getProperty(RECORD_ASYNC_SERIALIZE_TYPES, StringUtil.EMPTY));
+        setSerializeCollectionMaxSize(System.getProperty(SERIALIZE_COLLECTION_MAX_SIZE, "0"));
+        setSerializeParallelThreshold(System.getProperty(SERIALIZE_PARALLEL_THRESHOLD, "0"));
+        setCompressDictionaryEnable(System.getProperty(COMPRESS_DICTIONARY_ENABLE));
     }
 
     private void updateInstrumentationConfig() {
@@ -172,6 +220,17 @@ public class ConfigManager {
         configMap.put(DYNAMIC_RESULT_SIZE_LIMIT, String.valueOf(getDynamicResultSizeLimit()));
         configMap.put(TIME_MACHINE, String.valueOf(startTimeMachine()));
         configMap.put(DISABLE_REPLAY, String.valueOf(disableReplay()));
+        configMap.put(REPLAY_PREFETCH, String.valueOf(isReplayPrefetch()));
+        configMap.put(REPLAY_PREFETCH_REPORT, String.valueOf(isReplayPrefetchReport()));
+        configMap.put(RECORD_CASE_ATOMIC, String.valueOf(isRecordCaseAtomic()));
+        configMap.put(RECORD_CASE_MAX_COUNT, String.valueOf(getRecordCaseMaxCount()));
+        configMap.put(RECORD_CASE_MAX_BYTES, String.valueOf(getRecordCaseMaxBytes()));
+        configMap.put(RECORD_ASYNC_SERIALIZE, String.valueOf(isRecordAsyncSerialize()));
+        configMap.put(RECORD_ASYNC_SERIALIZE_THREADS, String.valueOf(getRecordAsyncSerializeThreads()));
+        configMap.put(RECORD_ASYNC_SERIALIZE_QUEUE_SIZE, String.valueOf(getRecordAsyncSerializeQueueSize()));
+        configMap.put(RECORD_ASYNC_SERIALIZE_TYPES, getRecordAsyncSerializeTypes());
+        configMap.put(SERIALIZE_COLLECTION_MAX_SIZE, String.valueOf(getSerializeCollectionMaxSize()));
+        configMap.put(SERIALIZE_PARALLEL_THRESHOLD, String.valueOf(getSerializeParallelThreshold()));
         configMap.put(DURING_WORK, Boolean.toString(nextWorkTime() <= 0));
         configMap.put(AGENT_VERSION, agentVersion);
         configMap.put(IP_VALIDATE, Boolean.toString(checkTargetAddress()));
@@ -217,6 +276,29 @@ public class ConfigManager {
         setDisabledInstrumentationModules(configMap.get(DISABLE_INSTRUMENTATION_MODULE));
         setExcludeServiceOperations(configMap.get(EXCLUDE_SERVICE_OPERATION));
         setDisableReplay(configMap.get(DISABLE_REPLAY));
+        setStorageBatchEnable(configMap.get(STORAGE_BATCH_ENABLE));
+        setStorageBatchSize(configMap.get(STORAGE_BATCH_SIZE));
+        setStorageBatchLingerMillis(configMap.get(STORAGE_BATCH_LINGER_MS));
+        setStorageBatchInFlight(configMap.get(STORAGE_BATCH_IN_FLIGHT));
+        setStorageBinaryEnable(configMap.get(STORAGE_BINARY_ENABLE));
+        setReplayPrefetch(configMap.get(REPLAY_PREFETCH));
+        setReplayPrefetchReport(configMap.get(REPLAY_PREFETCH_REPORT));
+        setStorageLocalPath(configMap.get(STORAGE_LOCAL_PATH));
+        setStorageLocalSegmentSize(configMap.get(STORAGE_LOCAL_SEGMENT_SIZE));
+        setStorageLocalMaxSegments(configMap.get(STORAGE_LOCAL_MAX_SEGMENTS));
+        setStorageSpillEnable(configMap.get(STORAGE_SPILL_ENABLE));
+        setStorageSpillPath(configMap.get(STORAGE_SPILL_PATH));
+        setStorageSpillSize(configMap.get(STORAGE_SPILL_SIZE));
+        setRecordCaseAtomic(configMap.get(RECORD_CASE_ATOMIC));
+        setRecordCaseMaxCount(configMap.get(RECORD_CASE_MAX_COUNT));
+        setRecordCaseMaxBytes(configMap.get(RECORD_CASE_MAX_BYTES));
+        setRecordAsyncSerialize(configMap.get(RECORD_ASYNC_SERIALIZE));
+        setRecordAsyncSerializeThreads(configMap.get(RECORD_ASYNC_SERIALIZE_THREADS));
+        setRecordAsyncSerializeQueueSize(configMap.get(RECORD_ASYNC_SERIALIZE_QUEUE_SIZE));
+        setRecordAsyncSerializeTypes(configMap.get(RECORD_ASYNC_SERIALIZE_TYPES));
+        setSerializeCollectionMaxSize(configMap.get(SERIALIZE_COLLECTION_MAX_SIZE));
+        setSerializeParallelThreshold(configMap.get(SERIALIZE_PARALLEL_THRESHOLD));
+        setCompressDictionaryEnable(configMap.get(COMPRESS_DICTIONARY_ENABLE));
     }
 
     private static Map<String, String> parseConfigFile(String configPath) {
@@ -447,6 +529,297 @@ public class ConfigManager {
         return disableReplay;
     }
 
+    public boolean isStorageBatchEnable() {
+        return storageBatchEnable;
+    }
+
+    public void setStorageBatchEnable(String storageBatchEnable) {
+        if (StringUtil.isEmpty(storageBatchEnable)) {
+            return;
+        }
+        this.storageBatchEnable = Boolean.parseBoolean(storageBatchEnable);
+        System.setProperty(STORAGE_BATCH_ENABLE, storageBatchEnable);
+    }
+
+    public int getStorageBatchSize() {
+        return storageBatchSize;
+    }
+
+    public void setStorageBatchSize(String storageBatchSize) {
+        if (StringUtil.isEmpty(storageBatchSize)) {
+            return;
+        }
+        this.storageBatchSize = Math.max(Integer.parseInt(storageBatchSize), 1);
+    }
+
+    public long getStorageBatchLingerMillis() {
+        return storageBatchLingerMillis;
+    }
+
+    public void setStorageBatchLingerMillis(String storageBatchLingerMillis) {
+        if (StringUtil.isEmpty(storageBatchLingerMillis)) {
+            return;
+        }
+        this.storageBatchLingerMillis = Math.max(Long.parseLong(storageBatchLingerMillis), 0L);
+    }
+
+    public int getStorageBatchInFlight() {
+        return storageBatchInFlight;
+    }
+
+    public void setStorageBatchInFlight(String storageBatchInFlight) {
+        if (StringUtil.isEmpty(storageBatchInFlight)) {
+            return;
+        }
+        this.storageBatchInFlight = Math.max(Integer.parseInt(storageBatchInFlight), 1);
+    }
+
+    /**
+     * Mockers are sent as binary records, until the storage service answers it does not support them
+     */
+    public boolean isStorageBinaryEnable() {
+        return storageBinaryEnable;
+    }
+
+    public void setStorageBinaryEnable(String storageBinaryEnable) {
+        if (StringUtil.isEmpty(storageBinaryEnable)) {
+            return;
+        }
+        this.storageBinaryEnable = Boolean.parseBoolean(storageBinaryEnable);
+        System.setProperty(STORAGE_BINARY_ENABLE, storageBinaryEnable);
+    }
+
+    public boolean isReplayPrefetch() {
+        return replayPrefetch;
+    }
+
+    public void setReplayPrefetch(String replayPrefetch) {
+        if (StringUtil.isEmpty(replayPrefetch)) {
+            return;
+        }
+        this.replayPrefetch = Boolean.parseBoolean(replayPrefetch);
+        System.setProperty(REPLAY_PREFETCH, replayPrefetch);
+    }
+
+    public boolean isReplayPrefetchReport() {
+        return replayPrefetchReport;
+    }
+
+    public void setReplayPrefetchReport(String replayPrefetchReport) {
+        if (StringUtil.isEmpty(replayPrefetchReport)) {
+            return;
+        }
+        this.replayPrefetchReport = Boolean.parseBoolean(replayPrefetchReport);
+        System.setProperty(REPLAY_PREFETCH_REPORT, replayPrefetchReport);
+    }
+
+    public String getStorageLocalPath() {
+        return storageLocalPath;
+    }
+
+    public void setStorageLocalPath(String storageLocalPath) {
+        if (StringUtil.isEmpty(storageLocalPath)) {
+            return;
+        }
+        this.storageLocalPath = storageLocalPath;
+    }
+
+    /**
+     * @return segment file size in bytes
+     */
+    public int getStorageLocalSegmentSize() {
+        return storageLocalSegmentSize;
+    }
+
+    /**
+     * @param storageLocalSegmentSize segment file size in megabytes, at most 1024
+     */
+    public void setStorageLocalSegmentSize(String storageLocalSegmentSize) {
+        if (StringUtil.isEmpty(storageLocalSegmentSize)) {
+            return;
+        }
+        int megabytes = Math.min(Math.max(Integer.parseInt(storageLocalSegmentSize), 1), 1024);
+        this.storageLocalSegmentSize = megabytes << 20;
+    }
+
+    public int getStorageLocalMaxSegments() {
+        return storageLocalMaxSegments;
+    }
+
+    /**
+     * @param storageLocalMaxSegments segment files kept, the oldest one is deleted when a new one is needed
+     */
+    public void setStorageLocalMaxSegments(String storageLocalMaxSegments) {
+        if (StringUtil.isEmpty(storageLocalMaxSegments)) {
+            return;
+        }
+        this.storageLocalMaxSegments = Math.max(Integer.parseInt(storageLocalMaxSegments), 1);
+    }
+
+    public boolean isStorageSpillEnable() {
+        return storageSpillEnable;
+    }
+
+    public void setStorageSpillEnable(String storageSpillEnable) {
+        if (StringUtil.isEmpty(storageSpillEnable)) {
+            return;
+        }
+        this.storageSpillEnable = Boolean.parseBoolean(storageSpillEnable);
+        System.setProperty(STORAGE_SPILL_ENABLE, storageSpillEnable);
+    }
+
+    public String getStorageSpillPath() {
+        return storageSpillPath;
+    }
+
+    public void setStorageSpillPath(String storageSpillPath) {
+        if (StringUtil.isEmpty(storageSpillPath)) {
+            return;
+        }
+        this.storageSpillPath = storageSpillPath;
+    }
+
+    /**
+     * @return spill file size in bytes
+     */
+    public int getStorageSpillSize() {
+        return storageSpillSize;
+    }
+
+    /**
+     * @param storageSpillSize spill file size in megabytes, at most 1024
+     */
+    public void setStorageSpillSize(String storageSpillSize) {
+        if (StringUtil.isEmpty(storageSpillSize)) {
+            return;
+        }
+        int megabytes = Math.min(Math.max(Integer.parseInt(storageSpillSize), 1), 1024);
+        this.storageSpillSize = megabytes << 20;
+    }
+
+    public boolean isRecordCaseAtomic() {
+        return recordCaseAtomic;
+    }
+
+    public void setRecordCaseAtomic(String recordCaseAtomic) {
+        if (StringUtil.isEmpty(recordCaseAtomic)) {
+            return;
+        }
+        this.recordCaseAtomic = Boolean.parseBoolean(recordCaseAtomic);
+        System.setProperty(RECORD_CASE_ATOMIC, recordCaseAtomic);
+    }
+
+    public int getRecordCaseMaxCount() {
+        return recordCaseMaxCount;
+    }
+
+    public void setRecordCaseMaxCount(String recordCaseMaxCount) {
+        if (StringUtil.isEmpty(recordCaseMaxCount)) {
+            return;
+        }
+        this.recordCaseMaxCount = Math.max(Integer.parseInt(recordCaseMaxCount), 1);
+    }
+
+    public long getRecordCaseMaxBytes() {
+        return recordCaseMaxBytes;
+    }
+
+    public void setRecordCaseMaxBytes(String recordCaseMaxBytes) {
+        if (StringUtil.isEmpty(recordCaseMaxBytes)) {
+            return;
+        }
+        this.recordCaseMaxBytes = Math.max(Long.parseLong(recordCaseMaxBytes), 1L);
+    }
+
+    public boolean isRecordAsyncSerialize() {
+        return recordAsyncSerialize;
+    }
+
+    public void setRecordAsyncSerialize(String recordAsyncSerialize) {
+        if (StringUtil.isEmpty(recordAsyncSerialize)) {
+            return;
+        }
+        this.recordAsyncSerialize = Boolean.parseBoolean(recordAsyncSerialize);
+        System.setProperty(RECORD_ASYNC_SERIALIZE, recordAsyncSerialize);
+    }
+
+    public int getRecordAsyncSerializeThreads() {
+        return recordAsyncSerializeThreads;
+    }
+
+    public void setRecordAsyncSerializeThreads(String recordAsyncSerializeThreads) {
+        if (StringUtil.isEmpty(recordAsyncSerializeThreads)) {
+            return;
+        }
+        this.recordAsyncSerializeThreads = Math.max(Integer.parseInt(recordAsyncSerializeThreads), 1);
+    }
+
+    public int getRecordAsyncSerializeQueueSize() {
+        return recordAsyncSerializeQueueSize;
+    }
+
+    public void setRecordAsyncSerializeQueueSize(String recordAsyncSerializeQueueSize) {
+        if (StringUtil.isEmpty(recordAsyncSerializeQueueSize)) {
+            return;
+        }
+        this.recordAsyncSerializeQueueSize = Math.max(Integer.parseInt(recordAsyncSerializeQueueSize), 1);
+    }
+
+    public String getRecordAsyncSerializeTypes() {
+        return recordAsyncSerializeTypes;
+    }
+
+    /**
+     * @param recordAsyncSerializeTypes comma separated class name prefixes of responses the application
+     *                                  never changes once returned, they are serialized after the call
+     */
+    public void setRecordAsyncSerializeTypes(String recordAsyncSerializeTypes) {
+        if (recordAsyncSerializeTypes == null) {
+            return;
+        }
+        this.recordAsyncSerializeTypes = recordAsyncSerializeTypes;
+    }
+
+    public int getSerializeCollectionMaxSize() {
+        return serializeCollectionMaxSize;
+    }
+
+    /**
+     * @param serializeCollectionMaxSize elements of a collection recorded at most, 0 records all of them
+     */
+    public void setSerializeCollectionMaxSize(String serializeCollectionMaxSize) {
+        if (StringUtil.isEmpty(serializeCollectionMaxSize)) {
+            return;
+        }
+        this.serializeCollectionMaxSize = Math.max(Integer.parseInt(serializeCollectionMaxSize), 0);
+    }
+
+    public int getSerializeParallelThreshold() {
+        return serializeParallelThreshold;
+    }
+
+    /**
+     * @param serializeParallelThreshold collection size from which chunks are serialized in parallel, 0 disables it
+     */
+    public void setSerializeParallelThreshold(String serializeParallelThreshold) {
+        if (StringUtil.isEmpty(serializeParallelThreshold)) {
+            return;
+        }
+        this.serializeParallelThreshold = Math.max(Integer.parseInt(serializeParallelThreshold), 0);
+    }
+
+    public boolean isCompressDictionaryEnable() {
+        return compressDictionaryEnable;
+    }
+
+    public void setCompressDictionaryEnable(String compressDictionaryEnable) {
+        if (StringUtil.isEmpty(compressDictionaryEnable)) {
+            return;
+        }
+        this.compressDictionaryEnable = Boolean.parseBoolean(compressDictionaryEnable);
+        System.setProperty(COMPRESS_DICTIONARY_ENABLE, compressDictionaryEnable);
+    }
+
     public Map<String, String> getExtendField() {
         return extendField;
     }
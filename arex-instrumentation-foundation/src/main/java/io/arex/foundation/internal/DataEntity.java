@@ -1,11 +1,55 @@
 package io.arex.foundation.internal;
 
+import io.arex.foundation.util.CompressUtil;
+import io.arex.inst.runtime.serializer.MockerCodec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A queued mocker, held either as a String or as UTF-8 bytes which may already be zstd compressed.
+ * Mockers saved as bytes never exist as a String on the way to the storage service.
+ * Bytes may also be a record of {@link MockerCodec} instead of JSON, see {@link #isBinary()}.
+ */
 public class DataEntity {
+    private static final String RECORD_ID_FIELD = "\"recordId\":\"";
+    private static final byte[] RECORD_ID_FIELD_BYTES = RECORD_ID_FIELD.getBytes(StandardCharsets.UTF_8);
     private final long queueTime;
     private final String postData;
+    private final byte[] data;
+    private final boolean compressed;
+    private final boolean binary;
+    private String recordId;
 
     public DataEntity(String postData) {
         this.postData = postData;
+        this.data = null;
+        this.compressed = false;
+        this.binary = false;
+        this.queueTime = System.nanoTime();
+    }
+
+    DataEntity(String postData, String recordId) {
+        this(postData);
+        this.recordId = recordId;
+    }
+
+    /**
+     * @param data UTF-8 JSON, or its zstd frame if compressed
+     * @param recordId read from the JSON by the caller, compressed data can not be parsed later
+     */
+    public DataEntity(byte[] data, boolean compressed, String recordId) {
+        this(data, compressed, false, recordId);
+    }
+
+    /**
+     * @param binary true if the data is a {@link MockerCodec} record
+     */
+    public DataEntity(byte[] data, boolean compressed, boolean binary, String recordId) {
+        this.postData = null;
+        this.data = data;
+        this.compressed = compressed;
+        this.binary = binary;
+        this.recordId = recordId;
         this.queueTime = System.nanoTime();
     }
 
@@ -13,7 +57,115 @@ public class DataEntity {
         return queueTime;
     }
 
+    /**
+     * Decoded on every call for entities held as bytes, the send path uses {@link #getBytes()}
+     *
+     * @return null for binary records
+     */
     public String getPostData() {
-        return postData;
+        if (postData != null || data == null || binary) {
+            return postData;
+        }
+        return compressed ? CompressUtil.zstdDecompress(data, StandardCharsets.UTF_8)
+                : new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return UTF-8 JSON or the binary record, decompressed if needed
+     */
+    public byte[] getBytes() {
+        if (data == null) {
+            return postData == null ? CompressUtil.ZERO_BYTE : postData.getBytes(StandardCharsets.UTF_8);
+        }
+        return compressed ? CompressUtil.zstdDecompress(data) : data;
+    }
+
+    /**
+     * @return zstd frame of the data, compressed now if the entity was not
+     */
+    public byte[] getCompressedBytes() {
+        if (compressed) {
+            return data;
+        }
+        return data != null ? CompressUtil.zstdCompress(data) : CompressUtil.zstdCompress(postData, StandardCharsets.UTF_8);
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * @return true if the post data is a JSON array holding all mockers of a case, compressed entities never are
+     */
+    public boolean isCase() {
+        if (data != null) {
+            return !compressed && !binary && data.length > 0 && data[0] == '[';
+        }
+        return postData != null && postData.startsWith("[");
+    }
+
+    /**
+     * Read from the serialized mocker on first use, empty if it has none
+     */
+    public String getRecordId() {
+        if (recordId == null) {
+            if (data == null || compressed) {
+                recordId = parseRecordId(postData);
+            } else {
+                recordId = binary ? MockerCodec.readRecordId(data) : parseRecordId(data);
+            }
+        }
+        return recordId;
+    }
+
+    static String parseRecordId(String postData) {
+        if (postData == null) {
+            return "";
+        }
+        int start = postData.indexOf(RECORD_ID_FIELD);
+        if (start < 0) {
+            return "";
+        }
+        start += RECORD_ID_FIELD.length();
+        int end = postData.indexOf('"', start);
+        return end < 0 ? "" : postData.substring(start, end);
+    }
+
+    /**
+     * Same as {@link #parseRecordId(String)} on UTF-8 JSON, the field name and the id are ASCII
+     */
+    public static String parseRecordId(byte[] data) {
+        if (data == null) {
+            return "";
+        }
+        int start = indexOf(data, RECORD_ID_FIELD_BYTES);
+        if (start < 0) {
+            return "";
+        }
+        start += RECORD_ID_FIELD_BYTES.length;
+        for (int end = start; end < data.length; end++) {
+            if (data[end] == '"') {
+                return new String(data, start, end - start, StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+
+    private static int indexOf(byte[] data, byte[] target) {
+        int last = data.length - target.length;
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (data[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
     }
 }
@@ -0,0 +1,292 @@
+package io.arex.foundation.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of memory-mapped, fixed-size segment files.
+ * Record layout: magic(int) bodyLength(int) operationHash(long) requestHash(long)
+ * recordIdLength(short) recordId categoryLength(short) category body.
+ * The magic is written last, so a torn record at the end of a segment is ignored on recovery.
+ * Single writer, reads may happen from any thread once the record is published.
+ * At most maxSegments segments are kept: rolling over deletes the oldest file, its records can no longer be read.
+ * The mapping itself is not unmapped by force, a reader may still use it, it is released once unreachable.
+ */
+public class MappedSegmentLog implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedSegmentLog.class);
+    static final int MAGIC = 0x41524558;
+    static final int FIXED_HEADER_LENGTH = 28;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    static final int DEFAULT_MAX_SEGMENTS = 16;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private volatile int firstSegment;
+    private Segment current;
+
+    public MappedSegmentLog(Path directory, int segmentSize) {
+        this(directory, segmentSize, DEFAULT_MAX_SEGMENTS);
+    }
+
+    public MappedSegmentLog(Path directory, int segmentSize, int maxSegments) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(maxSegments, 1);
+    }
+
+    /**
+     * Map the newest existing segments and hand every complete record to the consumer, in write order.
+     * Segments beyond maxSegments are deleted without being mapped.
+     */
+    public void open(Consumer<Record> recovered) throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                if (segmentIndex(file) >= 0) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            if (files.size() - i > maxSegments) {
+                delete(file);
+                continue;
+            }
+            Segment segment = Segment.map(segmentIndex(file), file,
+                    (int) Math.min(Files.size(file), Integer.MAX_VALUE));
+            segment.position = recover(segment, recovered);
+            if (current == null) {
+                firstSegment = segment.index;
+            }
+            segments.put(segment.index, segment);
+            current = segment;
+        }
+    }
+
+    /**
+     * @return -1 if the file name is not a segment name
+     */
+    private static int segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static int recover(Segment segment, Consumer<Record> recovered) {
+        ByteBuffer view = segment.buffer.duplicate();
+        int position = 0;
+        while (position + FIXED_HEADER_LENGTH <= view.capacity() && view.getInt(position) == MAGIC) {
+            view.position(position + 4);
+            int bodyLength = view.getInt();
+            long operationHash = view.getLong();
+            long requestHash = view.getLong();
+            String recordId = readString(view);
+            String category = readString(view);
+            if (recordId == null || category == null || bodyLength < 0 || bodyLength > view.remaining()) {
+                LOGGER.warn("[arex] local storage segment {} is corrupted at {}", segment.file, position);
+                break;
+            }
+            recovered.accept(new Record(recordId, category, operationHash, requestHash,
+                    segment.index, view.position(), bodyLength));
+            position = view.position() + bodyLength;
+        }
+        return position;
+    }
+
+    private static String readString(ByteBuffer view) {
+        if (view.remaining() < 2) {
+            return null;
+        }
+        int length = view.getShort() & 0xFFFF;
+        if (length > view.remaining()) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Single-threaded
+     * @return null if the record does not fit in one segment
+     */
+    public Record append(String recordId, String category, long operationHash, long requestHash, byte[] body)
+            throws IOException {
+        byte[] recordIdBytes = recordId.getBytes(StandardCharsets.UTF_8);
+        byte[] categoryBytes = category.getBytes(StandardCharsets.UTF_8);
+        int length = FIXED_HEADER_LENGTH + recordIdBytes.length + categoryBytes.length + body.length;
+        if (length > segmentSize || recordIdBytes.length > 0xFFFF || categoryBytes.length > 0xFFFF) {
+            return null;
+        }
+        if (current == null || current.position + length > current.buffer.capacity()) {
+            roll();
+        }
+
+        int start = current.position;
+        ByteBuffer view = current.buffer.duplicate();
+        view.position(start + 4);
+        view.putInt(body.length)
+                .putLong(operationHash)
+                .putLong(requestHash)
+                .putShort((short) recordIdBytes.length).put(recordIdBytes)
+                .putShort((short) categoryBytes.length).put(categoryBytes);
+        int bodyPosition = view.position();
+        view.put(body);
+        current.buffer.putInt(start, MAGIC);
+        current.position = view.position();
+        return new Record(recordId, category, operationHash, requestHash, current.index, bodyPosition, body.length);
+    }
+
+    private void roll() throws IOException {
+        int index = current == null ? 0 : current.index + 1;
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+        Segment segment = Segment.map(index, file, segmentSize);
+        if (current == null) {
+            firstSegment = index;
+        }
+        segments.put(index, segment);
+        current = segment;
+
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.remove(firstSegment);
+            firstSegment++;
+            if (oldest != null) {
+                delete(oldest.file);
+            }
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("[arex] delete local storage segment {} failed", file, e);
+        }
+    }
+
+    /**
+     * @return null if the segment of the record was dropped
+     */
+    public byte[] read(Record record) {
+        Segment segment = segments.get(record.segment);
+        if (segment == null) {
+            return null;
+        }
+        ByteBuffer view = segment.buffer.duplicate();
+        view.position(record.bodyPosition);
+        byte[] body = new byte[record.bodyLength];
+        view.get(body);
+        return body;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return index of the oldest segment kept, records of older segments were dropped
+     */
+    public int firstSegment() {
+        return firstSegment;
+    }
+
+    /**
+     * Flush the written pages to disk, the mappings stay valid until they are garbage collected.
+     */
+    @Override
+    public void close() {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+    }
+
+    static class Segment {
+        private final int index;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        /**
+         * Next write position, only touched by the writer
+         */
+        private int position;
+
+        private Segment(int index, Path file, MappedByteBuffer buffer) {
+            this.index = index;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        static Segment map(int index, Path file, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(index, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+
+    public static class Record {
+        private final String recordId;
+        private final String category;
+        private final long operationHash;
+        private final long requestHash;
+        private final int segment;
+        private final int bodyPosition;
+        private final int bodyLength;
+
+        Record(String recordId, String category, long operationHash, long requestHash,
+               int segment, int bodyPosition, int bodyLength) {
+            this.recordId = recordId;
+            this.category = category;
+            this.operationHash = operationHash;
+            this.requestHash = requestHash;
+            this.segment = segment;
+            this.bodyPosition = bodyPosition;
+            this.bodyLength = bodyLength;
+        }
+
+        public String getRecordId() {
+            return recordId;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public long getOperationHash() {
+            return operationHash;
+        }
+
+        public long getRequestHash() {
+            return requestHash;
+        }
+
+        public int getSegment() {
+            return segment;
+        }
+    }
+}
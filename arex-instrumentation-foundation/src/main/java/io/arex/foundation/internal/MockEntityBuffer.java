@@ -1,89 +1,174 @@
 package io.arex.foundation.internal;
 
-import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicInteger;
-
-public class MockEntityBuffer {
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Bounded lock-free multi-producer/single-consumer ring buffer.
+ * Producers claim a slot by CAS on the tail sequence, each slot carries its own sequence number
+ * which publishes the entity to the consumer (sequence-claim queue).
+ * The head and tail counters are padded to keep them on separate cache lines.
+ */
+public class MockEntityBuffer extends MockEntityBufferFields {
     private final static int DEFAULT_SIZE = 1024;
-    private DataEntity[] buffer;
-    private int head = 0;
-    private volatile int tail = 0;
-    private int bufferSize;
-    private SpinLock locker = new SpinLock();
+    private final static int MAX_SIZE = 1 << 30;
+    private final DataEntity[] buffer;
+    private final AtomicLongArray sequences;
+    private final int bufferSize;
+    private final int mask;
 
     public MockEntityBuffer(){
         this(DEFAULT_SIZE);
     }
 
+    /**
+     * @param initSize capacity, rounded up to the next power of two
+     */
     public MockEntityBuffer(int initSize){
-        this.bufferSize = initSize;
+        this.bufferSize = roundToPowerOfTwo(initSize);
+        this.mask = bufferSize - 1;
         this.buffer = new DataEntity[bufferSize];
+        this.sequences = new AtomicLongArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            sequences.lazySet(i, i);
+        }
     }
 
-    private boolean empty() {
-        return head == tail;
-    }
-
-    private boolean full() {
-        return (tail + 1) % bufferSize == head;
-    }
-
-    public void clear(){
-        Arrays.fill(buffer,null);
-        this.head = 0;
-        this.tail = 0;
+    static int roundToPowerOfTwo(int size) {
+        if (size <= 1) {
+            return 2;
+        }
+        if (size >= MAX_SIZE) {
+            return MAX_SIZE;
+        }
+        return Integer.highestOneBit(size - 1) << 1;
     }
 
+    /**
+     * Multi-producer
+     * @return false if the buffer is full
+     */
     public boolean put(DataEntity v) {
-        try {
-            locker.lock();
-            if (full()) {
+        long position = tail;
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (TAIL_UPDATER.compareAndSet(this, position, position + 1)) {
+                    break;
+                }
+                position = tail;
+            } else if (difference < 0) {
+                // the slot has not been consumed since the previous lap
                 return false;
+            } else {
+                position = tail;
             }
-
-            buffer[tail] = v;
-            tail = (tail + 1) % bufferSize;
-            return true;
-        } finally {
-            locker.unLock();
         }
+
+        buffer[index] = v;
+        sequences.lazySet(index, position + 1);
+        return true;
     }
 
     /**
      * Single-threaded
      */
     public DataEntity get() {
-        if (empty()) {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
             return null;
         }
 
-        DataEntity result = buffer[head];
-        buffer[head] = null;
-        head = (head + 1) % bufferSize;
+        DataEntity result = buffer[index];
+        buffer[index] = null;
+        sequences.lazySet(index, position + bufferSize);
+        HEAD_UPDATER.lazySet(this, position + 1);
         return result;
     }
 
-    class SpinLock {
-        final AtomicInteger locker = new AtomicInteger(0);
-        long heldThread = 0;
-
-        final void lock() {
-            long currentThread = Thread.currentThread().getId();
-            if (currentThread == heldThread) {
-                return;
+    /**
+     * Single-threaded, move up to limit entities into the target collection
+     * @return the number of entities drained
+     */
+    public int drainTo(Collection<? super DataEntity> target, int limit) {
+        long position = head;
+        int count = 0;
+        while (count < limit) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
             }
-
-            while (!locker.compareAndSet(0, 1)) {}
-            heldThread = currentThread;
+            target.add(buffer[index]);
+            buffer[index] = null;
+            sequences.lazySet(index, position + bufferSize);
+            position++;
+            count++;
+        }
+        if (count > 0) {
+            HEAD_UPDATER.lazySet(this, position);
         }
+        return count;
+    }
 
-        final void unLock() {
-            heldThread = 0;
-            locker.set(0);
+    /**
+     * Single-threaded
+     */
+    public void clear(){
+        while (get() != null) {
+            // discard
         }
     }
 
+    /**
+     * Number of claimed slots, including the ones still being written by producers
+     */
     public int length(){
-        return tail - head;
+        while (true) {
+            long currentHead = head;
+            long currentTail = tail;
+            if (currentHead == head) {
+                return (int) Math.max(0, Math.min(currentTail - currentHead, bufferSize));
+            }
+        }
     }
+
+    public int capacity() {
+        return bufferSize;
+    }
+
+    public int remainingCapacity() {
+        return bufferSize - length();
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+}
+
+abstract class MockEntityBufferPad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class MockEntityBufferTail extends MockEntityBufferPad0 {
+    static final AtomicLongFieldUpdater<MockEntityBufferTail> TAIL_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(MockEntityBufferTail.class, "tail");
+    volatile long tail;
+}
+
+abstract class MockEntityBufferPad1 extends MockEntityBufferTail {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class MockEntityBufferHead extends MockEntityBufferPad1 {
+    static final AtomicLongFieldUpdater<MockEntityBufferHead> HEAD_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(MockEntityBufferHead.class, "head");
+    volatile long head;
+}
+
+abstract class MockEntityBufferFields extends MockEntityBufferHead {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
 }
@@ -0,0 +1,189 @@
+package io.arex.foundation.internal;
+
+import io.arex.agent.bootstrap.util.StringUtil;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded overflow queue on a memory-mapped file, used when the in-memory buffer is full.
+ * Entities are read in FIFO order from a ring: the writer continues at the start of the file once the end
+ * is reached and the head has moved on, a wrap marker tells the reader where to jump back.
+ * When an entity of a case can not be kept anywhere the whole case is evicted:
+ * its entities still queued are skipped and the ones saved later are rejected,
+ * so the storage service never receives an incomplete case from the queues.
+ * Record layout: length(int) flags(byte) recordIdLength(short) recordId data,
+ * data is the UTF-8 post data or binary record, or its zstd frame, compressed entities are kept as they are.
+ * The wrap marker is a length of -1, omitted when less than 4 bytes are left at the end of the file.
+ * Entities without a record id are dropped alone, they never evict a case.
+ */
+public class MockEntitySpillover {
+    private static final int MAX_EVICTED_CASES = 1024;
+    private static final int RECORD_HEADER_LENGTH = 7;
+    private static final int WRAP_MARKER = -1;
+    private static final byte FLAG_COMPRESSED = 1;
+    private static final byte FLAG_BINARY = 2;
+
+    private final MappedByteBuffer buffer;
+    private final Set<String> evictedCases = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<String, Boolean>(64) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_EVICTED_CASES;
+                }
+            }));
+    private volatile boolean anyEvicted;
+    private int readPosition;
+    private int writePosition;
+    private int size;
+
+    public MockEntitySpillover(Path file, int capacity) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    /**
+     * Multi-producer
+     * @return false if the file is full, the case of the entity is evicted
+     */
+    public boolean offer(DataEntity entity) {
+        String recordId = entity.getRecordId();
+        byte[] recordIdBytes = recordId.getBytes(StandardCharsets.UTF_8);
+        byte[] data = entity.isCompressed() ? entity.getCompressedBytes() : entity.getBytes();
+        int length = RECORD_HEADER_LENGTH + recordIdBytes.length + data.length;
+        synchronized (this) {
+            int position = recordIdBytes.length <= Short.MAX_VALUE ? reserve(length) : -1;
+            if (position >= 0) {
+                buffer.position(position);
+                buffer.putInt(length).put(flags(entity))
+                        .putShort((short) recordIdBytes.length).put(recordIdBytes).put(data);
+                writePosition = position + length;
+                size++;
+                return true;
+            }
+        }
+        evict(recordId);
+        return false;
+    }
+
+    /**
+     * @return the write position of a record of this length, -1 if there is no room between tail and head
+     */
+    private int reserve(int length) {
+        if (size == 0) {
+            readPosition = 0;
+            writePosition = 0;
+        }
+        if (size == 0 || writePosition > readPosition) {
+            if (writePosition + length <= buffer.capacity()) {
+                return writePosition;
+            }
+            if (length <= readPosition) {
+                if (buffer.capacity() - writePosition >= 4) {
+                    buffer.putInt(writePosition, WRAP_MARKER);
+                }
+                return 0;
+            }
+            return -1;
+        }
+        // wrapped, the free space ends at the head
+        return writePosition + length <= readPosition ? writePosition : -1;
+    }
+
+    /**
+     * @return null if empty, entities of evicted cases are skipped
+     */
+    public synchronized DataEntity poll() {
+        while (size > 0) {
+            if (buffer.capacity() - readPosition < 4 || buffer.getInt(readPosition) == WRAP_MARKER) {
+                readPosition = 0;
+            }
+            buffer.position(readPosition);
+            int length = buffer.getInt();
+            byte flags = buffer.get();
+            byte[] recordIdBytes = new byte[buffer.getShort()];
+            buffer.get(recordIdBytes);
+            byte[] data = new byte[length - RECORD_HEADER_LENGTH - recordIdBytes.length];
+            buffer.get(data);
+            readPosition += length;
+            if (--size == 0) {
+                readPosition = 0;
+                writePosition = 0;
+            }
+
+            String recordId = new String(recordIdBytes, StandardCharsets.UTF_8);
+            if (!isEvicted(recordId)) {
+                return new DataEntity(data, (flags & FLAG_COMPRESSED) != 0, (flags & FLAG_BINARY) != 0, recordId);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of entities drained
+     */
+    public int drainTo(Collection<? super DataEntity> target, int limit) {
+        int count = 0;
+        DataEntity entity;
+        while (count < limit && (entity = poll()) != null) {
+            target.add(entity);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * An empty record id is ignored, it would reject every later entity without a record id
+     */
+    public void evict(String recordId) {
+        if (StringUtil.isEmpty(recordId)) {
+            return;
+        }
+        evictedCases.add(recordId);
+        anyEvicted = true;
+    }
+
+    public boolean isEvicted(String recordId) {
+        return anyEvicted && evictedCases.contains(recordId);
+    }
+
+    /**
+     * The record id is only read from the entity once some case has been evicted
+     */
+    public boolean isEvicted(DataEntity entity) {
+        return anyEvicted && evictedCases.contains(entity.getRecordId());
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int usedBytes() {
+        if (size == 0) {
+            return 0;
+        }
+        return writePosition > readPosition ? writePosition - readPosition
+                : buffer.capacity() - readPosition + writePosition;
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    private static byte flags(DataEntity entity) {
+        return (byte) ((entity.isCompressed() ? FLAG_COMPRESSED : 0) | (entity.isBinary() ? FLAG_BINARY : 0));
+    }
+}
@@ -54,7 +54,11 @@ public final class JacksonSerializer implements StringSerializable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JacksonSerializer.class);
 
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+    private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+
     private final ObjectMapper MAPPER = new ObjectMapper();
+    private final JacksonTypeCache typeCache = new JacksonTypeCache(MAPPER);
     private final Map<String, List<String>> skipInfoMap = new ConcurrentHashMap<>();
     private static final SimpleModule MODULE = new JacksonSimpleModule();
 
@@ -72,6 +76,25 @@ public final class JacksonSerializer implements StringSerializable {
         customTimeFormatDeserializer(MODULE);
 
         MAPPER.registerModule(MODULE);
+        registerAccessorModule();
+    }
+
+    /**
+     * Bean properties read and written by generated bytecode instead of reflection, if enabled and the module
+     * is on the agent class path: Blackbird on Java 11+, Afterburner before.
+     */
+    private void registerAccessorModule() {
+        Config config = Config.get();
+        if (config == null || !config.getBoolean(ArexConstants.SERIALIZE_ACCESSOR_MODULE_CONFIG_KEY, false)) {
+            return;
+        }
+        String moduleClassName = JdkUtils.isJdk11() ? BLACKBIRD_MODULE : AFTERBURNER_MODULE;
+        try {
+            Class<?> moduleClass = Class.forName(moduleClassName, true, JacksonSerializer.class.getClassLoader());
+            MAPPER.registerModule((com.fasterxml.jackson.databind.Module) moduleClass.getDeclaredConstructor().newInstance());
+        } catch (Throwable ex) {
+            LOGGER.warn("[arex] jackson accessor module {} is not available", moduleClassName);
+        }
     }
 
     private void buildSkipInfoMap() {
@@ -114,20 +137,36 @@ public final class JacksonSerializer implements StringSerializable {
             return null;
         }
         try {
-            return MAPPER.writeValueAsString(object);
+            return typeCache.writer(object.getClass()).writeValueAsString(object);
         } catch (Exception ex) {
             LOGGER.warn("jackson-serialize", ex);
         }
         return null;
     }
 
+    /**
+     * Jackson writes UTF-8 from its own recycled buffers, no intermediate string is built
+     */
+    @Override
+    public byte[] serializeToBytes(Object object) {
+        if (object == null) {
+            return null;
+        }
+        try {
+            return typeCache.writer(object.getClass()).writeValueAsBytes(object);
+        } catch (Exception ex) {
+            LOGGER.warn("jackson-serializeToBytes", ex);
+        }
+        return null;
+    }
+
     @Override
     public <T> T deserialize(String json, Class<T> clazz) {
         if (StringUtil.isEmpty(json) || clazz == null) {
             return null;
         }
         try {
-            return MAPPER.readValue(json, clazz);
+            return typeCache.reader(clazz).readValue(json);
         } catch (Exception ex) {
             LOGGER.warn("jackson-deserialize-clazz", ex);
         }
@@ -140,8 +179,12 @@ public final class JacksonSerializer implements StringSerializable {
             return null;
         }
 
-        JavaType javaType = MAPPER.getTypeFactory().constructType(type);
-        return deserialize(json, javaType);
+        try {
+            return typeCache.reader(type).readValue(json);
+        } catch (Exception ex) {
+            LOGGER.warn("jackson-deserialize-type", ex);
+        }
+        return null;
     }
 
     @Override
@@ -0,0 +1,64 @@
+package io.arex.foundation.serializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.arex.inst.runtime.util.TypeNameCodec;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Readers and writers of a mapper built once per type: the JavaType is resolved and the root (de)serializer
+ * is prefetched when they are created, later calls skip both lookups.
+ * Entries are attached to the owner class of the type ({@link TypeNameCodec#owner}) with {@link ClassValue},
+ * they are collected with its class loader and never keep application classes alive. Types without an owner
+ * (type variables, classes of unrelated loaders) are resolved on every call. A class holds at most {@link #MAX_TYPES_PER_CLASS} generic types.
+ */
+class JacksonTypeCache {
+    static final int MAX_TYPES_PER_CLASS = 32;
+
+    private final ObjectMapper mapper;
+
+    private final ClassValue<ObjectWriter> writers = new ClassValue<ObjectWriter>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return mapper.writerFor(type);
+        }
+    };
+
+    private final ClassValue<Map<Type, ObjectReader>> readers = new ClassValue<Map<Type, ObjectReader>>() {
+        @Override
+        protected Map<Type, ObjectReader> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(4);
+        }
+    };
+
+    JacksonTypeCache(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * @param type runtime class of the value, same root type as {@link ObjectMapper#writeValueAsString(Object)}
+     */
+    ObjectWriter writer(Class<?> type) {
+        return writers.get(type);
+    }
+
+    ObjectReader reader(Type type) {
+        Class<?> owner = TypeNameCodec.owner(type);
+        if (owner == null) {
+            return mapper.readerFor(mapper.getTypeFactory().constructType(type));
+        }
+        Map<Type, ObjectReader> typeReaders = readers.get(owner);
+        ObjectReader reader = typeReaders.get(type);
+        if (reader == null) {
+            reader = mapper.readerFor(mapper.getTypeFactory().constructType(type));
+            if (typeReaders.size() < MAX_TYPES_PER_CLASS) {
+                typeReaders.putIfAbsent(type, reader);
+            }
+        }
+        return reader;
+    }
+}
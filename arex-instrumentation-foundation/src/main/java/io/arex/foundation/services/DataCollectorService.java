@@ -1,22 +1,39 @@
 package io.arex.foundation.services;
 
+import io.arex.agent.bootstrap.model.ArexMocker;
 import io.arex.agent.bootstrap.model.MockStrategyEnum;
 import io.arex.foundation.config.ConfigManager;
 import io.arex.foundation.healthy.HealthManager;
 import io.arex.foundation.internal.DataEntity;
 import io.arex.foundation.internal.MockEntityBuffer;
+import io.arex.foundation.internal.MockEntitySpillover;
 import io.arex.foundation.util.AsyncHttpClientUtil;
+import io.arex.foundation.util.CompressUtil;
 import io.arex.foundation.util.async.ThreadFactoryImpl;
+import io.arex.inst.runtime.serializer.MockerCodec;
+import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.service.DataCollector;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.BiConsumer;
 
 public class DataCollectorService implements DataCollector {
@@ -27,11 +44,25 @@ public class DataCollectorService implements DataCollector {
             TimeUnit.MINUTES, new LinkedBlockingQueue<>(), new ThreadFactoryImpl("data-save-handler"));
 
     private MockEntityBuffer buffer = null;
+    /**
+     * Optional overflow of the buffer, null if disabled
+     */
+    private MockEntitySpillover spillover = null;
     private Future<?> executeFuture = null;
     private final AtomicBoolean initialized = new AtomicBoolean(false);
+    /**
+     * Limits the number of batch requests waiting for the storage service response
+     */
+    private Semaphore inFlightPermits = null;
+    /**
+     * Mockers are encoded by {@link MockerCodec}, turned off for good once the storage service refuses them
+     */
+    private volatile boolean binaryAccepted = false;
 
     private static String queryApiUrl;
+    private static String queryAllApiUrl;
     private static String saveApiUrl;
+    private static String batchSaveApiUrl;
 
     static {
         initServiceHost();
@@ -39,13 +70,76 @@ public class DataCollectorService implements DataCollector {
 
     @Override
     public void save(String mockData) {
+        ZstdDictionaryService.INSTANCE.sample(mockData);
+        DataEntity entity = new DataEntity(mockData);
+        if (isRejected(entity)) {
+            return;
+        }
+        enqueue(entity);
+    }
+
+    /**
+     * Single requests carry the mocker compressed on the calling thread, batches are compressed as a whole
+     * by the sender thread so the UTF-8 bytes are queued as they are.
+     * Binary records are not sampled, the dictionary is trained on JSON.
+     */
+    @Override
+    public void save(byte[] mockData) {
+        boolean binary = MockerCodec.isEncoded(mockData);
+        if (!binary) {
+            ZstdDictionaryService.INSTANCE.sample(mockData);
+        }
+        DataEntity entity = new DataEntity(mockData, false, binary,
+                binary ? MockerCodec.readRecordId(mockData) : DataEntity.parseRecordId(mockData));
+        if (isRejected(entity)) {
+            return;
+        }
+        if (!ConfigManager.INSTANCE.isStorageBatchEnable()) {
+            entity = new DataEntity(CompressUtil.zstdCompress(mockData), true, binary, entity.getRecordId());
+        }
+        enqueue(entity);
+    }
+
+    @Override
+    public boolean isBinaryAccepted() {
+        return binaryAccepted;
+    }
+
+    private boolean isRejected(DataEntity entity) {
         if (HealthManager.isFastRejection()) {
+            if (spillover != null) {
+                spillover.evict(entity.getRecordId());
+            }
+            return true;
+        }
+
+        return spillover != null && spillover.isEvicted(entity);
+    }
+
+    private void enqueue(DataEntity entity) {
+        if (buffer.put(entity) || (spillover != null && spillover.offer(entity))) {
             return;
         }
+        HealthManager.onEnqueueRejection();
+    }
 
-        if (!buffer.put(new DataEntity(mockData))) {
-            HealthManager.onEnqueueRejection();
+    /**
+     * The case is queued as one entity and sent in one request to the batch api, so it is either saved
+     * or rejected as a whole. Without batching the storage service may not serve that api,
+     * the mockers are then saved one by one.
+     */
+    @Override
+    public void saveCase(List<String> mockDataList) {
+        if (mockDataList.isEmpty()) {
+            return;
         }
+        if (!ConfigManager.INSTANCE.isStorageBatchEnable()) {
+            for (String mockData : mockDataList) {
+                save(mockData);
+            }
+            return;
+        }
+        save(joinMockData(mockDataList));
     }
 
     @Override
@@ -53,6 +147,21 @@ public class DataCollectorService implements DataCollector {
         return queryReplayData(postData, mockStrategy);
     }
 
+    @Override
+    public CompletableFuture<String> queryAsync(String postData, MockStrategyEnum mockStrategy) {
+        return AsyncHttpClientUtil.executeAsync(queryApiUrl, postData, mockStrategy);
+    }
+
+    @Override
+    public String queryAll(String postData) {
+        return queryAllAsync(postData).join();
+    }
+
+    @Override
+    public CompletableFuture<String> queryAllAsync(String postData) {
+        return AsyncHttpClientUtil.executeAsync(queryAllApiUrl, postData);
+    }
+
     @Override
     public void start() {
         if (initialized.compareAndSet(false, true)) {
@@ -69,16 +178,39 @@ public class DataCollectorService implements DataCollector {
             buffer = new MockEntityBuffer(1024);
         }
 
+        if (spillover == null && ConfigManager.INSTANCE.isStorageSpillEnable()) {
+            spillover = createSpillover();
+        }
+
+        if (inFlightPermits == null) {
+            inFlightPermits = new Semaphore(ConfigManager.INSTANCE.getStorageBatchInFlight());
+        }
+
+        binaryAccepted = ConfigManager.INSTANCE.isStorageBinaryEnable();
+
         if (executeFuture == null) {
             executeFuture = executor.submit(this::loop);
         }
     }
 
+    private static MockEntitySpillover createSpillover() {
+        // one file per process, the name of the runtime bean is pid@host
+        String processName = ManagementFactory.getRuntimeMXBean().getName();
+        String fileName = "spill-" + processName.replaceAll("[^0-9A-Za-z.-]", "_") + ".dat";
+        try {
+            return new MockEntitySpillover(Paths.get(ConfigManager.INSTANCE.getStorageSpillPath(), fileName),
+                    ConfigManager.INSTANCE.getStorageSpillSize());
+        } catch (Throwable e) {
+            LOGGER.warn("[arex] create spill file failed, overflowed mockers will be dropped", e);
+            return null;
+        }
+    }
+
     private void loop() {
         while (true) {
             try {
-                DataEntity entity = buffer.get();
-                if (entity == null) {
+                boolean sent = ConfigManager.INSTANCE.isStorageBatchEnable() ? sendBatch() : sendSingle();
+                if (!sent) {
                     if (!initialized.get()) {
                         break;
                     }
@@ -86,8 +218,6 @@ public class DataCollectorService implements DataCollector {
                     doSleep(1000);
                     continue;
                 }
-                HealthManager.reportUsedTime(System.nanoTime() - entity.getQueueTime(), true);
-                saveData(entity);
                 if (HealthManager.isFastRejection()) {
                     doSleep(100);
                 }
@@ -97,6 +227,62 @@ public class DataCollectorService implements DataCollector {
         }
     }
 
+    private boolean sendSingle() {
+        DataEntity entity = buffer.get();
+        if (entity == null && spillover != null) {
+            entity = spillover.poll();
+        }
+        if (entity == null) {
+            return false;
+        }
+        if (spillover != null && spillover.isEvicted(entity)) {
+            return true;
+        }
+        HealthManager.reportUsedTime(System.nanoTime() - entity.getQueueTime(), true);
+        saveData(entity);
+        return true;
+    }
+
+    private boolean sendBatch() {
+        List<DataEntity> batch = drainBatch(ConfigManager.INSTANCE.getStorageBatchSize(),
+                TimeUnit.MILLISECONDS.toNanos(ConfigManager.INSTANCE.getStorageBatchLingerMillis()));
+        if (batch.isEmpty()) {
+            return false;
+        }
+        if (spillover != null && batch.removeIf(spillover::isEvicted) && batch.isEmpty()) {
+            return true;
+        }
+        for (DataEntity entity : batch) {
+            HealthManager.reportUsedTime(System.nanoTime() - entity.getQueueTime(), true);
+        }
+        saveBatchData(batch);
+        return true;
+    }
+
+    /**
+     * Take up to maxSize entities, waiting at most lingerNanos after the first one for the batch to fill up.
+     * The spillover is drained once the buffer is empty.
+     */
+    List<DataEntity> drainBatch(int maxSize, long lingerNanos) {
+        List<DataEntity> batch = new ArrayList<>(Math.min(maxSize, 64));
+        long deadline = 0;
+        while (batch.size() < maxSize) {
+            boolean first = batch.isEmpty();
+            if (buffer.drainTo(batch, maxSize - batch.size()) > 0
+                    || (spillover != null && spillover.drainTo(batch, maxSize - batch.size()) > 0)) {
+                if (first) {
+                    deadline = System.nanoTime() + lingerNanos;
+                }
+                continue;
+            }
+            if (batch.isEmpty() || System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return batch;
+    }
+
     static void doSleep(long millis) {
         try {
             Thread.sleep(millis);
@@ -106,7 +292,173 @@ public class DataCollectorService implements DataCollector {
     }
 
     void saveData(DataEntity entity) {
-        AsyncHttpClientUtil.executeAsync(saveApiUrl, entity.getPostData()).whenComplete(saveMockDataConsumer(entity));
+        if (entity.isBinary()) {
+            AsyncHttpClientUtil.executeAsync(saveApiUrl, entity.getCompressedBytes(), MockerCodec.CONTENT_TYPE,
+                            MockStrategyEnum.FIND_LAST)
+                    .whenComplete(fallbackOnUnsupported(Collections.singletonList(entity), saveMockDataConsumer(entity)));
+            return;
+        }
+        String url = entity.isCase() ? batchSaveApiUrl : saveApiUrl;
+        AsyncHttpClientUtil.executeAsync(url, entity.getCompressedBytes(), MockStrategyEnum.FIND_LAST)
+                .whenComplete(saveMockDataConsumer(entity));
+    }
+
+    /**
+     * Send the batch as one zstd frame holding a JSON array of mockers, binary records are sent apart
+     * as one frame of their concatenation.
+     */
+    void saveBatchData(List<DataEntity> batch) {
+        int binaryCount = 0;
+        for (DataEntity entity : batch) {
+            if (entity.isBinary()) {
+                binaryCount++;
+            }
+        }
+        if (binaryCount == 0 || binaryCount == batch.size()) {
+            postBatch(batch, binaryCount > 0);
+            return;
+        }
+        List<DataEntity> jsonBatch = new ArrayList<>(batch.size() - binaryCount);
+        List<DataEntity> binaryBatch = new ArrayList<>(binaryCount);
+        for (DataEntity entity : batch) {
+            (entity.isBinary() ? binaryBatch : jsonBatch).add(entity);
+        }
+        postBatch(jsonBatch, false);
+        postBatch(binaryBatch, true);
+    }
+
+    /**
+     * Blocks the sender thread while the maximum number of batches are in flight.
+     */
+    private void postBatch(List<DataEntity> batch, boolean binary) {
+        try {
+            inFlightPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        BiConsumer<String, Throwable> consumer = binary ?
+                fallbackOnUnsupported(batch, saveMockDataConsumer(batch)) : saveMockDataConsumer(batch);
+        try {
+            CompletableFuture<String> future = binary ?
+                    AsyncHttpClientUtil.executeAsync(batchSaveApiUrl, CompressUtil.zstdCompress(joinBinaryBatch(batch)),
+                            MockerCodec.CONTENT_TYPE, MockStrategyEnum.FIND_LAST) :
+                    AsyncHttpClientUtil.executeAsync(batchSaveApiUrl, CompressUtil.zstdCompress(joinBatch(batch)),
+                            MockStrategyEnum.FIND_LAST);
+            future.whenComplete((response, throwable) -> {
+                inFlightPermits.release();
+                consumer.accept(response, throwable);
+            });
+        } catch (Throwable throwable) {
+            inFlightPermits.release();
+            throw throwable;
+        }
+    }
+
+    /**
+     * Join into one UTF-8 JSON array, cases are already arrays and their mockers are inlined
+     */
+    static byte[] joinBatch(List<DataEntity> batch) {
+        byte[][] dataList = new byte[batch.size()][];
+        int length = 2 + batch.size();
+        for (int i = 0; i < dataList.length; i++) {
+            dataList[i] = batch.get(i).getBytes();
+            length += dataList[i].length;
+        }
+        byte[] joined = new byte[length];
+        int position = 0;
+        joined[position++] = '[';
+        for (int i = 0; i < dataList.length; i++) {
+            byte[] data = dataList[i];
+            int start = 0;
+            int end = data.length;
+            if (batch.get(i).isCase()) {
+                start = 1;
+                end--;
+                if (start >= end) {
+                    continue;
+                }
+            }
+            if (position > 1) {
+                joined[position++] = ',';
+            }
+            System.arraycopy(data, start, joined, position, end - start);
+            position += end - start;
+        }
+        joined[position++] = ']';
+        return position == length ? joined : Arrays.copyOf(joined, position);
+    }
+
+    static byte[] joinBinaryBatch(List<DataEntity> batch) {
+        byte[][] dataList = new byte[batch.size()][];
+        int length = 0;
+        for (int i = 0; i < dataList.length; i++) {
+            dataList[i] = batch.get(i).getBytes();
+            length += dataList[i].length;
+        }
+        byte[] joined = new byte[length];
+        int position = 0;
+        for (byte[] data : dataList) {
+            System.arraycopy(data, 0, joined, position, data.length);
+            position += data.length;
+        }
+        return joined;
+    }
+
+    /**
+     * Binary records refused by the storage service are saved again as JSON, later mockers are encoded as JSON
+     */
+    private BiConsumer<String, Throwable> fallbackOnUnsupported(List<DataEntity> entities,
+            BiConsumer<String, Throwable> consumer) {
+        return (response, throwable) -> {
+            if (!isUnsupported(throwable)) {
+                consumer.accept(response, throwable);
+                return;
+            }
+            if (binaryAccepted) {
+                binaryAccepted = false;
+                LOGGER.warn("[arex] storage service does not accept {}, mockers are sent as JSON",
+                        MockerCodec.CONTENT_TYPE);
+            }
+            for (DataEntity entity : entities) {
+                resaveAsJson(entity);
+            }
+        };
+    }
+
+    static boolean isUnsupported(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        return cause instanceof HttpResponseException
+                && ((HttpResponseException) cause).getStatusCode() == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE;
+    }
+
+    void resaveAsJson(DataEntity entity) {
+        try {
+            for (ArexMocker mocker : MockerCodec.decodeAll(entity.getBytes())) {
+                byte[] json = Serializer.serializeToBytes(mocker);
+                if (json != null) {
+                    save(json);
+                }
+            }
+        } catch (Throwable e) {
+            LOGGER.warn("[arex] resave binary mocker as JSON failed, record id: {}", entity.getRecordId(), e);
+        }
+    }
+
+    static String joinMockData(List<String> mockDataList) {
+        int length = 2 + mockDataList.size();
+        for (String mockData : mockDataList) {
+            length += mockData.length();
+        }
+        StringBuilder builder = new StringBuilder(length).append('[');
+        for (int i = 0; i < mockDataList.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(mockDataList.get(i));
+        }
+        return builder.append(']').toString();
     }
 
     /**
@@ -116,14 +468,24 @@ public class DataCollectorService implements DataCollector {
         return AsyncHttpClientUtil.zstdJsonPost(queryApiUrl, postData, mockStrategy);
     }
 
-    private <T> BiConsumer<T, Throwable> saveMockDataConsumer(DataEntity entity) {
+    private static <T> BiConsumer<T, Throwable> saveMockDataConsumer(DataEntity entity) {
+        return saveMockDataConsumer(Collections.singletonList(entity));
+    }
+
+    /**
+     * The used time of every entity of a batch is reported, from its own queue time, as if saved one by one
+     */
+    static <T> BiConsumer<T, Throwable> saveMockDataConsumer(List<DataEntity> entities) {
         return (response, throwable) -> {
-            long usedTime = System.nanoTime() - entity.getQueueTime();
-            if (Objects.nonNull(throwable)) {
-                usedTime = -1; // -1:reject
+            boolean rejected = Objects.nonNull(throwable);
+            if (rejected) {
                 HealthManager.onDataServiceRejection();
             }
-            HealthManager.reportUsedTime(usedTime, false);
+            long now = System.nanoTime();
+            for (DataEntity entity : entities) {
+                // -1:reject
+                HealthManager.reportUsedTime(rejected ? -1 : now - entity.getQueueTime(), false);
+            }
         };
     }
 
@@ -131,6 +493,8 @@ public class DataCollectorService implements DataCollector {
         String storeServiceHost = ConfigManager.INSTANCE.getStorageServiceHost();
 
         queryApiUrl = String.format("http://%s/api/storage/record/query", storeServiceHost);
+        queryAllApiUrl = String.format("http://%s/api/storage/record/queryMockers", storeServiceHost);
         saveApiUrl = String.format("http://%s/api/storage/record/save", storeServiceHost);
+        batchSaveApiUrl = String.format("http://%s/api/storage/record/batchSave", storeServiceHost);
     }
 }
@@ -0,0 +1,223 @@
+package io.arex.foundation.services;
+
+import io.arex.agent.bootstrap.model.ArexMocker;
+import io.arex.agent.bootstrap.model.MockStrategyEnum;
+import io.arex.agent.bootstrap.util.HashUtil;
+import io.arex.agent.bootstrap.util.StringUtil;
+import io.arex.foundation.config.ConfigManager;
+import io.arex.foundation.healthy.HealthManager;
+import io.arex.foundation.internal.DataEntity;
+import io.arex.foundation.internal.MappedSegmentLog;
+import io.arex.foundation.internal.MockEntityBuffer;
+import io.arex.foundation.util.CompressUtil;
+import io.arex.foundation.util.async.ThreadFactoryImpl;
+import io.arex.inst.runtime.serializer.Serializer;
+import io.arex.inst.runtime.service.DataCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Record to local segment files and replay from them without a storage service,
+ * used when arex.storage.mode=local and no DataCollector extension is found.
+ * Mockers are written by a single background thread, replay results are not kept.
+ * Cases of deleted segments are removed from the index.
+ */
+public class LocalStorageService implements DataCollector {
+    public static final LocalStorageService INSTANCE = new LocalStorageService();
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalStorageService.class);
+    private static final int WRITE_BATCH_SIZE = 64;
+    private static final int MAX_REPLAY_SEQUENCE_SIZE = 4096;
+
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 15,
+            TimeUnit.MINUTES, new LinkedBlockingQueue<>(), new ThreadFactoryImpl("data-local-writer"));
+
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final Map<String, List<MappedSegmentLog.Record>> recordIndex = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> replaySequences = Collections.synchronizedMap(
+            new LinkedHashMap<String, AtomicInteger>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AtomicInteger> eldest) {
+                    return size() > MAX_REPLAY_SEQUENCE_SIZE;
+                }
+            });
+    private MockEntityBuffer buffer = null;
+    private MappedSegmentLog segmentLog = null;
+    private int indexedFirstSegment;
+
+    @Override
+    public void start() {
+        if (initialized.compareAndSet(false, true)) {
+            init(new MappedSegmentLog(Paths.get(ConfigManager.INSTANCE.getStorageLocalPath()),
+                    ConfigManager.INSTANCE.getStorageLocalSegmentSize(),
+                    ConfigManager.INSTANCE.getStorageLocalMaxSegments()));
+        }
+    }
+
+    void init(MappedSegmentLog log) {
+        try {
+            log.open(this::index);
+        } catch (Throwable e) {
+            LOGGER.warn("[arex] open local storage failed", e);
+            return;
+        }
+        segmentLog = log;
+        indexedFirstSegment = log.firstSegment();
+        buffer = new MockEntityBuffer(1024);
+        executor.submit(this::loop);
+        LOGGER.info("[arex] local storage opened, segments: {}, cases: {}", log.segmentCount(), recordIndex.size());
+    }
+
+    @Override
+    public void save(String mockData) {
+        if (buffer == null) {
+            return;
+        }
+        if (!buffer.put(new DataEntity(mockData))) {
+            HealthManager.onEnqueueRejection();
+        }
+    }
+
+    private void loop() {
+        List<DataEntity> batch = new ArrayList<>(WRITE_BATCH_SIZE);
+        while (true) {
+            try {
+                if (buffer.drainTo(batch, WRITE_BATCH_SIZE) == 0) {
+                    DataCollectorService.doSleep(100);
+                    continue;
+                }
+                for (DataEntity entity : batch) {
+                    write(entity.getPostData());
+                }
+            } catch (Throwable throwable) {
+                LOGGER.warn("Write local mock data unhandled error:{}", throwable.getMessage(), throwable);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void write(String mockData) throws Exception {
+        ArexMocker mocker = Serializer.deserialize(mockData, ArexMocker.class);
+        if (mocker == null || StringUtil.isEmpty(mocker.getRecordId()) || mocker.getCategoryType() == null
+                || StringUtil.isNotEmpty(mocker.getReplayId())) {
+            return;
+        }
+        MappedSegmentLog.Record record = segmentLog.append(mocker.getRecordId(), mocker.getCategoryType().getName(),
+                HashUtil.fnv64(mocker.getOperationName()), requestHash(mocker),
+                CompressUtil.zstdCompress(mockData, StandardCharsets.UTF_8));
+        if (record == null) {
+            LOGGER.warn("[arex] mocker is larger than the local storage segment, record id: {}", mocker.getRecordId());
+            return;
+        }
+        index(record);
+        if (segmentLog.firstSegment() != indexedFirstSegment) {
+            indexedFirstSegment = segmentLog.firstSegment();
+            removeDropped(indexedFirstSegment);
+        }
+    }
+
+    private void removeDropped(int firstSegment) {
+        recordIndex.values().forEach(records -> records.removeIf(record -> record.getSegment() < firstSegment));
+        recordIndex.values().removeIf(List::isEmpty);
+    }
+
+    private void index(MappedSegmentLog.Record record) {
+        recordIndex.computeIfAbsent(record.getRecordId(), k -> new CopyOnWriteArrayList<>()).add(record);
+    }
+
+    /**
+     * Match by category, operation and request, then by category and operation unless STRICT_MATCH.
+     * Matches are consumed in recording order per replay, like the storage service does.
+     */
+    @Override
+    public String query(String postData, MockStrategyEnum mockStrategy) {
+        ArexMocker requestMocker = Serializer.deserialize(postData, ArexMocker.class);
+        if (requestMocker == null || requestMocker.getCategoryType() == null) {
+            return null;
+        }
+        List<MappedSegmentLog.Record> records = recordIndex.get(requestMocker.getRecordId());
+        if (records == null) {
+            return null;
+        }
+
+        String category = requestMocker.getCategoryType().getName();
+        long operationHash = HashUtil.fnv64(requestMocker.getOperationName());
+        long requestHash = requestHash(requestMocker);
+        List<MappedSegmentLog.Record> matched = match(records, category, operationHash, requestHash, true);
+        boolean exact = !matched.isEmpty();
+        if (!exact && mockStrategy != MockStrategyEnum.STRICT_MATCH) {
+            matched = match(records, category, operationHash, requestHash, false);
+        }
+        if (matched.isEmpty()) {
+            return null;
+        }
+
+        String sequenceKey = requestMocker.getReplayId() + '\n' + category + '\n' + operationHash +
+                (exact ? "\n" + requestHash : "");
+        int index = replaySequences.computeIfAbsent(sequenceKey, k -> new AtomicInteger()).getAndIncrement();
+        if (index >= matched.size()) {
+            if (mockStrategy != MockStrategyEnum.FIND_LAST) {
+                return null;
+            }
+            index = matched.size() - 1;
+        }
+        return read(matched.get(index));
+    }
+
+    private static List<MappedSegmentLog.Record> match(List<MappedSegmentLog.Record> records, String category,
+                                                       long operationHash, long requestHash, boolean matchRequest) {
+        List<MappedSegmentLog.Record> matched = new ArrayList<>();
+        for (MappedSegmentLog.Record record : records) {
+            if (record.getOperationHash() == operationHash && record.getCategory().equals(category)
+                    && (!matchRequest || record.getRequestHash() == requestHash)) {
+                matched.add(record);
+            }
+        }
+        return matched;
+    }
+
+    @Override
+    public String queryAll(String postData) {
+        ArexMocker requestMocker = Serializer.deserialize(postData, ArexMocker.class);
+        List<MappedSegmentLog.Record> records = requestMocker == null ? null : recordIndex.get(requestMocker.getRecordId());
+        if (records == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder().append('[');
+        for (MappedSegmentLog.Record record : records) {
+            String mockData = read(record);
+            if (mockData == null) {
+                continue;
+            }
+            if (builder.length() > 1) {
+                builder.append(',');
+            }
+            builder.append(mockData);
+        }
+        return builder.append(']').toString();
+    }
+
+    private String read(MappedSegmentLog.Record record) {
+        byte[] body = segmentLog.read(record);
+        return body == null ? null : CompressUtil.zstdDecompress(body, StandardCharsets.UTF_8);
+    }
+
+    private static long requestHash(ArexMocker mocker) {
+        return HashUtil.fnv64(mocker.getTargetRequest() == null ? null : mocker.getTargetRequest().getBody());
+    }
+}
@@ -0,0 +1,172 @@
+package io.arex.foundation.services;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictTrainer;
+import io.arex.foundation.config.ConfigManager;
+import io.arex.foundation.config.ConfigQueryResponse.ResponseStatusType;
+import io.arex.foundation.util.AsyncHttpClientUtil;
+import io.arex.foundation.util.CompressUtil;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.ByteArrayEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Train a zstd dictionary on sampled mockers and use it once the storage service has accepted it.
+ * Small mockers share field names, type names and header names, which compress poorly one by one.
+ */
+public class ZstdDictionaryService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZstdDictionaryService.class);
+    public static final ZstdDictionaryService INSTANCE = new ZstdDictionaryService();
+
+    static final int SAMPLE_INTERVAL = 16;
+    static final int MAX_SAMPLE_LENGTH = 16 * 1024;
+    static final int SAMPLE_COUNT = 2000;
+    private static final int SAMPLE_BUFFER_SIZE = 4 << 20;
+    private static final int DICTIONARY_SIZE = 64 * 1024;
+    private static final int MAX_UPLOAD_RETRY = 3;
+    private static final String APP_ID = "X-AREX-App-Id";
+    private static final int SUCCESS_CODE = 0;
+
+    private final AtomicLong counter = new AtomicLong();
+    private final AtomicInteger sampleCount = new AtomicInteger();
+    private final AtomicBoolean training = new AtomicBoolean(false);
+    private ZstdDictTrainer trainer;
+    private volatile boolean finished;
+    private int uploadRetry;
+
+    ZstdDictionaryService() {
+    }
+
+    /**
+     * Called for every saved mocker, keeps one out of SAMPLE_INTERVAL small mockers until there are enough samples.
+     */
+    public void sample(String mockData) {
+        if (isSampled(mockData.length())) {
+            addSample(mockData.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Same as {@link #sample(String)} for mockers serialized to UTF-8 bytes
+     */
+    public void sample(byte[] mockData) {
+        if (isSampled(mockData.length)) {
+            addSample(mockData);
+        }
+    }
+
+    private boolean isSampled(int length) {
+        return !finished && ConfigManager.INSTANCE.isCompressDictionaryEnable()
+                && counter.incrementAndGet() % SAMPLE_INTERVAL == 0 && length <= MAX_SAMPLE_LENGTH;
+    }
+
+    private void addSample(byte[] sample) {
+        ZstdDictTrainer currentTrainer = trainer();
+        if (currentTrainer == null) {
+            return;
+        }
+
+        boolean added = currentTrainer.addSample(sample);
+        if ((!added || sampleCount.incrementAndGet() >= SAMPLE_COUNT) && training.compareAndSet(false, true)) {
+            TimerService.schedule(this::train, 0, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * The sample buffer is only allocated once sampling starts
+     */
+    private synchronized ZstdDictTrainer trainer() {
+        if (trainer == null && !finished) {
+            trainer = new ZstdDictTrainer(SAMPLE_BUFFER_SIZE, DICTIONARY_SIZE);
+        }
+        return trainer;
+    }
+
+    void train() {
+        ZstdDictTrainer currentTrainer;
+        synchronized (this) {
+            currentTrainer = trainer;
+            trainer = null;
+            finished = true;
+        }
+        if (currentTrainer == null) {
+            return;
+        }
+        try {
+            byte[] dictionary = currentTrainer.trainSamples();
+            LOGGER.info("[arex] zstd dictionary trained, id: {}, size: {}",
+                    Zstd.getDictIdFromDict(dictionary), dictionary.length);
+            upload(dictionary);
+        } catch (Throwable e) {
+            LOGGER.warn("[arex] zstd dictionary training failed", e);
+        }
+    }
+
+    /**
+     * The dictionary is only used after the storage service accepted it, it needs it to read the mockers
+     */
+    void upload(byte[] dictionary) {
+        Map<String, String> requestHeaders = new HashMap<>();
+        requestHeaders.put(HttpHeaders.CONTENT_TYPE, "application/octet-stream");
+        requestHeaders.put(AsyncHttpClientUtil.ZSTD_DICTIONARY_ID, Long.toString(Zstd.getDictIdFromDict(dictionary)));
+        requestHeaders.put(APP_ID, ConfigManager.INSTANCE.getServiceName());
+
+        AsyncHttpClientUtil.executeAsync(dictionaryApiUrl(), new ByteArrayEntity(dictionary), requestHeaders)
+                .whenComplete((response, throwable) -> {
+                    if (throwable == null && isAccepted(response)) {
+                        CompressUtil.setDictionary(dictionary);
+                        LOGGER.info("[arex] zstd dictionary in use, id: {}", CompressUtil.getDictionaryId());
+                        return;
+                    }
+                    if (++uploadRetry < MAX_UPLOAD_RETRY) {
+                        TimerService.schedule(() -> upload(dictionary), 5, TimeUnit.MINUTES);
+                    } else {
+                        LOGGER.warn("[arex] zstd dictionary is not accepted by the storage service, compress without it");
+                    }
+                });
+    }
+
+    /**
+     * Only an explicit success, an empty body or an error page does not mean the dictionary is stored
+     */
+    static boolean isAccepted(String response) {
+        UploadResponse uploadResponse = ConfigService.INSTANCE.deserialize(response, UploadResponse.class);
+        if (uploadResponse == null || uploadResponse.getResponseStatusType() == null) {
+            LOGGER.warn("[arex] zstd dictionary upload, unexpected response: {}", response);
+            return false;
+        }
+        ResponseStatusType status = uploadResponse.getResponseStatusType();
+        if (status.getResponseCode() != SUCCESS_CODE) {
+            LOGGER.warn("[arex] zstd dictionary upload rejected, code: {}, desc: {}",
+                    status.getResponseCode(), status.getResponseDesc());
+            return false;
+        }
+        return true;
+    }
+
+    private static String dictionaryApiUrl() {
+        return String.format("http://%s/api/storage/record/dictionary/save",
+                ConfigManager.INSTANCE.getStorageServiceHost());
+    }
+
+    static class UploadResponse {
+        private ResponseStatusType responseStatusType;
+
+        public ResponseStatusType getResponseStatusType() {
+            return responseStatusType;
+        }
+
+        public void setResponseStatusType(ResponseStatusType responseStatusType) {
+            this.responseStatusType = responseStatusType;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import io.arex.agent.bootstrap.model.MockStrategyEnum;
 import io.arex.foundation.config.ConfigManager;
 import io.arex.foundation.util.async.AutoCleanedPoolingNHttpClientConnectionManager;
 import io.arex.foundation.util.async.ThreadFactoryImpl;
+import io.arex.inst.runtime.serializer.MockerCodec;
 import io.arex.inst.runtime.util.LogUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
@@ -11,6 +12,7 @@ import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.concurrent.FutureCallback;
@@ -37,6 +39,10 @@ import java.util.function.Function;
  */
 public class AsyncHttpClientUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(AsyncHttpClientUtil.class);
+    /**
+     * Id of the zstd dictionary a request or a response is compressed with
+     */
+    public static final String ZSTD_DICTIONARY_ID = "X-AREX-Zstd-Dictionary-Id";
     private static final String USER_AGENT = String.format("arex-async-http-client-%s", ConfigManager.INSTANCE.getAgentVersion());
 
     private static CloseableHttpAsyncClient asyncClient;
@@ -68,11 +74,34 @@ public class AsyncHttpClientUtil {
     }
 
     public static CompletableFuture<String> executeAsync(String urlAddress, String postData, MockStrategyEnum mockStrategy) {
+        return executeAsync(urlAddress, CompressUtil.zstdCompress(postData, StandardCharsets.UTF_8), mockStrategy);
+    }
+
+    /**
+     * @param compressed zstd frame of the JSON post data
+     */
+    public static CompletableFuture<String> executeAsync(String urlAddress, byte[] compressed, MockStrategyEnum mockStrategy) {
+        return executeAsync(urlAddress, compressed, ClientConfig.STORAGE_CONTENT_TYPE, mockStrategy);
+    }
+
+    /**
+     * @param compressed zstd frame of the post data
+     * @param contentType of the data in the frame, a request the storage service does not support
+     * completes with {@link HttpResponseException} unless it is the JSON one
+     */
+    public static CompletableFuture<String> executeAsync(String urlAddress, byte[] compressed, String contentType,
+            MockStrategyEnum mockStrategy) {
         Map<String, String> requestHeaders = new HashMap<>();
-        requestHeaders.put(HttpHeaders.CONTENT_TYPE, ClientConfig.STORAGE_CONTENT_TYPE);
+        requestHeaders.put(HttpHeaders.CONTENT_TYPE, contentType);
         requestHeaders.put(ClientConfig.MOCK_STRATEGY, mockStrategy.getCode());
 
-        HttpEntity httpEntity = new ByteArrayEntity(CompressUtil.zstdCompress(postData, StandardCharsets.UTF_8));
+        // the storage service may compress the response with the dictionary the agent holds
+        long dictionaryId = Math.max(CompressUtil.getDictionaryId(compressed), CompressUtil.getDictionaryId());
+        if (dictionaryId != 0) {
+            requestHeaders.put(ZSTD_DICTIONARY_ID, Long.toString(dictionaryId));
+        }
+
+        HttpEntity httpEntity = new ByteArrayEntity(compressed);
         return executeAsync(urlAddress, httpEntity, requestHeaders);
     }
 
@@ -102,13 +131,15 @@ public class AsyncHttpClientUtil {
 
         Function<byte[], String> bytesParser;
 
-        if (ClientConfig.STORAGE_CONTENT_TYPE.equals(httpPost.getFirstHeader(HttpHeaders.CONTENT_TYPE).getValue())) {
+        String contentType = httpPost.getFirstHeader(HttpHeaders.CONTENT_TYPE).getValue();
+        if (ClientConfig.STORAGE_CONTENT_TYPE.equals(contentType) || MockerCodec.CONTENT_TYPE.equals(contentType)) {
             bytesParser = bytes -> CompressUtil.zstdDecompress(bytes, StandardCharsets.UTF_8);
         } else {
             bytesParser = bytes -> new String(bytes, StandardCharsets.UTF_8);
         }
 
-        asyncClient.execute(httpPost, new ResponseCallback(resultFuture, bytesParser));
+        asyncClient.execute(httpPost, new ResponseCallback(resultFuture, bytesParser,
+                MockerCodec.CONTENT_TYPE.equals(contentType)));
 
         return resultFuture;
     }
@@ -171,15 +202,29 @@ public class AsyncHttpClientUtil {
         private final CompletableFuture<Map<String, String>> responseFuture;
         private final Map<String, String> contextMap;
         private final Function<byte[],String> byteParser;
-        public ResponseCallback(CompletableFuture<Map<String, String>> responseFuture, Function<byte[], String> bytesParser) {
+        /**
+         * The format of the request is negotiated, the sender falls back when it is not supported
+         */
+        private final boolean negotiated;
+
+        public ResponseCallback(CompletableFuture<Map<String, String>> responseFuture, Function<byte[], String> bytesParser,
+                boolean negotiated) {
             this.responseFuture = responseFuture;
             this.byteParser = bytesParser;
+            this.negotiated = negotiated;
             this.contextMap = MDC.getCopyOfContextMap();
         }
 
         @Override
         public void completed(HttpResponse response) {
             LogUtil.setContextMap(contextMap);
+            if (negotiated && response.getStatusLine() != null
+                    && response.getStatusLine().getStatusCode() == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE) {
+                responseFuture.completeExceptionally(new HttpResponseException(HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE,
+                        response.getStatusLine().getReasonPhrase()));
+                close(response);
+                return;
+            }
             String responseContent = null;
             Map<String, String> responseMap = new HashMap<>();
             if (response.getStatusLine() != null && response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
@@ -1,16 +1,30 @@
 package io.arex.foundation.util;
 
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
 import com.github.luben.zstd.ZstdInputStream;
 import com.github.luben.zstd.ZstdOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
 import java.nio.charset.Charset;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 /**
  * Compress/decompress util
- *
+ * Native zstd contexts and their direct buffers are pooled instead of being allocated per call,
+ * an optional dictionary is used for compression once it is set.
  *
  * @date 2021/11/09
  */
@@ -18,9 +32,37 @@ public class CompressUtil {
     public static final int BYTES_BUFFER_LENGTH = 1024;
     public static final byte[] ZERO_BYTE = new byte[0];
     private static final Logger LOGGER = LoggerFactory.getLogger(CompressUtil.class);
+    /**
+     * Same level as ZstdOutputStream
+     */
+    static final int DEFAULT_LEVEL = 3;
+    /**
+     * Larger direct buffers are not kept by the pooled codecs, bigger payloads go through heap arrays
+     */
+    static final int MAX_RETAINED_BUFFER_SIZE = 1 << 20;
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    /**
+     * Independent of the core count: at most POOL_SIZE * 2 * MAX_RETAINED_BUFFER_SIZE bytes stay off heap,
+     * codecs over the pool size are closed after use
+     */
+    static final int POOL_SIZE = 4;
+    private static final BlockingQueue<ZstdCodec> CODEC_POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+    private static volatile ZstdDictionary dictionary;
 
     public static byte[] zstdCompress(String original, Charset charsetName) {
-        return zstdCompress(original.getBytes(charsetName));
+        if (original == null || original.isEmpty()) {
+            return ZERO_BYTE;
+        }
+
+        ZstdCodec codec = borrow();
+        try {
+            return codec.compress(original, charsetName);
+        } catch (Throwable e) {
+            LOGGER.warn("[[title=arex.compress]]", e);
+            return ZERO_BYTE;
+        } finally {
+            release(codec);
+        }
     }
 
     /**
@@ -33,45 +75,235 @@ public class CompressUtil {
             return ZERO_BYTE;
         }
 
-        try (ByteArrayInputStream byteInputStream = new ByteArrayInputStream(original);
-            ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream(byteInputStream.available());
-            ZstdOutputStreamNoFinalizer zstdOutputStream = new ZstdOutputStreamNoFinalizer(byteOutputStream)) {
-
-            byte[] buffer = new byte[BYTES_BUFFER_LENGTH];
-            for (int length; (length = byteInputStream.read(buffer, 0, BYTES_BUFFER_LENGTH)) != -1; ) {
-                zstdOutputStream.write(buffer, 0, length);
-            }
-
-            zstdOutputStream.flush();
-            zstdOutputStream.close();
-            return byteOutputStream.toByteArray();
+        ZstdCodec codec = borrow();
+        try {
+            return codec.compress(original);
         } catch (Throwable e) {
             LOGGER.warn("[[title=arex.compress]]", e);
             return ZERO_BYTE;
+        } finally {
+            release(codec);
         }
     }
 
     public static String zstdDecompress(byte[] bytes, Charset charsetName) {
+        byte[] decompressed = zstdDecompress(bytes);
+        return decompressed == null ? null : new String(decompressed, charsetName);
+    }
+
+    /**
+     * @return null if empty or not a valid frame
+     */
+    public static byte[] zstdDecompress(byte[] bytes) {
         if (bytes == null || bytes.length == 0) {
             return null;
         }
 
+        long contentSize = Zstd.decompressedSize(bytes);
+        if (contentSize <= 0 || contentSize > Integer.MAX_VALUE - 8) {
+            // streamed frames do not carry the content size
+            return zstdStreamDecompress(bytes);
+        }
+
+        ZstdCodec codec = borrow();
+        try {
+            return codec.decompress(bytes, (int) contentSize);
+        } catch (Throwable e) {
+            LOGGER.warn("[[title=arex.decompress]]", e);
+            return null;
+        } finally {
+            release(codec);
+        }
+    }
+
+    private static byte[] zstdStreamDecompress(byte[] bytes) {
         try (ByteArrayInputStream byteInputStream = new ByteArrayInputStream(bytes);
             ZstdInputStreamNoFinalizer zstdInputStream = new ZstdInputStreamNoFinalizer(byteInputStream);
             ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream(byteInputStream.available())) {
 
+            ZstdDictionary current = dictionary;
+            if (current != null && Zstd.getDictIdFromFrame(bytes) == current.id) {
+                zstdInputStream.setDict(current.decompressDict);
+            }
             byte[] buffer = new byte[BYTES_BUFFER_LENGTH];
             for (int length; (length = zstdInputStream.read(buffer, 0, BYTES_BUFFER_LENGTH)) != -1; ) {
                 byteOutputStream.write(buffer, 0, length);
             }
 
-            return byteOutputStream.toString(charsetName.name());
+            return byteOutputStream.toByteArray();
         } catch (Throwable e) {
             LOGGER.warn("[[title=arex.decompress]]", e);
             return null;
         }
     }
 
+    /**
+     * Compress with the dictionary from now on, the receiver must know it. Null goes back to plain frames.
+     */
+    public static void setDictionary(byte[] dictionaryBytes) {
+        dictionary = dictionaryBytes == null || dictionaryBytes.length == 0 ? null : new ZstdDictionary(dictionaryBytes);
+    }
+
+    /**
+     * @return 0 if no dictionary is set
+     */
+    public static long getDictionaryId() {
+        ZstdDictionary current = dictionary;
+        return current == null ? 0 : current.id;
+    }
+
+    /**
+     * @return id of the dictionary the frame was compressed with, 0 if none
+     */
+    public static long getDictionaryId(byte[] compressed) {
+        if (compressed == null || compressed.length == 0) {
+            return 0;
+        }
+        return Zstd.getDictIdFromFrame(compressed);
+    }
+
+    private static ZstdCodec borrow() {
+        ZstdCodec codec = CODEC_POOL.poll();
+        return codec != null ? codec : new ZstdCodec();
+    }
+
+    private static void release(ZstdCodec codec) {
+        codec.trim();
+        if (!CODEC_POOL.offer(codec)) {
+            codec.close();
+        }
+    }
+
+    static final class ZstdDictionary {
+        private final long id;
+        private final ZstdDictCompress compressDict;
+        private final ZstdDictDecompress decompressDict;
+
+        ZstdDictionary(byte[] dictionaryBytes) {
+            this.id = Zstd.getDictIdFromDict(dictionaryBytes);
+            this.compressDict = new ZstdDictCompress(dictionaryBytes, DEFAULT_LEVEL);
+            this.decompressDict = new ZstdDictDecompress(dictionaryBytes);
+        }
+    }
+
+    /**
+     * Compression and decompression contexts with reusable direct buffers, used by one thread at a time.
+     */
+    static final class ZstdCodec implements Closeable {
+        private final CharsetEncoder utf8Encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ZstdCompressCtx compressCtx;
+        private ZstdDecompressCtx decompressCtx;
+        private ZstdDictionary compressDictionary;
+        private ZstdDictionary decompressDictionary;
+        private ByteBuffer source;
+        private ByteBuffer target;
+
+        /**
+         * UTF-8 text is encoded straight into the direct source buffer and compressed from there
+         */
+        byte[] compress(String original, Charset charset) {
+            long maxLength = (long) original.length() * 3;
+            if (!StandardCharsets.UTF_8.equals(charset) || maxLength > MAX_RETAINED_BUFFER_SIZE) {
+                return compress(original.getBytes(charset));
+            }
+
+            ByteBuffer src = source = ensureCapacity(source, (int) maxLength);
+            src.clear();
+            utf8Encoder.reset();
+            CoderResult result = utf8Encoder.encode(CharBuffer.wrap(original), src, true);
+            if (!result.isUnderflow() || !utf8Encoder.flush(src).isUnderflow()) {
+                return compress(original.getBytes(charset));
+            }
+            int srcSize = src.position();
+
+            ByteBuffer dst = target = ensureCapacity(target, (int) Zstd.compressBound(srcSize));
+            int compressedSize = compressContext().compressDirectByteBuffer(dst, 0, dst.capacity(), src, 0, srcSize);
+            byte[] compressed = new byte[compressedSize];
+            dst.clear();
+            dst.get(compressed);
+            return compressed;
+        }
+
+        byte[] compress(byte[] original) {
+            return compressContext().compress(original);
+        }
+
+        byte[] decompress(byte[] compressed, int contentSize) {
+            return decompressContext(Zstd.getDictIdFromFrame(compressed)).decompress(compressed, contentSize);
+        }
+
+        private ZstdCompressCtx compressContext() {
+            ZstdDictionary current = dictionary;
+            if (compressCtx == null || current != compressDictionary) {
+                if (compressCtx != null) {
+                    compressCtx.close();
+                }
+                compressCtx = new ZstdCompressCtx().setLevel(DEFAULT_LEVEL);
+                if (current != null) {
+                    compressCtx.loadDict(current.compressDict);
+                }
+                compressDictionary = current;
+            }
+            return compressCtx;
+        }
+
+        /**
+         * The dictionary is only referenced for frames compressed with it
+         */
+        private ZstdDecompressCtx decompressContext(long frameDictId) {
+            ZstdDictionary current = dictionary;
+            ZstdDictionary required = current != null && frameDictId != 0 && frameDictId == current.id ? current : null;
+            if (decompressCtx == null || required != decompressDictionary) {
+                if (decompressCtx != null) {
+                    decompressCtx.close();
+                }
+                decompressCtx = new ZstdDecompressCtx();
+                if (required != null) {
+                    decompressCtx.loadDict(required.decompressDict);
+                }
+                decompressDictionary = required;
+            }
+            return decompressCtx;
+        }
+
+        private static ByteBuffer ensureCapacity(ByteBuffer buffer, int capacity) {
+            if (buffer != null && buffer.capacity() >= capacity) {
+                return buffer;
+            }
+            int size = Math.max(capacity, buffer == null ? DEFAULT_BUFFER_SIZE :
+                    Math.min(buffer.capacity() * 2, MAX_RETAINED_BUFFER_SIZE));
+            return ByteBuffer.allocateDirect(size);
+        }
+
+        /**
+         * A buffer grown over the limit, e.g. the compress bound of a payload close to it, is dropped after use
+         */
+        void trim() {
+            if (source != null && source.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                source = null;
+            }
+            if (target != null && target.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                target = null;
+            }
+        }
+
+        int retainedBytes() {
+            return (source == null ? 0 : source.capacity()) + (target == null ? 0 : target.capacity());
+        }
+
+        @Override
+        public void close() {
+            if (compressCtx != null) {
+                compressCtx.close();
+            }
+            if (decompressCtx != null) {
+                decompressCtx.close();
+            }
+        }
+    }
+
     public static class ZstdInputStreamNoFinalizer extends ZstdInputStream {
         ZstdInputStreamNoFinalizer(InputStream inputStream) throws IOException {
             super(inputStream);
@@ -0,0 +1,107 @@
+package io.arex.foundation.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSegmentLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendAndRead() throws Exception {
+        MappedSegmentLog log = new MappedSegmentLog(directory, 128);
+        log.open(record -> fail("empty log"));
+
+        MappedSegmentLog.Record first = log.append("case1", "Database", 1L, 2L, bytes("body1"));
+        MappedSegmentLog.Record second = log.append("case2", "Redis", 3L, 4L, bytes("body2"));
+        assertEquals("body1", string(log.read(first)));
+        assertEquals("body2", string(log.read(second)));
+        assertEquals("case2", second.getRecordId());
+        assertEquals("Redis", second.getCategory());
+        assertEquals(3L, second.getOperationHash());
+        assertEquals(4L, second.getRequestHash());
+        // 2 records of 47 bytes, the third one rolls to a new segment
+        assertEquals(1, log.segmentCount());
+        log.append("case3", "Redis", 5L, 6L, bytes("body3"));
+        assertEquals(2, log.segmentCount());
+
+        // larger than a segment
+        assertNull(log.append("case4", "Redis", 7L, 8L, new byte[128]));
+        log.close();
+    }
+
+    @Test
+    void recover() throws Exception {
+        MappedSegmentLog log = new MappedSegmentLog(directory, 128);
+        log.open(record -> {});
+        for (int i = 0; i < 5; i++) {
+            log.append("case" + i, "Database", i, i, bytes("body" + i));
+        }
+        log.close();
+
+        MappedSegmentLog reopened = new MappedSegmentLog(directory, 128);
+        List<MappedSegmentLog.Record> records = new ArrayList<>();
+        reopened.open(records::add);
+        assertEquals(3, reopened.segmentCount());
+        assertEquals(5, records.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("case" + i, records.get(i).getRecordId());
+            assertEquals("body" + i, string(reopened.read(records.get(i))));
+        }
+
+        // continue after the last record of the last segment
+        MappedSegmentLog.Record appended = reopened.append("case5", "Database", 5L, 5L, bytes("body5"));
+        assertEquals(3, reopened.segmentCount());
+        assertEquals("body5", string(reopened.read(appended)));
+    }
+
+    @Test
+    void retention() throws Exception {
+        MappedSegmentLog log = new MappedSegmentLog(directory, 128, 2);
+        log.open(record -> {});
+        // 2 records per segment
+        List<MappedSegmentLog.Record> records = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            records.add(log.append("case" + i, "Database", i, i, bytes("body" + i)));
+        }
+        assertEquals(2, log.segmentCount());
+        assertEquals(1, log.firstSegment());
+        assertNull(log.read(records.get(0)));
+        assertEquals("body2", string(log.read(records.get(2))));
+        assertFalse(Files.exists(directory.resolve("segment-00000000.log")));
+        assertTrue(Files.exists(directory.resolve("segment-00000002.log")));
+        log.close();
+
+        // a smaller limit on restart deletes the oldest files before mapping them
+        MappedSegmentLog reopened = new MappedSegmentLog(directory, 128, 1);
+        List<MappedSegmentLog.Record> recovered = new ArrayList<>();
+        reopened.open(recovered::add);
+        assertEquals(1, reopened.segmentCount());
+        assertEquals(2, reopened.firstSegment());
+        assertEquals(2, recovered.size());
+        assertEquals("case4", recovered.get(0).getRecordId());
+        assertFalse(Files.exists(directory.resolve("segment-00000001.log")));
+
+        // the next segment continues the numbering
+        reopened.append("case6", "Database", 6L, 6L, bytes("body6"));
+        assertEquals(3, reopened.firstSegment());
+        assertTrue(Files.exists(directory.resolve("segment-00000003.log")));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
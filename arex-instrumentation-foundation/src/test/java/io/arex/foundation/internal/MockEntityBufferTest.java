@@ -0,0 +1,84 @@
+package io.arex.foundation.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MockEntityBufferTest {
+
+    @Test
+    void capacityRoundedToPowerOfTwo() {
+        assertEquals(1024, new MockEntityBuffer(1024).capacity());
+        assertEquals(2048, new MockEntityBuffer(1025).capacity());
+        assertEquals(2, new MockEntityBuffer(0).capacity());
+    }
+
+    @Test
+    void putRejectsWhenFull() {
+        MockEntityBuffer buffer = new MockEntityBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.put(new DataEntity(String.valueOf(i))));
+        }
+        assertFalse(buffer.put(new DataEntity("overflow")));
+        assertEquals(4, buffer.length());
+        assertEquals(0, buffer.remainingCapacity());
+
+        assertEquals("0", buffer.get().getPostData());
+        assertTrue(buffer.put(new DataEntity("4")));
+
+        List<DataEntity> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 2));
+        assertEquals("1", drained.get(0).getPostData());
+        assertEquals("2", drained.get(1).getPostData());
+        assertEquals(2, buffer.length());
+
+        buffer.clear();
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.get());
+    }
+
+    @Test
+    void multipleProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 10000;
+        MockEntityBuffer buffer = new MockEntityBuffer(256);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    DataEntity entity = new DataEntity(producer + "-" + i);
+                    while (!buffer.put(entity)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        Set<String> received = new HashSet<>();
+        List<DataEntity> drained = new ArrayList<>();
+        while (received.size() < producers * perProducer) {
+            drained.clear();
+            if (buffer.drainTo(drained, 64) == 0) {
+                Thread.yield();
+            }
+            for (DataEntity entity : drained) {
+                assertTrue(received.add(entity.getPostData()));
+            }
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(buffer.isEmpty());
+    }
+}
@@ -0,0 +1,118 @@
+package io.arex.foundation.internal;
+
+import io.arex.foundation.util.CompressUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MockEntitySpilloverTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void offerAndPoll() throws Exception {
+        MockEntitySpillover spillover = new MockEntitySpillover(directory.resolve("spill.dat"), 256);
+        assertEquals(256, spillover.capacity());
+        assertNull(spillover.poll());
+
+        assertTrue(spillover.offer(entity("case1", 1)));
+        assertTrue(spillover.offer(entity("case2", 2)));
+        assertEquals(2, spillover.size());
+        assertTrue(spillover.usedBytes() > 0);
+
+        DataEntity first = spillover.poll();
+        assertEquals("case1", first.getRecordId());
+        assertEquals(mockData("case1", 1), first.getPostData());
+        List<DataEntity> drained = new ArrayList<>();
+        assertEquals(1, spillover.drainTo(drained, 10));
+        assertEquals("case2", drained.get(0).getRecordId());
+
+        // the file is reused from the start once it is drained
+        assertEquals(0, spillover.size());
+        assertEquals(0, spillover.usedBytes());
+    }
+
+    @Test
+    void compressedEntity() throws Exception {
+        MockEntitySpillover spillover = new MockEntitySpillover(directory.resolve("spill.dat"), 256);
+        byte[] mockData = mockData("case1", 1).getBytes(StandardCharsets.UTF_8);
+        assertTrue(spillover.offer(new DataEntity(CompressUtil.zstdCompress(mockData), true, "case1")));
+
+        DataEntity polled = spillover.poll();
+        assertTrue(polled.isCompressed());
+        assertEquals("case1", polled.getRecordId());
+        assertEquals(mockData("case1", 1), polled.getPostData());
+    }
+
+    @Test
+    void evictWholeCaseWhenFull() throws Exception {
+        MockEntitySpillover spillover = new MockEntitySpillover(directory.resolve("spill.dat"), 100);
+        assertTrue(spillover.offer(entity("case1", 1)));
+        assertTrue(spillover.offer(entity("case2", 1)));
+        assertFalse(spillover.offer(entity("case1", 2)));
+
+        assertTrue(spillover.isEvicted("case1"));
+        assertTrue(spillover.isEvicted(entity("case1", 3)));
+        assertFalse(spillover.isEvicted("case2"));
+        // the queued mocker of the evicted case is skipped
+        assertEquals("case2", spillover.poll().getRecordId());
+        assertNull(spillover.poll());
+    }
+
+    @Test
+    void wrapAround() throws Exception {
+        // room for 2 records of 42 bytes
+        MockEntitySpillover spillover = new MockEntitySpillover(directory.resolve("spill.dat"), 100);
+        assertTrue(spillover.offer(entity("case1", 1)));
+        assertTrue(spillover.offer(entity("case2", 1)));
+        assertEquals("case1", spillover.poll().getRecordId());
+        // the consumed head is reused while case2 is still queued
+        assertTrue(spillover.offer(entity("case3", 1)));
+        // the skipped end of the file is in use until the reader wraps
+        assertEquals(100, spillover.usedBytes());
+        assertFalse(spillover.offer(entity("case4", 1)));
+
+        assertEquals("case2", spillover.poll().getRecordId());
+        assertEquals("case3", spillover.poll().getRecordId());
+        assertNull(spillover.poll());
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(spillover.offer(entity("next" + i, 2)));
+            assertEquals("next" + i, spillover.poll().getRecordId());
+        }
+    }
+
+    @Test
+    void emptyRecordIdNotEvicted() throws Exception {
+        MockEntitySpillover spillover = new MockEntitySpillover(directory.resolve("spill.dat"), 40);
+        DataEntity noRecordId = new DataEntity("{\"index\":1,\"body\":\"larger than the file\"}");
+        assertFalse(spillover.offer(noRecordId));
+        assertFalse(spillover.isEvicted(""));
+        assertFalse(spillover.isEvicted(new DataEntity("{\"index\":2}")));
+    }
+
+    @Test
+    void parseRecordId() {
+        assertEquals("case1", new DataEntity(mockData("case1", 1)).getRecordId());
+        assertEquals("", new DataEntity("{\"id\":1}").getRecordId());
+        assertEquals("", DataEntity.parseRecordId((String) null));
+        assertEquals("case1", DataEntity.parseRecordId(mockData("case1", 1).getBytes(StandardCharsets.UTF_8)));
+        assertEquals("", DataEntity.parseRecordId("{\"recordId\":\"broken".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("", DataEntity.parseRecordId("{\"recordId\":\"broken"));
+    }
+
+    private static DataEntity entity(String recordId, int index) {
+        return new DataEntity(mockData(recordId, index));
+    }
+
+    private static String mockData(String recordId, int index) {
+        return "{\"recordId\":\"" + recordId + "\",\"index\":" + index + "}";
+    }
+}
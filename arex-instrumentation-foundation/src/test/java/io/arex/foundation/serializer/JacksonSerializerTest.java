@@ -2,10 +2,14 @@ package io.arex.foundation.serializer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import io.arex.agent.bootstrap.model.Mocker;
 import io.arex.inst.runtime.util.TypeUtil;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 class JacksonSerializerTest {
@@ -25,6 +29,29 @@ class JacksonSerializerTest {
         assertEquals(now, actualResult);
     }
 
+    @Test
+    void serializeToBytes() {
+        Map<String, String> map = new HashMap<>();
+        map.put("key", "\u4e2d\u6587");
+        assertEquals(JacksonSerializer.INSTANCE.serialize(map),
+                new String(JacksonSerializer.INSTANCE.serializeToBytes(map), StandardCharsets.UTF_8));
+        assertNull(JacksonSerializer.INSTANCE.serializeToBytes(null));
+    }
+
+    @Test
+    void targetBodyBytes() {
+        Mocker.Target target = new Mocker.Target();
+        target.setBodyBytes("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        String json = JacksonSerializer.INSTANCE.serialize(target);
+        // same JSON as a Base64 body set as a string, the raw bytes are not a property
+        assertTrue(json.contains("\"body\":\"eyJhIjoxfQ==\""));
+        assertFalse(json.contains("bodyBytes"));
+
+        Mocker.Target deserialized = JacksonSerializer.INSTANCE.deserialize(json, Mocker.Target.class);
+        assertEquals("eyJhIjoxfQ==", deserialized.getBody());
+        assertNull(deserialized.bodyBytes());
+    }
+
     @Test
     void testNullList() {
         final List<Object> list = new ArrayList<>();
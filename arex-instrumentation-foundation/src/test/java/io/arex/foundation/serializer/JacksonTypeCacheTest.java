@@ -0,0 +1,37 @@
+package io.arex.foundation.serializer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class JacksonTypeCacheTest {
+    List<Map<String, Object>> mapList;
+    List<Long> longList;
+
+    @Test
+    void readerAndWriter() throws Exception {
+        JacksonTypeCache cache = new JacksonTypeCache(new ObjectMapper());
+        assertSame(cache.writer(ArrayList.class), cache.writer(ArrayList.class));
+
+        Type type = fieldType("mapList");
+        assertSame(cache.reader(type), cache.reader(fieldType("mapList")));
+        List<Map<String, Object>> list = cache.reader(type).readValue("[{\"a\":1}]");
+        assertEquals(1, list.get(0).get("a"));
+    }
+
+    @Test
+    void deserializeType() throws Exception {
+        List<Long> list = JacksonSerializer.INSTANCE.deserialize("[1,2]", fieldType("longList"));
+        assertEquals(2L, list.get(1));
+        assertEquals("[1,2]", JacksonSerializer.INSTANCE.serialize(list));
+    }
+
+    private static Type fieldType(String name) throws NoSuchFieldException {
+        return JacksonTypeCacheTest.class.getDeclaredField(name).getGenericType();
+    }
+}
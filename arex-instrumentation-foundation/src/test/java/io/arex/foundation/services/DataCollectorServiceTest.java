@@ -0,0 +1,133 @@
+package io.arex.foundation.services;
+
+import io.arex.agent.bootstrap.model.ArexMocker;
+import io.arex.agent.bootstrap.model.MockCategoryType;
+import io.arex.foundation.config.ConfigManager;
+import io.arex.foundation.healthy.HealthManager;
+import io.arex.foundation.internal.DataEntity;
+import io.arex.foundation.util.CompressUtil;
+import io.arex.inst.runtime.serializer.MockerCodec;
+import org.apache.http.client.HttpResponseException;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataCollectorServiceTest {
+
+    @Test
+    void joinBatch() {
+        assertEquals("[{\"a\":1}]",
+                joinBatch(Collections.singletonList(new DataEntity("{\"a\":1}"))));
+        assertEquals("[{\"a\":1},{\"b\":2}]",
+                joinBatch(Arrays.asList(new DataEntity("{\"a\":1}"), new DataEntity("{\"b\":2}"))));
+        // mockers of a case are inlined
+        assertEquals("[{\"a\":1},{\"b\":2},{\"c\":3}]",
+                joinBatch(Arrays.asList(new DataEntity("[]"), new DataEntity("{\"a\":1}"),
+                        new DataEntity("[{\"b\":2},{\"c\":3}]"))));
+        // mockers saved as bytes, compressed or not
+        assertEquals("[{\"a\":\"\u00e9\"},{\"b\":2}]",
+                joinBatch(Arrays.asList(new DataEntity(bytes("{\"a\":\"\u00e9\"}"), false, ""),
+                        new DataEntity(CompressUtil.zstdCompress(bytes("{\"b\":2}")), true, ""))));
+    }
+
+    @Test
+    void bytesEntity() {
+        byte[] mockData = bytes("{\"recordId\":\"case1\",\"a\":1}");
+        DataEntity compressed = new DataEntity(CompressUtil.zstdCompress(mockData), true, DataEntity.parseRecordId(mockData));
+        assertEquals("case1", compressed.getRecordId());
+        assertTrue(compressed.isCompressed());
+        assertFalse(compressed.isCase());
+        assertArrayEquals(mockData, compressed.getBytes());
+        assertEquals("{\"recordId\":\"case1\",\"a\":1}", compressed.getPostData());
+
+        DataEntity plain = new DataEntity(bytes("[{\"recordId\":\"case2\"}]"), false, null);
+        assertEquals("case2", plain.getRecordId());
+        assertTrue(plain.isCase());
+        assertEquals("[{\"recordId\":\"case2\"}]",
+                CompressUtil.zstdDecompress(plain.getCompressedBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void binaryEntity() {
+        ArexMocker mocker = new ArexMocker(MockCategoryType.DATABASE);
+        mocker.setRecordId("case3");
+        byte[] record = MockerCodec.encode(mocker);
+        DataEntity binary = new DataEntity(CompressUtil.zstdCompress(record), true, true, MockerCodec.readRecordId(record));
+        assertEquals("case3", binary.getRecordId());
+        assertTrue(binary.isBinary());
+        assertFalse(binary.isCase());
+        assertNull(binary.getPostData());
+
+        byte[] joined = DataCollectorService.joinBinaryBatch(Arrays.asList(binary, new DataEntity(record, false, true, null)));
+        assertEquals(2 * record.length, joined.length);
+        assertEquals(2, MockerCodec.decodeAll(joined).size());
+    }
+
+    @Test
+    void isUnsupported() {
+        HttpResponseException unsupported = new HttpResponseException(415, "Unsupported Media Type");
+        assertTrue(DataCollectorService.isUnsupported(unsupported));
+        assertTrue(DataCollectorService.isUnsupported(new CompletionException(unsupported)));
+        assertFalse(DataCollectorService.isUnsupported(new HttpResponseException(500, "Internal Server Error")));
+        assertFalse(DataCollectorService.isUnsupported(null));
+    }
+
+    private static String joinBatch(List<DataEntity> batch) {
+        return new String(DataCollectorService.joinBatch(batch), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void saveCase() {
+        boolean batchEnable = ConfigManager.INSTANCE.isStorageBatchEnable();
+        DataCollectorService service = Mockito.spy(DataCollectorService.INSTANCE);
+        Mockito.doNothing().when(service).save(Mockito.anyString());
+        try {
+            ConfigManager.INSTANCE.setStorageBatchEnable("false");
+            service.saveCase(Arrays.asList("{\"a\":1}", "{\"b\":2}"));
+            // the batch api may not be served, the mockers are saved one by one
+            Mockito.verify(service).save("{\"a\":1}");
+            Mockito.verify(service).save("{\"b\":2}");
+
+            ConfigManager.INSTANCE.setStorageBatchEnable("true");
+            service.saveCase(Arrays.asList("{\"a\":1}", "{\"b\":2}"));
+            Mockito.verify(service).save("[{\"a\":1},{\"b\":2}]");
+        } finally {
+            ConfigManager.INSTANCE.setStorageBatchEnable(String.valueOf(batchEnable));
+        }
+    }
+
+    @Test
+    void saveMockDataConsumer() {
+        List<DataEntity> batch = Arrays.asList(new DataEntity("{\"a\":1}"), new DataEntity("{\"b\":2}"));
+        try (MockedStatic<HealthManager> healthManager = Mockito.mockStatic(HealthManager.class)) {
+            DataCollectorService.saveMockDataConsumer(batch).accept("ok", null);
+            healthManager.verify(() -> HealthManager.reportUsedTime(Mockito.longThat(time -> time >= 0), Mockito.eq(false)),
+                    Mockito.times(2));
+            healthManager.verify(HealthManager::onDataServiceRejection, Mockito.never());
+
+            DataCollectorService.saveMockDataConsumer(batch).accept(null, new IllegalStateException("rejected"));
+            healthManager.verify(() -> HealthManager.reportUsedTime(-1, false), Mockito.times(2));
+            healthManager.verify(HealthManager::onDataServiceRejection, Mockito.times(1));
+        }
+    }
+
+    @Test
+    void joinMockData() {
+        String caseData = DataCollectorService.joinMockData(Arrays.asList("{\"a\":1}", "{\"b\":2}"));
+        assertEquals("[{\"a\":1},{\"b\":2}]", caseData);
+        assertTrue(new DataEntity(caseData).isCase());
+        assertFalse(new DataEntity("{\"a\":1}").isCase());
+    }
+}
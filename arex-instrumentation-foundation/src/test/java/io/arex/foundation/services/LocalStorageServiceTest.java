@@ -0,0 +1,124 @@
+package io.arex.foundation.services;
+
+import io.arex.agent.bootstrap.model.ArexMocker;
+import io.arex.agent.bootstrap.model.MockCategoryType;
+import io.arex.agent.bootstrap.model.MockStrategyEnum;
+import io.arex.agent.bootstrap.model.Mocker.Target;
+import io.arex.foundation.internal.MappedSegmentLog;
+import io.arex.foundation.serializer.JacksonSerializer;
+import io.arex.inst.runtime.serializer.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalStorageServiceTest {
+
+    @TempDir
+    Path directory;
+    LocalStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        Serializer.builder(JacksonSerializer.INSTANCE).build();
+        service = new LocalStorageService();
+        service.init(new MappedSegmentLog(directory, 1 << 16));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.executor.shutdownNow();
+    }
+
+    @Test
+    void query() throws Exception {
+        service.write(Serializer.serialize(mocker(null, "select 1", "1")));
+        service.write(Serializer.serialize(mocker(null, "select 1", "2")));
+        service.write(Serializer.serialize(mocker(null, "select 2", "3")));
+        // replay results are not kept
+        service.write(Serializer.serialize(mocker("replay0", "select 1", "4")));
+
+        String request = Serializer.serialize(mocker("replay1", "select 1", null));
+        assertEquals("1", response(service.query(request, MockStrategyEnum.FIND_LAST)));
+        assertEquals("2", response(service.query(request, MockStrategyEnum.FIND_LAST)));
+        assertEquals("2", response(service.query(request, MockStrategyEnum.FIND_LAST)));
+        assertNull(service.query(request, MockStrategyEnum.OVER_BREAK));
+
+        String unknownRequest = Serializer.serialize(mocker("replay2", "select 3", null));
+        assertNull(service.query(unknownRequest, MockStrategyEnum.STRICT_MATCH));
+        assertEquals("1", response(service.query(unknownRequest, MockStrategyEnum.FIND_LAST)));
+
+        ArexMocker otherCase = mocker("replay3", "select 1", null);
+        otherCase.setRecordId("case2");
+        assertNull(service.query(Serializer.serialize(otherCase), MockStrategyEnum.FIND_LAST));
+    }
+
+    @Test
+    void queryAll() throws Exception {
+        service.write(Serializer.serialize(mocker(null, "select 1", "1")));
+        service.write(Serializer.serialize(mocker(null, "select 2", "2")));
+
+        String all = service.queryAll(Serializer.serialize(mocker("replay1", null, null)));
+        assertTrue(all.startsWith("[{") && all.endsWith("}]"));
+        assertEquals(2, Serializer.deserialize(all, ArexMocker[].class).length);
+        ArexMocker otherCase = mocker("replay1", null, null);
+        otherCase.setRecordId("case2");
+        assertNull(service.queryAll(Serializer.serialize(otherCase)));
+    }
+
+    @Test
+    void dropOldestSegment() throws Exception {
+        LocalStorageService small = new LocalStorageService();
+        small.init(new MappedSegmentLog(directory.resolve("small"), 1024, 1));
+        try {
+            ArexMocker first = mocker(null, "select 1", "1");
+            first.setRecordId("dropped");
+            small.write(Serializer.serialize(first));
+            ArexMocker second = mocker(null, "select 1", "2");
+            second.setRecordId("kept");
+            // does not fit in the first segment
+            second.getTargetResponse().setBody(randomBody(900));
+            small.write(Serializer.serialize(second));
+
+            ArexMocker request = mocker("replay1", null, null);
+            request.setRecordId("dropped");
+            assertNull(small.queryAll(Serializer.serialize(request)));
+            request.setRecordId("kept");
+            assertNotNull(small.queryAll(Serializer.serialize(request)));
+        } finally {
+            small.executor.shutdownNow();
+        }
+    }
+
+    private static String randomBody(int length) {
+        StringBuilder builder = new StringBuilder(length);
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+
+    private static String response(String mockData) {
+        return Serializer.deserialize(mockData, ArexMocker.class).getTargetResponse().getBody();
+    }
+
+    private static ArexMocker mocker(String replayId, String request, String response) {
+        ArexMocker mocker = new ArexMocker();
+        mocker.setRecordId("case1");
+        mocker.setReplayId(replayId);
+        mocker.setCategoryType(MockCategoryType.DATABASE);
+        mocker.setOperationName("query");
+        Target targetRequest = new Target();
+        targetRequest.setBody(request);
+        mocker.setTargetRequest(targetRequest);
+        Target targetResponse = new Target();
+        targetResponse.setBody(response);
+        mocker.setTargetResponse(targetResponse);
+        return mocker;
+    }
+}
@@ -0,0 +1,111 @@
+package io.arex.foundation.services;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+import io.arex.foundation.config.ConfigManager;
+import io.arex.foundation.util.AsyncHttpClientUtil;
+import io.arex.foundation.util.CompressUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ZstdDictionaryServiceTest {
+
+    @BeforeEach
+    void setUp() {
+        ConfigManager.INSTANCE.setCompressDictionaryEnable("true");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConfigManager.INSTANCE.setCompressDictionaryEnable("false");
+        CompressUtil.setDictionary(null);
+    }
+
+    @Test
+    void sampleTrainAndUpload() {
+        ZstdDictionaryService service = new ZstdDictionaryService();
+        try (MockedStatic<TimerService> timer = mockStatic(TimerService.class);
+             MockedStatic<AsyncHttpClientUtil> ahc = mockStatic(AsyncHttpClientUtil.class)) {
+            // too large to be a sample
+            for (int i = 0; i < ZstdDictionaryService.SAMPLE_INTERVAL; i++) {
+                service.sample(new String(new char[ZstdDictionaryService.MAX_SAMPLE_LENGTH + 1]));
+            }
+            for (int i = 0; i < ZstdDictionaryService.SAMPLE_INTERVAL * (ZstdDictionaryService.SAMPLE_COUNT - 1); i++) {
+                service.sample(sample(i));
+            }
+            timer.verifyNoInteractions();
+            for (int i = 0; i < ZstdDictionaryService.SAMPLE_INTERVAL * 2; i++) {
+                service.sample(sample(i));
+            }
+            timer.verify(() -> TimerService.schedule(any(Runnable.class), eq(0L), eq(TimeUnit.SECONDS)), times(1));
+
+            // not accepted
+            CompletableFuture<String> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new RuntimeException("mock"));
+            ahc.when(() -> AsyncHttpClientUtil.executeAsync(anyString(), any(), anyMap())).thenReturn(rejected);
+            service.train();
+            assertEquals(0, CompressUtil.getDictionaryId());
+            timer.verify(() -> TimerService.schedule(any(Runnable.class), eq(5L), eq(TimeUnit.MINUTES)), times(1));
+
+            // a response is not an acceptance
+            byte[] dictionary = trainDictionary();
+            ahc.when(() -> AsyncHttpClientUtil.executeAsync(anyString(), any(), anyMap()))
+                    .thenReturn(CompletableFuture.completedFuture("<html>ok</html>"));
+            service.upload(dictionary);
+            assertEquals(0, CompressUtil.getDictionaryId());
+            timer.verify(() -> TimerService.schedule(any(Runnable.class), eq(5L), eq(TimeUnit.MINUTES)), times(2));
+
+            ahc.when(() -> AsyncHttpClientUtil.executeAsync(anyString(), any(), anyMap()))
+                    .thenReturn(CompletableFuture.completedFuture(response(1)));
+            service.upload(dictionary);
+            assertEquals(0, CompressUtil.getDictionaryId());
+            // out of retries
+            timer.verify(() -> TimerService.schedule(any(Runnable.class), eq(5L), eq(TimeUnit.MINUTES)), times(2));
+
+            ahc.when(() -> AsyncHttpClientUtil.executeAsync(anyString(), any(), anyMap()))
+                    .thenReturn(CompletableFuture.completedFuture(response(0)));
+            service.upload(dictionary);
+            assertNotEquals(0, CompressUtil.getDictionaryId());
+
+            // sampling stops once trained
+            service.sample(sample(0));
+            service.train();
+        }
+    }
+
+    @Test
+    void isAccepted() {
+        assertTrue(ZstdDictionaryService.isAccepted(response(0)));
+        assertFalse(ZstdDictionaryService.isAccepted(response(2)));
+        assertFalse(ZstdDictionaryService.isAccepted("{}"));
+        assertFalse(ZstdDictionaryService.isAccepted(""));
+        assertFalse(ZstdDictionaryService.isAccepted(null));
+    }
+
+    private static String response(int code) {
+        return "{\"responseStatusType\":{\"responseCode\":" + code + ",\"responseDesc\":\"mock\"},\"body\":true}";
+    }
+
+    private static String sample(int index) {
+        return "{\"appId\":\"arex-demo\",\"categoryType\":{\"name\":\"Redis\"},\"operationName\":\"get" + index % 5 +
+                "\",\"recordId\":\"AREX-10-0-0-1-" + (1000000 + index) + "\",\"targetResponse\":{\"body\":\"" + index * 17 +
+                "\",\"type\":\"java.lang.String\"}}";
+    }
+
+    private static byte[] trainDictionary() {
+        ZstdDictTrainer trainer = new ZstdDictTrainer(1 << 20, 4096);
+        for (int i = 0; i < 2000; i++) {
+            trainer.addSample(sample(i).getBytes(StandardCharsets.UTF_8));
+        }
+        return trainer.trainSamples();
+    }
+}
@@ -0,0 +1,110 @@
+package io.arex.foundation.util;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictTrainer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressUtilTest {
+
+    @AfterEach
+    void tearDown() {
+        CompressUtil.setDictionary(null);
+    }
+
+    @Test
+    void roundTrip() {
+        String text = "{\"operationName\":\"query\",\"body\":\"中文 😀\"}";
+        byte[] compressed = CompressUtil.zstdCompress(text, StandardCharsets.UTF_8);
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, Zstd.decompressedSize(compressed));
+        assertEquals(text, CompressUtil.zstdDecompress(compressed, StandardCharsets.UTF_8));
+        // the pooled codec is reused
+        assertEquals(text, CompressUtil.zstdDecompress(CompressUtil.zstdCompress(text, StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8));
+
+        byte[] bytes = CompressUtil.zstdCompress(text.getBytes(StandardCharsets.UTF_16));
+        assertEquals(text, new String(Zstd.decompress(bytes, (int) Zstd.decompressedSize(bytes)), StandardCharsets.UTF_16));
+
+        assertSame(CompressUtil.ZERO_BYTE, CompressUtil.zstdCompress("", StandardCharsets.UTF_8));
+        assertSame(CompressUtil.ZERO_BYTE, CompressUtil.zstdCompress((byte[]) null));
+        assertNull(CompressUtil.zstdDecompress(null, StandardCharsets.UTF_8));
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), CompressUtil.zstdDecompress(compressed));
+        assertNull(CompressUtil.zstdDecompress((byte[]) null));
+    }
+
+    @Test
+    void largePayload() {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() <= CompressUtil.MAX_RETAINED_BUFFER_SIZE) {
+            builder.append("{\"key\":").append(builder.length()).append('}');
+        }
+        String text = builder.toString();
+        assertEquals(text, CompressUtil.zstdDecompress(CompressUtil.zstdCompress(text, StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8));
+        assertEquals(text, CompressUtil.zstdDecompress(CompressUtil.zstdCompress(text, StandardCharsets.UTF_16),
+                StandardCharsets.UTF_16));
+    }
+
+    @Test
+    void trimRetainedBuffers() {
+        StringBuilder builder = new StringBuilder();
+        // three bytes per char: the compress bound of the largest direct payload is over the limit
+        while ((builder.length() + 1) * 3 <= CompressUtil.MAX_RETAINED_BUFFER_SIZE) {
+            builder.append('\u4e2d');
+        }
+        String text = builder.toString();
+        try (CompressUtil.ZstdCodec codec = new CompressUtil.ZstdCodec()) {
+            byte[] compressed = codec.compress(text, StandardCharsets.UTF_8);
+            assertEquals(text, CompressUtil.zstdDecompress(compressed, StandardCharsets.UTF_8));
+            assertTrue(codec.retainedBytes() > 2 * CompressUtil.MAX_RETAINED_BUFFER_SIZE);
+
+            codec.trim();
+            assertTrue(codec.retainedBytes() <= CompressUtil.MAX_RETAINED_BUFFER_SIZE);
+            assertArrayEquals(Zstd.compress("small".getBytes(StandardCharsets.UTF_8)),
+                    codec.compress("small", StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void streamedFrame() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (CompressUtil.ZstdOutputStreamNoFinalizer zstdOutputStream = new CompressUtil.ZstdOutputStreamNoFinalizer(output)) {
+            zstdOutputStream.write("streamed".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals("streamed", CompressUtil.zstdDecompress(output.toByteArray(), StandardCharsets.UTF_8));
+        assertNull(CompressUtil.zstdDecompress(new byte[] {1, 2, 3}, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void dictionary() {
+        ZstdDictTrainer trainer = new ZstdDictTrainer(1 << 20, 4096);
+        for (int i = 0; i < 2000; i++) {
+            trainer.addSample(sample(i).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] dictionaryBytes = trainer.trainSamples();
+
+        String text = sample(5000);
+        byte[] plain = CompressUtil.zstdCompress(text, StandardCharsets.UTF_8);
+        assertEquals(0, CompressUtil.getDictionaryId());
+        CompressUtil.setDictionary(dictionaryBytes);
+        assertEquals(Zstd.getDictIdFromDict(dictionaryBytes), CompressUtil.getDictionaryId());
+
+        byte[] withDictionary = CompressUtil.zstdCompress(text, StandardCharsets.UTF_8);
+        assertEquals(CompressUtil.getDictionaryId(), Zstd.getDictIdFromFrame(withDictionary));
+        assertTrue(withDictionary.length < plain.length);
+        assertEquals(text, CompressUtil.zstdDecompress(withDictionary, StandardCharsets.UTF_8));
+        // frames without dictionary are still readable
+        assertEquals(text, CompressUtil.zstdDecompress(plain, StandardCharsets.UTF_8));
+    }
+
+    private static String sample(int index) {
+        return "{\"appId\":\"arex-demo\",\"categoryType\":{\"name\":\"Database\"},\"operationName\":\"query" + index % 7 +
+                "\",\"recordId\":\"AREX-10-0-0-1-" + (1000000 + index) + "\",\"targetResponse\":{\"body\":\"" + index * 31 +
+                "\",\"type\":\"java.util.ArrayList-io.arex.demo.model.Order\"}}";
+    }
+}
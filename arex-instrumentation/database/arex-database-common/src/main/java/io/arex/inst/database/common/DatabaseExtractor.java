@@ -47,7 +47,7 @@ public class DatabaseExtractor {
     }
 
     public void record(Object response) {
-        MockUtils.recordMocker(makeMocker(response));
+        MockUtils.recordMocker(makeRequestMocker(response), response);
     }
 
     public MockResult replay() {
@@ -69,12 +69,20 @@ public class DatabaseExtractor {
     }
 
     private Mocker makeMocker(Object response) {
+        Mocker mocker = makeRequestMocker(response);
+        mocker.getTargetResponse().setBody(Serializer.serialize(response));
+        return mocker;
+    }
+
+    /**
+     * Without the response body, it is serialized when recorded
+     */
+    private Mocker makeRequestMocker(Object response) {
         Mocker mocker = MockUtils.createDatabase(this.methodName);
         mocker.getTargetRequest().setBody(this.sql);
         mocker.getTargetRequest().setAttribute("dbName", this.dbName);
         mocker.getTargetRequest().setAttribute("parameters", this.parameters);
         mocker.getTargetResponse().setAttribute("keyHolder", this.keyHolder);
-        mocker.getTargetResponse().setBody(Serializer.serialize(response));
         mocker.getTargetResponse().setType(TypeUtil.getName(response));
         return mocker;
     }
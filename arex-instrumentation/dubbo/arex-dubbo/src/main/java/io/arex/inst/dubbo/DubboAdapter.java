@@ -3,6 +3,8 @@ package io.arex.inst.dubbo;
 import io.arex.agent.bootstrap.ctx.TraceTransmitter;
 import io.arex.agent.bootstrap.model.Mocker;
 import io.arex.inst.runtime.context.ContextManager;
+import io.arex.inst.runtime.listener.CaseEvent;
+import io.arex.inst.runtime.listener.CaseEventDispatcher;
 import io.arex.inst.runtime.model.ArexConstants;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.util.LogUtil;
@@ -111,6 +113,9 @@ public class DubboAdapter {
     public Invocation getInvocation() {
         return invocation;
     }
+    public Invoker<?> getInvoker() {
+        return invoker;
+    }
     public boolean forceRecord() {
         return Boolean.parseBoolean(invocation.getAttachment(ArexConstants.FORCE_RECORD));
     }
@@ -140,10 +145,14 @@ public class DubboAdapter {
                         mocker.getTargetResponse().setType(TypeUtil.getName(value));
                     }
                     if (ContextManager.needReplay()) {
-                        MockUtils.replayMocker(mocker);
+                        MockUtils.replayMockerAsync(mocker);
                     } else {
                         MockUtils.recordMocker(mocker);
                     }
+                    // provider completes the case
+                    if (mocker.getCategoryType() != null && mocker.getCategoryType().isEntryPoint()) {
+                        CaseEventDispatcher.onEvent(CaseEvent.ofDestroyEvent());
+                    }
                 }
             }
         });
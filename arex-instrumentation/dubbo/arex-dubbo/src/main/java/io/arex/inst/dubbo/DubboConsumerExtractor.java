@@ -1,5 +1,6 @@
 package io.arex.inst.dubbo;
 
+import io.arex.agent.bootstrap.ctx.TraceTransmitter;
 import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.agent.bootstrap.model.Mocker;
 import io.arex.inst.runtime.util.IgnoreUtils;
@@ -8,7 +9,14 @@ import org.apache.dubbo.rpc.*;
 import org.apache.dubbo.rpc.protocol.dubbo.FutureAdapter;
 import org.apache.dubbo.rpc.support.RpcUtils;
 
+import java.util.concurrent.CompletableFuture;
+
 public class DubboConsumerExtractor {
+    /**
+     * Invocation attribute, marks the real invocation after an async replay without usable mock
+     */
+    public static final String REPLAY_FALLBACK = "arex-replay-fallback";
+
     private final DubboAdapter adapter;
 
     public DubboConsumerExtractor(DubboAdapter adapter) {
@@ -27,11 +35,15 @@ public class DubboConsumerExtractor {
     }
     public MockResult replay() {
         MockResult mockResult = null;
-        Object result = MockUtils.replayBody(makeMocker());
         boolean ignoreMockResult = IgnoreUtils.ignoreMockResult(adapter.getPath(), adapter.getOperationName());
+        Invocation invocation = adapter.getInvocation();
+        InvokeMode invokeMode = RpcUtils.getInvokeMode(adapter.getUrl(), invocation);
+        if (!ignoreMockResult && (invokeMode == InvokeMode.FUTURE || invokeMode == InvokeMode.ASYNC)) {
+            return replayAsync(invocation, invokeMode);
+        }
+        Object result = MockUtils.replayBody(makeMocker());
         if (result != null && !ignoreMockResult) {
             AsyncRpcResult asyncRpcResult;
-            Invocation invocation = adapter.getInvocation();
             if (result instanceof Throwable) {
                 asyncRpcResult = AsyncRpcResult.newDefaultAsyncResult((Throwable) result, invocation);
             } else {
@@ -41,10 +53,54 @@ public class DubboConsumerExtractor {
             // need to set invoke mode to FUTURE if return type is CompletableFuture
             if (invocation instanceof RpcInvocation) {
                 RpcInvocation rpcInv = (RpcInvocation) invocation;
-                rpcInv.setInvokeMode(RpcUtils.getInvokeMode(adapter.getUrl(), invocation));
+                rpcInv.setInvokeMode(invokeMode);
             }
             RpcContext.getContext().setFuture(new FutureAdapter<>(asyncRpcResult.getResponseFuture()));
         }
         return mockResult;
     }
+
+    /**
+     * The caller of an async invocation gets a pending result at once, it is completed from the replay response,
+     * or by the real invocation if there is no usable mock.
+     */
+    private MockResult replayAsync(Invocation invocation, InvokeMode invokeMode) {
+        CompletableFuture<AppResponse> responseFuture = new CompletableFuture<>();
+        AsyncRpcResult asyncRpcResult = new AsyncRpcResult(responseFuture, invocation);
+        TraceTransmitter traceTransmitter = TraceTransmitter.create();
+        MockUtils.replayBodyAsync(makeMocker()).whenComplete((result, throwable) -> {
+            try (TraceTransmitter tm = traceTransmitter.transmit()) {
+                if (result != null) {
+                    responseFuture.complete(toAppResponse(invocation, result));
+                    return;
+                }
+                invocation.put(REPLAY_FALLBACK, Boolean.TRUE);
+                adapter.getInvoker().invoke(invocation).whenCompleteWithContext((response, invokeThrowable) -> {
+                    if (invokeThrowable != null) {
+                        responseFuture.completeExceptionally(invokeThrowable);
+                    } else {
+                        responseFuture.complete(toAppResponse(invocation,
+                            response.hasException() ? response.getException() : response.getValue()));
+                    }
+                });
+            } catch (Throwable e) {
+                responseFuture.completeExceptionally(e);
+            }
+        });
+        if (invocation instanceof RpcInvocation) {
+            ((RpcInvocation) invocation).setInvokeMode(invokeMode);
+        }
+        RpcContext.getContext().setFuture(new FutureAdapter<>(asyncRpcResult.getResponseFuture()));
+        return MockResult.success(false, asyncRpcResult);
+    }
+
+    private static AppResponse toAppResponse(Invocation invocation, Object result) {
+        AppResponse appResponse = new AppResponse(invocation);
+        if (result instanceof Throwable) {
+            appResponse.setException((Throwable) result);
+        } else {
+            appResponse.setValue(result);
+        }
+        return appResponse;
+    }
 }
@@ -50,6 +50,10 @@ public class DubboConsumerInstrumentation extends TypeInstrumentation {
                 // client-stream record and replay in the DubboStreamConsumerInstrumentation
                 return false;
             }
+            if (invocation.get(DubboConsumerExtractor.REPLAY_FALLBACK) != null) {
+                // real invocation after an async replay without usable mock
+                return false;
+            }
             if (ContextManager.needRecordOrReplay()) {
                 RepeatedCollectManager.enter();
                 extractor = new DubboConsumerExtractor(DubboAdapter.of(invoker, invocation));
@@ -1,10 +1,10 @@
 package io.arex.inst.dubbo.stream;
 
-import io.arex.agent.bootstrap.TraceContextManager;
 import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.agent.bootstrap.model.Mocker;
 import io.arex.agent.bootstrap.util.CollectionUtil;
 import io.arex.agent.bootstrap.util.StringUtil;
+import io.arex.inst.runtime.context.ContextManager;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.util.IgnoreUtils;
 import io.arex.inst.runtime.util.LogUtil;
@@ -53,7 +53,7 @@ public class DubboStreamConsumerExtractor {
          * and here is the recording of client stream, which need to connect the previous recordings (such as servlet, http, db),
          * so here we need to set the recordId generated at the entrance before the netty callback thread is used
          */
-        TraceContextManager.set(recordId);
+        ContextManager.attach(recordId);
     }
 
     public void record(RequestMetadata requestMetadata, byte[] message, Throwable throwable) {
@@ -141,7 +141,7 @@ public class DubboStreamConsumerExtractor {
             record(requestMetadata, null, status.asException());
         }
         // restore
-        TraceContextManager.remove();
+        ContextManager.remove();
         adapter.clearRequest();
     }
 
@@ -1,8 +1,11 @@
 package io.arex.inst.dubbo;
 
 import io.arex.agent.bootstrap.model.ArexMocker;
+import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.agent.bootstrap.model.Mocker;
 import io.arex.inst.runtime.util.MockUtils;
+import org.apache.dubbo.rpc.InvokeMode;
+import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.support.RpcUtils;
 import org.junit.jupiter.api.AfterAll;
@@ -12,6 +15,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
@@ -50,4 +56,17 @@ class DubboConsumerExtractorTest {
         Mockito.when(MockUtils.replayBody(any())).thenReturn("mock");
         assertNotNull(target.replay());
     }
-}
\ No newline at end of file
+
+    @Test
+    void replayAsync() {
+        Mockito.when(adapter.getInvocation()).thenReturn(Mockito.mock(RpcInvocation.class));
+        Mockito.when(RpcUtils.getInvokeMode(any(), any())).thenReturn(InvokeMode.FUTURE);
+        try {
+            Mockito.when(MockUtils.replayBodyAsync(any())).thenReturn(CompletableFuture.completedFuture("mock"));
+            MockResult mockResult = target.replay();
+            assertEquals("mock", ((Result) mockResult.getResult()).getValue());
+        } finally {
+            Mockito.when(RpcUtils.getInvokeMode(any(), any())).thenReturn(null);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.agent.bootstrap.model.Mocker;
 import io.arex.agent.bootstrap.util.ArrayUtils;
+import io.arex.agent.bootstrap.util.HashUtil;
 import io.arex.agent.bootstrap.util.StringUtil;
 import io.arex.inst.serializer.ProtoJsonSerializer;
 import io.arex.inst.dynamic.common.listener.ListenableFutureAdapter;
@@ -13,6 +14,7 @@ import io.arex.inst.runtime.config.Config;
 import io.arex.inst.runtime.context.ArexContext;
 import io.arex.inst.runtime.context.ContextManager;
 import io.arex.inst.runtime.model.DynamicClassEntity;
+import io.arex.inst.runtime.serializer.AsyncSerializer;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.util.IgnoreUtils;
 import io.arex.inst.runtime.util.LogUtil;
@@ -22,7 +24,6 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import org.slf4j.Logger;
@@ -44,9 +45,9 @@ public class DynamicClassExtractor {
     private String serializedResult;
     private Object result;
     private String resultClazz;
-    private String methodSignatureKey;
+    private boolean methodSignatureHashed;
     private final String methodReturnType;
-    private int methodSignatureKeyHash;
+    private long methodSignatureKeyHash;
     private final Class<?> actualType;
     private final Object[] args;
 
@@ -79,6 +80,11 @@ public class DynamicClassExtractor {
             if (isProtobufObject(response)) {
                 mocker.getTargetResponse().setAttribute("Format", PROTOCOL_BUFFERS);
                 this.serializedResult = ProtoJsonSerializer.getInstance().serialize(this.result);
+            } else if (AsyncSerializer.isEnabled() && AsyncSerializer.isSafe(this.result)) {
+                // serialized by the serialize workers, the result is not kept as a string here
+                MockUtils.recordMocker(mocker, this.result, SERIALIZER, false);
+                cacheMethodSignature();
+                return;
             } else {
                 this.serializedResult = Serializer.serialize(this.result, SERIALIZER);
             }
@@ -259,11 +265,11 @@ public class DynamicClassExtractor {
          * */
         ArexContext context = ContextManager.currentContext();
         if (context != null && methodKey != null) {
-            this.methodSignatureKey = buildDuplicateMethodKey();
-            this.methodSignatureKeyHash = StringUtil.encodeAndHash(methodSignatureKey);
-            if (context.getMethodSignatureHashList().contains(methodSignatureKeyHash)) {
-                LOGGER.warn("{}do not record method, cuz exist same method signature:{}",
-                        logTitle, methodSignatureKey);
+            this.methodSignatureKeyHash = hashMethodSignature(clazzName, methodName, methodKey, result);
+            this.methodSignatureHashed = true;
+            if (context.getMethodSignatureHashes().contains(methodSignatureKeyHash)) {
+                LOGGER.debug("{}do not record method, cuz exist same method signature: {}.{}",
+                        logTitle, clazzName, methodName);
                 return false;
             }
         }
@@ -282,8 +288,8 @@ public class DynamicClassExtractor {
                 size = Array.getLength(result);
             }
             if (size > RESULT_SIZE_MAX) {
-                LOGGER.warn("{} do not record method, cuz result size:{} > max limit: {}, method info: {}",
-                    logTitle, size, RESULT_SIZE_MAX, methodSignatureKey);
+                LOGGER.warn("{} do not record method, cuz result size:{} > max limit: {}, method info: {}.{}",
+                    logTitle, size, RESULT_SIZE_MAX, clazzName, methodName);
                 return false;
             }
         } catch (Throwable e) {
@@ -292,11 +298,14 @@ public class DynamicClassExtractor {
         return true;
     }
 
-    private String buildDuplicateMethodKey() {
-        if (Objects.isNull(result)) {
-            return String.format("%s_%s_%s_no_result", clazzName, methodName, methodKey);
-        }
-        return String.format("%s_%s_%s_has_result_%s", clazzName, methodName, methodKey, result.getClass().getName());
+    /**
+     * Streaming 64-bit hash of class, method, args key and result class, a null result hashes as a null class name
+     */
+    static long hashMethodSignature(String clazzName, String methodName, String methodKey, Object result) {
+        long hash = HashUtil.fnv64(clazzName);
+        hash = HashUtil.fnv64(hash, methodName);
+        hash = HashUtil.fnv64(hash, methodKey);
+        return HashUtil.fnv64(hash, result == null ? null : result.getClass().getName());
     }
 
     /**
@@ -304,8 +313,8 @@ public class DynamicClassExtractor {
      */
     private void cacheMethodSignature() {
         ArexContext context = ContextManager.currentContext();
-        if (context != null && this.methodKey != null && this.methodSignatureKey != null) {
-            context.getMethodSignatureHashList().add(this.methodSignatureKeyHash);
+        if (context != null && this.methodKey != null && this.methodSignatureHashed) {
+            context.getMethodSignatureHashes().add(this.methodSignatureKeyHash);
         }
     }
 
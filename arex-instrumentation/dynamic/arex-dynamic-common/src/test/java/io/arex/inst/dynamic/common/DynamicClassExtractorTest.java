@@ -9,7 +9,7 @@ import io.arex.inst.runtime.config.ConfigBuilder;
 import io.arex.inst.runtime.context.ArexContext;
 import io.arex.inst.runtime.context.ContextManager;
 import io.arex.agent.bootstrap.model.MockResult;
-import io.arex.agent.bootstrap.util.StringUtil;
+import io.arex.agent.bootstrap.util.ConcurrentLongHashSet;
 import io.arex.inst.runtime.model.DynamicClassEntity;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.util.IgnoreUtils;
@@ -93,16 +93,15 @@ class DynamicClassExtractorTest {
         ArexContext context = Mockito.mock(ArexContext.class);
         Mockito.when(ContextManager.currentContext()).thenReturn(context);
         Runnable signatureContains = () -> {
-            List<Integer> methodSignatureHashList = new ArrayList<>();
-            methodSignatureHashList.add(StringUtil.encodeAndHash(
-                "io.arex.inst.dynamic.common.DynamicClassExtractorTest_testWithArexMock_mock Serializer.serialize_no_result"
-            ));
-            Mockito.when(context.getMethodSignatureHashList()).thenReturn(methodSignatureHashList);
+            ConcurrentLongHashSet methodSignatureHashes = new ConcurrentLongHashSet();
+            methodSignatureHashes.add(DynamicClassExtractor.hashMethodSignature(
+                "io.arex.inst.dynamic.common.DynamicClassExtractorTest", "testWithArexMock", "mock Serializer.serialize", null));
+            Mockito.when(context.getMethodSignatureHashes()).thenReturn(methodSignatureHashes);
             Mockito.when(Serializer.serialize(any(), anyString())).thenReturn("mock Serializer.serialize");
         };
 
         Runnable resultIsNull = () -> {
-            Mockito.when(context.getMethodSignatureHashList()).thenReturn(new ArrayList<>());
+            Mockito.when(context.getMethodSignatureHashes()).thenReturn(new ConcurrentLongHashSet());
         };
 
         Predicate<Object> isNull = Objects::isNull;
@@ -164,13 +163,12 @@ class DynamicClassExtractorTest {
 
     @Test
     void testSetFutureResponse() throws NoSuchMethodException {
-        List<Integer> methodSignatureHashList = new ArrayList<>();
-        methodSignatureHashList.add(StringUtil.encodeAndHash(
-            "io.arex.inst.dynamic.common.DynamicClassExtractorTest_testReturnListenableFuture_mock_has_result_java.lang.String"
-        ));
+        ConcurrentLongHashSet methodSignatureHashes = new ConcurrentLongHashSet();
+        methodSignatureHashes.add(DynamicClassExtractor.hashMethodSignature(
+            "io.arex.inst.dynamic.common.DynamicClassExtractorTest", "testReturnListenableFuture", "mock", "result"));
         ArexContext context = Mockito.mock(ArexContext.class);
         Mockito.when(ContextManager.currentContext()).thenReturn(context);
-        Mockito.when(context.getMethodSignatureHashList()).thenReturn(methodSignatureHashList);
+        Mockito.when(context.getMethodSignatureHashes()).thenReturn(methodSignatureHashes);
 
         Method testReturnListenableFuture = DynamicClassExtractorTest.class.getDeclaredMethod("testReturnListenableFuture", String.class, Throwable.class);
         DynamicClassExtractor extractor = new DynamicClassExtractor(testReturnListenableFuture, new Object[]{"mock", null}, "#val", null);
@@ -4,6 +4,7 @@ import com.google.protobuf.AbstractMessage.Builder;
 import com.google.protobuf.util.JsonFormat;
 import com.google.protobuf.AbstractMessage;
 import io.arex.agent.bootstrap.util.StringUtil;
+import io.arex.inst.runtime.serializer.CollectionSerializer;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.serializer.StringSerializable;
 import io.arex.inst.runtime.util.LogUtil;
@@ -40,13 +41,8 @@ public class ProtoJsonSerializer implements StringSerializable{
     public String serialize(Object object) {
         try {
             if (object instanceof Collection<?>) {
-                StringBuilder jsonBuilder = new StringBuilder();
-                Collection<?> ans = (Collection<?>) object;
-                for (Object innerObject : ans) {
-                    jsonBuilder.append(serialize(innerObject));
-                    jsonBuilder.append(Serializer.SERIALIZE_SEPARATOR);
-                }
-                return jsonBuilder.toString();
+                return CollectionSerializer.join((Collection<?>) object, this::serialize,
+                    Serializer.SERIALIZE_SEPARATOR, true);
             }
             return JSON_PRINTER.print((AbstractMessage) object);
         } catch (Throwable e) {
@@ -9,7 +9,10 @@ import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.concurrent.BasicFuture;
 import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,6 +24,9 @@ public class FutureCallbackWrapper<T> implements FutureCallback<T> {
     // Maybe null, Just to pass the trace
     private final HttpClientExtractor<HttpRequest, HttpResponse> extractor;
 
+    // Not null after an async replay, the future returned to the caller
+    private volatile BasicFuture<T> replayFuture;
+
     public FutureCallbackWrapper(FutureCallback<T> delegate) {
         this(null, delegate);
     }
@@ -38,7 +44,11 @@ public class FutureCallbackWrapper<T> implements FutureCallback<T> {
                 HttpResponse response = (HttpResponse) t;
                 extractor.record(response);
             }
-            delegate.completed(t);
+            if (replayFuture != null) {
+                replayFuture.completed(t);
+            } else {
+                delegate.completed(t);
+            }
         }
     }
 
@@ -48,14 +58,22 @@ public class FutureCallbackWrapper<T> implements FutureCallback<T> {
             if (extractor != null) {
                 extractor.record(e);
             }
-            delegate.failed(e);
+            if (replayFuture != null) {
+                replayFuture.failed(e);
+            } else {
+                delegate.failed(e);
+            }
         }
     }
 
     @Override
     public void cancelled() {
         try (TraceTransmitter tm = traceTransmitter.transmit()) {
-            delegate.cancelled();
+            if (replayFuture != null) {
+                replayFuture.cancel();
+            } else {
+                delegate.cancelled();
+            }
         }
     }
 
@@ -65,12 +83,46 @@ public class FutureCallbackWrapper<T> implements FutureCallback<T> {
 
     public Future<T> replay(MockResult mockResult) {
         BasicFuture<T> basicFuture = new BasicFuture<>(this.delegate);
+        complete(basicFuture, mockResult);
+        return basicFuture;
+    }
+
+    /**
+     * Replay without blocking the caller: the returned future is completed from the replay response,
+     * or the request is executed by the client if there is no usable mock.
+     */
+    public Future<T> replayAsync(HttpAsyncClient client, HttpAsyncRequestProducer requestProducer,
+        HttpAsyncResponseConsumer<T> responseConsumer, HttpContext context) {
+        BasicFuture<T> future = new BasicFuture<>(this.delegate);
+        TraceTransmitter replayTransmitter = TraceTransmitter.create();
+        extractor.replayAsync().whenComplete((mockResult, throwable) -> {
+            try (TraceTransmitter tm = replayTransmitter.transmit()) {
+                if (mockResult != null && mockResult.notIgnoreMockResult()) {
+                    complete(future, mockResult);
+                    return;
+                }
+                this.replayFuture = future;
+                client.execute(requestProducer, responseConsumer, context, this);
+            } catch (Exception e) {
+                future.failed(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * The request is executed after an async replay without usable mock
+     */
+    public boolean isReplayFallback() {
+        return replayFuture != null;
+    }
+
+    private void complete(BasicFuture<T> future, MockResult mockResult) {
         if (mockResult.getThrowable() != null) {
-            basicFuture.failed((Exception) mockResult.getThrowable());
-        } else{
-            basicFuture.completed((T) mockResult.getResult());
+            future.failed((Exception) mockResult.getThrowable());
+        } else {
+            future.completed((T) mockResult.getResult());
         }
-        return basicFuture;
     }
 
     public static <T> FutureCallbackWrapper<T> get(HttpAsyncRequestProducer requestProducer, FutureCallback<T> delegate) {
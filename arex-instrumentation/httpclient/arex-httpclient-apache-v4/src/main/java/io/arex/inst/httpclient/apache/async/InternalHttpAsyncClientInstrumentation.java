@@ -1,6 +1,5 @@
 package io.arex.inst.httpclient.apache.async;
 
-import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.inst.httpclient.apache.common.ApacheHttpClientHelper;
 import io.arex.inst.runtime.context.ContextManager;
 import io.arex.inst.runtime.context.RepeatedCollectManager;
@@ -10,7 +9,10 @@ import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.type.TypeDescription;
 import net.bytebuddy.matcher.ElementMatcher;
 import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
 
 import java.util.List;
 import java.util.concurrent.Future;
@@ -43,9 +45,17 @@ public class InternalHttpAsyncClientInstrumentation extends TypeInstrumentation
     @SuppressWarnings("unused")
     public static class ExecuteAdvice {
         @Advice.OnMethodEnter(skipOn = Advice.OnNonDefaultValue.class, suppress = Throwable.class)
-        public static boolean onEnter(@Advice.Argument(0) HttpAsyncRequestProducer producer,
+        public static boolean onEnter(@Advice.This HttpAsyncClient client,
+            @Advice.Argument(0) HttpAsyncRequestProducer producer,
+            @Advice.Argument(1) HttpAsyncResponseConsumer<?> consumer,
+            @Advice.Argument(2) HttpContext context,
             @Advice.Argument(value = 3, readOnly = false) FutureCallback<?> callback,
-            @Advice.Local("mockResult") MockResult mockResult) {
+            @Advice.Local("replayFuture") Future<?> replayFuture) {
+            if (callback instanceof FutureCallbackWrapper && ((FutureCallbackWrapper<?>) callback).isReplayFallback()) {
+                // executed again by the wrapper after a replay without usable mock
+                return false;
+            }
+
             try {
                 if (ApacheHttpClientHelper.ignoreRequest(producer.generateRequest())) {
                     callback = FutureCallbackWrapper.wrap(callback);
@@ -58,12 +68,12 @@ public class InternalHttpAsyncClientInstrumentation extends TypeInstrumentation
 
             if (ContextManager.needRecordOrReplay() && RepeatedCollectManager.validate()) {
                 // recording works in callback wrapper
-                FutureCallbackWrapper<?> callbackWrapper = FutureCallbackWrapper.get(producer, callback);
+                FutureCallbackWrapper callbackWrapper = FutureCallbackWrapper.get(producer, callback);
                 if (callbackWrapper != null) {
                     callback = callbackWrapper;
                     if (ContextManager.needReplay()) {
-                        mockResult = ((FutureCallbackWrapper<?>)callback).replay();
-                        return mockResult != null && mockResult.notIgnoreMockResult();
+                        replayFuture = callbackWrapper.replayAsync(client, producer, consumer, context);
+                        return replayFuture != null;
                     }
                 }
             } else {
@@ -73,13 +83,10 @@ public class InternalHttpAsyncClientInstrumentation extends TypeInstrumentation
         }
 
         @Advice.OnMethodExit(suppress = Throwable.class)
-        public static void onExit(@Advice.Argument(value = 3, readOnly = false) FutureCallback<?> callback,
-            @Advice.Return(readOnly = false) Future<?> future,
-            @Advice.Local("mockResult") MockResult mockResult) {
-            if (callback instanceof FutureCallbackWrapper &&
-                mockResult != null && mockResult.notIgnoreMockResult()) {
-                FutureCallbackWrapper<?> callbackWrapper = (FutureCallbackWrapper<?>) callback;
-                future = callbackWrapper.replay(mockResult);
+        public static void onExit(@Advice.Return(readOnly = false) Future<?> future,
+            @Advice.Local("replayFuture") Future<?> replayFuture) {
+            if (replayFuture != null) {
+                future = replayFuture;
             }
         }
     }
@@ -1,6 +1,8 @@
 package io.arex.inst.httpclient.apache.async;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -16,7 +18,9 @@ import io.arex.inst.runtime.context.ContextManager;
 
 import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -25,6 +29,7 @@ import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.client.HttpAsyncClient;
 import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -94,6 +99,26 @@ class FutureCallbackWrapperTest {
         });
     }
 
+    @Test
+    void testReplayAsync() throws Exception {
+        HttpClientExtractor<HttpRequest, HttpResponse> replayExtractor = Mockito.mock(HttpClientExtractor.class);
+        HttpAsyncClient client = Mockito.mock(HttpAsyncClient.class);
+        FutureCallbackWrapper<HttpResponse> wrapper = new FutureCallbackWrapper<>(replayExtractor, delegate);
+
+        Mockito.when(replayExtractor.replayAsync()).thenReturn(CompletableFuture.completedFuture(MockResult.success("mock")));
+        assertEquals("mock", wrapper.replayAsync(client, null, null, null).get());
+        assertFalse(wrapper.isReplayFallback());
+
+        // no usable mock, the request is executed and completes the returned future
+        Mockito.when(replayExtractor.replayAsync()).thenReturn(CompletableFuture.completedFuture(null));
+        Future<HttpResponse> future = wrapper.replayAsync(client, null, null, null);
+        verify(client).execute((HttpAsyncRequestProducer) null, null, null, wrapper);
+        assertTrue(wrapper.isReplayFallback());
+        HttpResponse response = Mockito.mock(HttpResponse.class);
+        wrapper.completed(response);
+        assertEquals(response, future.get());
+    }
+
     @ParameterizedTest
     @MethodSource("getCase")
     void get(FutureCallback delegate, boolean skip, Predicate<FutureCallbackWrapper> predicate, HttpAsyncRequestProducer requestProducer) {
@@ -8,7 +8,6 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mockStatic;
 
-import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.inst.runtime.context.ContextManager;
 import io.arex.inst.runtime.context.RepeatedCollectManager;
 import io.arex.inst.runtime.util.IgnoreUtils;
@@ -16,6 +15,7 @@ import java.io.IOException;
 import org.apache.http.HttpException;
 import org.apache.http.HttpRequest;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.BasicFuture;
 import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -54,12 +54,12 @@ class InternalHttpAsyncClientInstrumentationTest {
     void onEnter() throws HttpException, IOException {
         HttpAsyncRequestProducer producer1 = Mockito.mock(HttpAsyncRequestProducer.class);
         Mockito.when(producer1.generateRequest()).thenThrow(new RuntimeException("mock exception"));
-        boolean actualResult = InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onEnter(producer1, null, null);
+        boolean actualResult = InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onEnter(null, producer1, null, null, null, null);
         assertFalse(actualResult);
 
         HttpAsyncRequestProducer producer2 = Mockito.mock(HttpAsyncRequestProducer.class);
         Mockito.when(producer2.generateRequest()).thenReturn(Mockito.mock(HttpRequest.class));
-        actualResult = InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onEnter(producer2, null, null);
+        actualResult = InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onEnter(null, producer2, null, null, null, null);
         assertFalse(actualResult);
 
         try (MockedStatic<ContextManager> contextManager = mockStatic(ContextManager.class);
@@ -69,7 +69,7 @@ class InternalHttpAsyncClientInstrumentationTest {
             Mockito.when(producer2.generateRequest()).thenReturn(new HttpPost("localhost"));
             ignoreUtils.when(() -> IgnoreUtils.ignoreOperation(any())).thenReturn(false);
             contextManager.when(ContextManager::needRecordOrReplay).thenReturn(false);
-            actualResult = InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onEnter(producer2, null, null);
+            actualResult = InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onEnter(null, producer2, null, null, null, null);
             assertFalse(actualResult);
 
             repeatedCollectManager.when(RepeatedCollectManager::validate).thenReturn(true);
@@ -78,19 +78,23 @@ class InternalHttpAsyncClientInstrumentationTest {
 
             FutureCallbackWrapper wrapper = Mockito.mock(FutureCallbackWrapper.class);
             Mockito.when(FutureCallbackWrapper.get(any(), any())).thenReturn(wrapper);
-            Mockito.when(wrapper.replay()).thenReturn(MockResult.success("mock"));
+            Mockito.when(wrapper.replayAsync(any(), any(), any(), any())).thenReturn(new BasicFuture<>(null));
 
-            actualResult = InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onEnter(producer2, null, null);
+            actualResult = InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onEnter(null, producer2, null, null, null, null);
             assertTrue(actualResult);
+
+            // executed again by the wrapper after a replay miss
+            Mockito.when(wrapper.isReplayFallback()).thenReturn(true);
+            actualResult = InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onEnter(null, producer2, null, null, wrapper, null);
+            assertFalse(actualResult);
         }
     }
 
     @Test
     void onExit() {
-        FutureCallbackWrapper<?> callbackWrapper = new FutureCallbackWrapper<>(null, null);
-        MockResult mockResult = MockResult.success("mock");
         assertDoesNotThrow(() -> {
-            InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onExit(callbackWrapper, null, mockResult);
+            InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onExit(null, null);
+            InternalHttpAsyncClientInstrumentation.ExecuteAdvice.onExit(null, new BasicFuture<>(null));
         });
     }
-}
\ No newline at end of file
+}
@@ -11,10 +11,10 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class HttpClientExtractor<TRequest, TResponse> {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientExtractor.class);
@@ -39,8 +39,8 @@ public class HttpClientExtractor<TRequest, TResponse> {
 
         Mocker mocker = makeMocker();
         mocker.getTargetResponse().setType(HttpResponseWrapper.class.getName());
-        mocker.getTargetResponse().setBody(Serializer.serialize(wrapped));
-        MockUtils.recordMocker(mocker);
+        // the wrapper is a copy of the response, it can be serialized once the call returned
+        MockUtils.recordMocker(mocker, wrapped, null, true);
     }
 
     public void record(Throwable throwable) {
@@ -53,6 +53,19 @@ public class HttpClientExtractor<TRequest, TResponse> {
     public MockResult replay() {
         boolean ignoreResult = IgnoreUtils.ignoreMockResult("http", adapter.getUri().getPath());
         Object object = MockUtils.replayBody(makeMocker());
+        return toMockResult(ignoreResult, object);
+    }
+
+    /**
+     * Non-blocking replay for async clients, the future completes on the storage client thread
+     * with null when there is no usable mock.
+     */
+    public CompletableFuture<MockResult> replayAsync() {
+        boolean ignoreResult = IgnoreUtils.ignoreMockResult("http", adapter.getUri().getPath());
+        return MockUtils.replayBodyAsync(makeMocker()).thenApply(object -> toMockResult(ignoreResult, object));
+    }
+
+    private MockResult toMockResult(boolean ignoreResult, Object object) {
         if (object instanceof Throwable) {
             return MockResult.success(ignoreResult, object);
         }
@@ -73,18 +86,19 @@ public class HttpClientExtractor<TRequest, TResponse> {
         attributes.put("QueryString", adapter.getUri().getQuery());
         attributes.put("ContentType", adapter.getRequestContentType());
 
-        mocker.getTargetRequest().setBody(this.encodeRequest(httpMethod));
+        this.encodeRequest(httpMethod, mocker.getTargetRequest());
         return mocker;
     }
 
-    private String encodeRequest(String httpMethod) {
+    private void encodeRequest(String httpMethod, Mocker.Target target) {
         if (ALLOW_HTTP_METHOD_BODY_SETS.contains(httpMethod)) {
             byte[] bytes = adapter.getRequestBytes();
             if (bytes != null) {
-                return Base64.getEncoder().encodeToString(bytes);
+                target.setBodyBytes(bytes);
+                return;
             }
         }
-        return adapter.getUri().getQuery();
+        target.setBody(adapter.getUri().getQuery());
     }
 
     private final static List<String> ALLOW_HTTP_METHOD_BODY_SETS;
@@ -95,8 +95,12 @@ public class OkHttpCallInstrumentation extends TypeInstrumentation {
     public static final class EnqueueAdvice {
         @Advice.OnMethodEnter(skipOn = Advice.OnNonDefaultValue.class, suppress = Throwable.class)
         public static boolean onEnter(@Advice.This Call call,
-            @Advice.Argument(value = 0, readOnly = false) Callback callback,
-            @Advice.Local("mockResult") MockResult mockResult) {
+            @Advice.Argument(value = 0, readOnly = false) Callback callback) {
+            if (callback instanceof OkHttpCallbackWrapper) {
+                // enqueued again by the wrapper after a replay without usable mock
+                return false;
+            }
+
             if (IgnoreUtils.ignoreOperation(call.request().url().uri().getPath())) {
                 return false;
             }
@@ -105,21 +109,12 @@ public class OkHttpCallInstrumentation extends TypeInstrumentation {
                 // recording works in callback wrapper
                 callback = new OkHttpCallbackWrapper(call, callback);
                 if (ContextManager.needReplay()) {
-                    mockResult = ((OkHttpCallbackWrapper) callback).replay();
-                    return mockResult != null && mockResult.notIgnoreMockResult();
+                    // the wrapper completes the callback from the replay response without blocking the caller
+                    ((OkHttpCallbackWrapper) callback).replayAsync();
+                    return true;
                 }
             }
             return false;
         }
-
-        @Advice.OnMethodExit(suppress = Throwable.class)
-        public static void onExit(@Advice.Argument(value = 0) Callback callback,
-            @Advice.Local("mockResult") MockResult mockResult) {
-            if (callback instanceof OkHttpCallbackWrapper &&
-                mockResult != null && mockResult.notIgnoreMockResult()) {
-                OkHttpCallbackWrapper callbackWrapper = (OkHttpCallbackWrapper) callback;
-                callbackWrapper.replay(mockResult);
-            }
-        }
     }
 }
\ No newline at end of file
@@ -9,14 +9,18 @@ import okhttp3.Callback;
 import okhttp3.Request;
 import okhttp3.Response;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 
 public class OkHttpCallbackWrapper implements Callback {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OkHttpCallbackWrapper.class);
     private final Call call;
     private final HttpClientExtractor<Request, Response> extractor;
     private final Callback delegate;
     private final TraceTransmitter traceTransmitter;
+    private volatile boolean replayed;
 
     public OkHttpCallbackWrapper(Call call, Callback delegate) {
         this(call, delegate, new HttpClientExtractor<>(new OkHttpClientAdapter(call.request())));
@@ -52,15 +56,46 @@ public class OkHttpCallbackWrapper implements Callback {
         return extractor.replay();
     }
 
+    /**
+     * Complete the callback from the replay response, or enqueue the call if there is no usable mock.
+     * Nobody reads the returned future: a failure before the callback was called is delivered to onFailure,
+     * otherwise the application would wait forever.
+     */
+    public void replayAsync() {
+        TraceTransmitter replayTransmitter = TraceTransmitter.create();
+        extractor.replayAsync().whenComplete((mockResult, throwable) -> {
+            try (TraceTransmitter tm = replayTransmitter.transmit()) {
+                if (mockResult != null && mockResult.notIgnoreMockResult()) {
+                    replay(mockResult);
+                } else {
+                    this.call.enqueue(this);
+                }
+            } catch (Throwable ex) {
+                LOGGER.warn("okhttp async replay error:{}", ex.getMessage(), ex);
+                if (!replayed) {
+                    this.delegate.onFailure(this.call, toIOException(ex));
+                }
+            }
+        });
+    }
+
     public void replay(MockResult mockResult) {
         if (mockResult.getThrowable() != null) {
-            this.delegate.onFailure(this.call, (IOException) mockResult.getThrowable());
+            IOException exception = toIOException(mockResult.getThrowable());
+            replayed = true;
+            this.delegate.onFailure(this.call, exception);
         } else {
+            Response response = (Response) mockResult.getResult();
+            replayed = true;
             try {
-                this.delegate.onResponse(this.call, (Response) mockResult.getResult());
+                this.delegate.onResponse(this.call, response);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
         }
     }
+
+    private static IOException toIOException(Throwable throwable) {
+        return throwable instanceof IOException ? (IOException) throwable : new IOException(throwable);
+    }
 }
\ No newline at end of file
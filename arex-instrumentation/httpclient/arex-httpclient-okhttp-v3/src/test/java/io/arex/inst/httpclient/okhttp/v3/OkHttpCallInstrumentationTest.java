@@ -86,39 +86,32 @@ public class OkHttpCallInstrumentationTest {
         Call call = Mockito.mock(Call.class);
         when(call.request()).thenReturn(OkHttpCallbackWrapperTest.createRequest());
         Callback callback = Mockito.mock(Callback.class);
-        MockResult mockResult = MockResult.success("mock");
-        try (MockedConstruction<OkHttpCallbackWrapper> mocked = Mockito.mockConstruction(OkHttpCallbackWrapper.class, (mock, context) -> {
-            Mockito.when(mock.replay()).thenReturn(mockResult);
-        })) {
+        try (MockedConstruction<OkHttpCallbackWrapper> mocked = Mockito.mockConstruction(OkHttpCallbackWrapper.class)) {
             try (MockedStatic<ContextManager> contextManager = mockStatic(ContextManager.class);
                 MockedStatic<RepeatedCollectManager> repeatedCollectManager = mockStatic(RepeatedCollectManager.class);
                 MockedStatic<IgnoreUtils> ignoreUtils = mockStatic(IgnoreUtils.class)) {
                 ignoreUtils.when(() -> IgnoreUtils.ignoreOperation(any())).thenReturn(true);
 
-                boolean actualResult = OkHttpCallInstrumentation.EnqueueAdvice.onEnter(call, null, null);
+                boolean actualResult = OkHttpCallInstrumentation.EnqueueAdvice.onEnter(call, null);
                 assertFalse(actualResult);
 
                 ignoreUtils.when(() -> IgnoreUtils.ignoreOperation(any())).thenReturn(false);
                 contextManager.when(ContextManager::needRecordOrReplay).thenReturn(false);
-                boolean actResult = OkHttpCallInstrumentation.EnqueueAdvice.onEnter(call, callback, mockResult);
+                boolean actResult = OkHttpCallInstrumentation.EnqueueAdvice.onEnter(call, callback);
                 Assertions.assertFalse(actResult);
 
                 repeatedCollectManager.when(RepeatedCollectManager::validate).thenReturn(true);
                 contextManager.when(ContextManager::needRecordOrReplay).thenReturn(true);
                 contextManager.when(ContextManager::needReplay).thenReturn(true);
 
-                actResult = OkHttpCallInstrumentation.EnqueueAdvice.onEnter(call, callback, mockResult);
+                actResult = OkHttpCallInstrumentation.EnqueueAdvice.onEnter(call, callback);
                 Assertions.assertTrue(actResult);
+                verify(mocked.constructed().get(0)).replayAsync();
+
+                // enqueued again by the wrapper
+                actResult = OkHttpCallInstrumentation.EnqueueAdvice.onEnter(call, mocked.constructed().get(0));
+                Assertions.assertFalse(actResult);
             }
         }
     }
-
-    @Test
-    void enqueueAdviceExitTest() {
-        MockResult mockResult = MockResult.success("mock");
-        OkHttpCallbackWrapper callbackWrapper = Mockito.mock(OkHttpCallbackWrapper.class);
-
-        OkHttpCallInstrumentation.EnqueueAdvice.onExit(callbackWrapper, mockResult);
-        verify(callbackWrapper).replay(mockResult);
-    }
-}
\ No newline at end of file
+}
@@ -9,6 +9,7 @@ import static org.mockito.Mockito.verify;
 import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.inst.httpclient.common.HttpClientExtractor;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.MediaType;
@@ -73,6 +74,39 @@ public class OkHttpCallbackWrapperTest {
         assertNotNull(result);
     }
 
+    @Test
+    void testReplayAsync() throws IOException {
+        Mockito.when(httpClientExtractor.replayAsync())
+            .thenReturn(CompletableFuture.completedFuture(MockResult.success(createResponse())));
+        okHttpCallbackWrapper.replayAsync();
+        verify(delegate).onResponse(any(), any());
+
+        Mockito.when(httpClientExtractor.replayAsync()).thenReturn(CompletableFuture.completedFuture(null));
+        okHttpCallbackWrapper.replayAsync();
+        verify(call).enqueue(okHttpCallbackWrapper);
+    }
+
+    @Test
+    void testReplayAsyncFailure() {
+        // the recorded result can not be cast to a response
+        Mockito.when(httpClientExtractor.replayAsync())
+            .thenReturn(CompletableFuture.completedFuture(MockResult.success("mock")));
+        okHttpCallbackWrapper.replayAsync();
+        verify(delegate).onFailure(Mockito.eq(call), Mockito.any(IOException.class));
+
+        Mockito.when(httpClientExtractor.replayAsync()).thenReturn(CompletableFuture.completedFuture(null));
+        Mockito.doThrow(new IllegalStateException("mock")).when(call).enqueue(okHttpCallbackWrapper);
+        okHttpCallbackWrapper.replayAsync();
+        verify(delegate, Mockito.times(2)).onFailure(Mockito.eq(call), Mockito.any(IOException.class));
+    }
+
+    @Test
+    void testReplayNotIOException() {
+        okHttpCallbackWrapper.replay(MockResult.success(new IllegalStateException("mock")));
+        verify(delegate).onFailure(Mockito.eq(call),
+            Mockito.argThat(e -> e.getCause() instanceof IllegalStateException));
+    }
+
     @Test
     void testReplayWithMockResult() throws IOException {
         okHttpCallbackWrapper.replay(MockResult.success(createResponse()));
@@ -1,6 +1,5 @@
 package io.arex.inst.httpclient.webclient.v5;
 
-import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.inst.extension.MethodInstrumentation;
 import io.arex.inst.extension.TypeInstrumentation;
 import io.arex.inst.runtime.context.ContextManager;
@@ -40,36 +39,31 @@ public class WebClientInstrumentation extends TypeInstrumentation {
     public static final class ExchangeAdvice {
         private ExchangeAdvice() {}
 
-        @Advice.OnMethodEnter(skipOn = Advice.OnNonDefaultValue.class, suppress = Throwable.class)
-        public static boolean onEnter(@Advice.Argument(0) ClientRequest clientRequest,
-                                      @Advice.FieldValue("strategies") ExchangeStrategies strategies,
-                                      @Advice.Local("wrapper") WebClientWrapper wrapper,
-                                      @Advice.Local("mockResult") MockResult mockResult) {
+        @Advice.OnMethodEnter(suppress = Throwable.class)
+        public static void onEnter(@Advice.Argument(0) ClientRequest clientRequest,
+                                   @Advice.FieldValue("strategies") ExchangeStrategies strategies,
+                                   @Advice.Local("wrapper") WebClientWrapper wrapper) {
             if (IgnoreUtils.ignoreOperation(clientRequest.url().getPath())) {
-                return false;
+                return;
             }
 
             if (ContextManager.needRecordOrReplay()) {
                 RepeatedCollectManager.enter();
                 wrapper = new WebClientWrapper(clientRequest, strategies);
-                if (ContextManager.needReplay()) {
-                    mockResult = wrapper.replay();
-                }
             }
-            return mockResult != null && mockResult.notIgnoreMockResult();
         }
 
         @Advice.OnMethodExit(suppress = Throwable.class)
         public static void onExit(
                 @Advice.Local("wrapper") WebClientWrapper wrapper,
-                @Advice.Local("mockResult") MockResult mockResult,
                 @Advice.Return(readOnly = false) Mono<ClientResponse> response) {
             if (wrapper == null || !RepeatedCollectManager.exitAndValidate()) {
                 return;
             }
 
-            if (mockResult != null && mockResult.notIgnoreMockResult()) {
-                response = wrapper.replay(mockResult);
+            // the exchange is lazy, replay decides on subscription whether the real request is sent
+            if (ContextManager.needReplay()) {
+                response = wrapper.replay(response);
                 return;
             }
             if (ContextManager.needRecord()) {
@@ -16,6 +16,8 @@ import reactor.core.publisher.Mono;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public class WebClientWrapper {
     private final ClientRequest httpRequest;
@@ -90,11 +92,23 @@ public class WebClientWrapper {
         adapter.setHttpRequest(request);
     }
 
-    public MockResult replay() {
+    /**
+     * Query the mock without blocking the caller, the original exchange is only subscribed
+     * if there is no usable mock, and at most once. A failed query or an unusable recorded
+     * response is signalled as an error, the returned mono always terminates.
+     */
+    public Mono<ClientResponse> replay(Mono<ClientResponse> responseMono) {
+        CompletableFuture<MockResult> replayFuture;
         try (TraceTransmitter tm = traceTransmitter2.transmit()) {
             convertRequest();
-            return extractor.replay();
+            replayFuture = extractor.replayAsync();
         }
+        Mono<ClientResponse> originalMono = responseMono == null ? Mono.empty() : responseMono;
+        return Mono.fromFuture(replayFuture)
+                .filter(MockResult::notIgnoreMockResult)
+                .map(this::replay)
+                .defaultIfEmpty(originalMono)
+                .flatMap(Function.identity());
     }
 
     public Mono<ClientResponse> replay(MockResult mockResult) {
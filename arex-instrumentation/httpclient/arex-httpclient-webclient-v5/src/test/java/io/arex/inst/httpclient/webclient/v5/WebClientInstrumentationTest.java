@@ -1,6 +1,5 @@
 package io.arex.inst.httpclient.webclient.v5;
 
-import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.inst.runtime.context.ContextManager;
 import io.arex.inst.runtime.context.RepeatedCollectManager;
 import io.arex.inst.runtime.util.IgnoreUtils;
@@ -22,6 +21,8 @@ import java.util.Objects;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
@@ -60,41 +61,49 @@ class WebClientInstrumentationTest {
         ClientRequest request = Mockito.mock(ClientRequest.class);
         Mockito.when(request.url()).thenReturn(new URL("http://localhost").toURI());
 
-        try (MockedConstruction<WebClientWrapper> mocked = Mockito.mockConstruction(WebClientWrapper.class, (mock, context) -> {
-            Mockito.when(mock.replay()).thenReturn(MockResult.success(false, null));
-        })) {
+        try (MockedConstruction<WebClientWrapper> mocked = Mockito.mockConstruction(WebClientWrapper.class)) {
             Mockito.when(ContextManager.needRecordOrReplay()).thenReturn(true);
-            Mockito.when(ContextManager.needReplay()).thenReturn(true);
-            assertTrue(WebClientInstrumentation.ExchangeAdvice.onEnter(request, null, null, null));
+            WebClientInstrumentation.ExchangeAdvice.onEnter(request, null, null);
+            assertEquals(1, mocked.constructed().size());
 
             Mockito.when(IgnoreUtils.ignoreOperation(any())).thenReturn(true);
-            assertFalse(WebClientInstrumentation.ExchangeAdvice.onEnter(request, null, null, null));
+            WebClientInstrumentation.ExchangeAdvice.onEnter(request, null, null);
+            assertEquals(1, mocked.constructed().size());
         }
     }
 
     @ParameterizedTest
     @MethodSource("onExitCase")
-    void onExit(Runnable mocker, MockResult mockResult, Predicate<MockResult> predicate) {
+    void onExit(Runnable mocker, Predicate<WebClientWrapper> predicate) {
         mocker.run();
         WebClientWrapper wrapper = Mockito.mock(WebClientWrapper.class);
-        WebClientInstrumentation.ExchangeAdvice.onExit(wrapper, mockResult, null);
-        assertTrue(predicate.test(mockResult));
+        WebClientInstrumentation.ExchangeAdvice.onExit(wrapper, null);
+        assertTrue(predicate.test(wrapper));
     }
 
     static Stream<Arguments> onExitCase() {
         Runnable emptyMocker = () -> {};
-        Runnable exitAndValidate = () -> {
+        Runnable needReplay = () -> {
             Mockito.when(RepeatedCollectManager.exitAndValidate()).thenReturn(true);
+            Mockito.when(ContextManager.needReplay()).thenReturn(true);
         };
         Runnable needRecord = () -> {
+            Mockito.when(ContextManager.needReplay()).thenReturn(false);
             Mockito.when(ContextManager.needRecord()).thenReturn(true);
         };
-        Predicate<MockResult> predicate1 = Objects::isNull;
-        Predicate<MockResult> predicate2 = Objects::nonNull;
+        Predicate<WebClientWrapper> predicate1 = wrapper -> Mockito.mockingDetails(wrapper).getInvocations().isEmpty();
+        Predicate<WebClientWrapper> predicate2 = wrapper -> {
+            Mockito.verify(wrapper).replay((Mono<ClientResponse>) null);
+            return true;
+        };
+        Predicate<WebClientWrapper> predicate3 = wrapper -> {
+            Mockito.verify(wrapper).record(null);
+            return true;
+        };
         return Stream.of(
-                arguments(emptyMocker, null, predicate1),
-                arguments(exitAndValidate, MockResult.success(null), predicate2),
-                arguments(needRecord, null, predicate1)
+                arguments(emptyMocker, predicate1),
+                arguments(needReplay, predicate2),
+                arguments(needRecord, predicate3)
         );
     }
-}
\ No newline at end of file
+}
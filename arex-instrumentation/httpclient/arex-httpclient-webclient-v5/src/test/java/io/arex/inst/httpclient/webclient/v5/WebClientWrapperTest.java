@@ -23,9 +23,12 @@ import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.lang.reflect.Field;
 import java.net.URI;
 import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -105,10 +108,37 @@ class WebClientWrapperTest {
     }
 
     @Test
-    void replay() {
+    void replay() throws Exception {
         WebClientWrapper target = new WebClientWrapper(clientRequest, strategies);
-        MockResult mockResult = target.replay();
-        assertNull(mockResult);
+        Field extractorField = WebClientWrapper.class.getDeclaredField("extractor");
+        extractorField.setAccessible(true);
+        HttpClientExtractor<?, ?> extractor = (HttpClientExtractor<?, ?>) extractorField.get(target);
+        Mockito.when(extractor.replayAsync()).thenReturn(CompletableFuture.completedFuture(null));
+        assertSame(response, target.replay(Mono.just(response)).block());
+
+        target = new WebClientWrapper(clientRequest, strategies);
+        extractor = (HttpClientExtractor<?, ?>) extractorField.get(target);
+        Mockito.when(extractor.replayAsync()).thenReturn(CompletableFuture.completedFuture(MockResult.success(WebClientResponse.of(response))));
+        assertNotNull(target.replay(Mono.error(new IllegalStateException("should not subscribe"))).block());
+
+        // an empty original exchange is not subscribed again
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mono<ClientResponse> emptyExchange = Mono.defer(() -> {
+            subscriptions.incrementAndGet();
+            return Mono.empty();
+        });
+        target = new WebClientWrapper(clientRequest, strategies);
+        extractor = (HttpClientExtractor<?, ?>) extractorField.get(target);
+        Mockito.when(extractor.replayAsync()).thenReturn(CompletableFuture.completedFuture(MockResult.success(true, null)));
+        assertNull(target.replay(emptyExchange).block());
+        assertEquals(1, subscriptions.get());
+
+        // a recorded response of another type fails the mono instead of leaving it pending
+        target = new WebClientWrapper(clientRequest, strategies);
+        extractor = (HttpClientExtractor<?, ?>) extractorField.get(target);
+        Mockito.when(extractor.replayAsync()).thenReturn(CompletableFuture.completedFuture(MockResult.success("mock")));
+        assertThrows(ClassCastException.class, target.replay(emptyExchange)::block);
+        assertEquals(1, subscriptions.get());
     }
 
     @Test
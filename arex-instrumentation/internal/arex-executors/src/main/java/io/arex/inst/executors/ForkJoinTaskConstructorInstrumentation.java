@@ -1,6 +1,7 @@
 package io.arex.inst.executors;
 
 import io.arex.agent.bootstrap.ctx.ArexThreadLocal;
+import io.arex.agent.bootstrap.ctx.CapturedAccessor;
 import io.arex.agent.bootstrap.internal.Cache;
 import io.arex.inst.extension.MethodInstrumentation;
 import io.arex.inst.extension.TypeInstrumentation;
@@ -32,7 +33,12 @@ public class ForkJoinTaskConstructorInstrumentation extends TypeInstrumentation
         @Advice.OnMethodExit(suppress = Throwable.class)
         public static void onExit(@Advice.This Object task) {
             final Object captured = ArexThreadLocal.Transmitter.capture();
-            if (captured != null) {
+            if (captured == null) {
+                return;
+            }
+            if (task instanceof CapturedAccessor) {
+                ((CapturedAccessor) task).arex$setCaptured(captured);
+            } else {
                 Cache.CAPTURED_CACHE.put(task, captured);
             }
         }
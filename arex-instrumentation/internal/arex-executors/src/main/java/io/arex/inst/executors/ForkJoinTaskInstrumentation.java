@@ -1,11 +1,16 @@
 package io.arex.inst.executors;
 
 import io.arex.agent.bootstrap.ctx.ArexThreadLocal;
+import io.arex.agent.bootstrap.ctx.CapturedAccessor;
 import io.arex.agent.bootstrap.internal.Cache;
 import io.arex.inst.extension.MethodInstrumentation;
 import io.arex.inst.extension.TypeInstrumentation;
+import net.bytebuddy.agent.builder.AgentBuilder.Transformer;
 import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.modifier.FieldManifestation;
+import net.bytebuddy.description.modifier.Visibility;
 import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.implementation.FieldAccessor;
 import net.bytebuddy.matcher.ElementMatcher;
 
 import java.util.Collections;
@@ -20,6 +25,37 @@ public class ForkJoinTaskInstrumentation extends TypeInstrumentation {
         return hasSuperType(named("java.util.concurrent.ForkJoinTask"));
     }
 
+    /**
+     * Tasks defined after the agent get a field for the capture, exec then reads it instead of the global weak cache.
+     * A class being retransformed is described by its loaded type (the installer uses the hybrid description strategy)
+     * and must keep its schema: a class loaded before the agent is left as it is, a class which got the field
+     * when it was loaded gets its accessors again, the field and the interface come with the loaded type.
+     */
+    @Override
+    public Transformer transformer() {
+        return (builder, typeDescription, classLoader, module) -> {
+            if (typeDescription.isInterface()) {
+                return builder;
+            }
+            if (typeDescription instanceof TypeDescription.ForLoadedType) {
+                return declaresCapturedField(typeDescription) ?
+                        builder.method(isDeclaredBy(typeDescription).and(isOverriddenFrom(CapturedAccessor.class)))
+                                .intercept(FieldAccessor.ofField(CapturedAccessor.FIELD_NAME)) : builder;
+            }
+            if (typeDescription.isAssignableTo(CapturedAccessor.class)) {
+                return builder;
+            }
+            return builder.defineField(CapturedAccessor.FIELD_NAME, Object.class, Visibility.PRIVATE,
+                            FieldManifestation.VOLATILE)
+                    .implement(CapturedAccessor.class)
+                    .intercept(FieldAccessor.ofField(CapturedAccessor.FIELD_NAME));
+        };
+    }
+
+    static boolean declaresCapturedField(TypeDescription typeDescription) {
+        return !typeDescription.getDeclaredFields().filter(named(CapturedAccessor.FIELD_NAME)).isEmpty();
+    }
+
     @Override
     public List<MethodInstrumentation> methodAdvices() {
         return Collections.singletonList(
@@ -33,7 +69,8 @@ public class ForkJoinTaskInstrumentation extends TypeInstrumentation {
         public static void onEnter(
                 @Advice.This Object task,
                 @Advice.Local("backup") Object backup) {
-            final Object captured = Cache.CAPTURED_CACHE.get(task);
+            final Object captured = task instanceof CapturedAccessor ?
+                    ((CapturedAccessor) task).arex$getCaptured() : Cache.CAPTURED_CACHE.get(task);
             backup = ArexThreadLocal.Transmitter.replay(captured);
         }
 
@@ -2,16 +2,27 @@ package io.arex.inst.executors;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.arex.agent.bootstrap.ctx.ArexThreadLocal;
+import io.arex.agent.bootstrap.ctx.CapturedAccessor;
 import io.arex.inst.executors.ForkJoinTaskInstrumentation.ExecAdvice;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
 import java.util.concurrent.CountedCompleter;
 import java.util.concurrent.ForkJoinTask;
+import net.bytebuddy.ByteBuddy;
 import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.pool.TypePool;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 
 class ForkJoinTaskInstrumentationTest {
 
@@ -51,4 +62,88 @@ class ForkJoinTaskInstrumentationTest {
     void ConstructorAdvice_onEnter() {
         assertDoesNotThrow(() -> ForkJoinTaskConstructorInstrumentation.ConstructorAdvice.onExit(new Object()));
     }
+
+    @Test
+    void transformer() {
+        DynamicType.Builder<?> builder = Mockito.mock(DynamicType.Builder.class);
+        // loaded before the agent, no field can be added
+        assertSame(builder, inst.transformer().transform(builder,
+                TypeDescription.ForLoadedType.of(ForkJoinTask.class), null, null));
+    }
+
+    @Test
+    void transformPoolDescribedTask() throws Exception {
+        ClassFileLocator locator = ClassFileLocator.ForClassLoader.of(getClass().getClassLoader());
+        TypeDescription pooled = TypePool.Default.of(locator).describe(PoolTask.class.getName()).resolve();
+        Class<?> transformed = transform(pooled, locator);
+        assertTrue(Modifier.isVolatile(transformed.getDeclaredField(CapturedAccessor.FIELD_NAME).getModifiers()));
+        assertCaptured(transformed);
+
+        // retransformed from the original class file, the field and the accessors are kept
+        Class<?> retransformed = transform(TypeDescription.ForLoadedType.of(transformed), locator);
+        assertNotNull(retransformed.getDeclaredField(CapturedAccessor.FIELD_NAME));
+        assertCaptured(retransformed);
+    }
+
+    private Class<?> transform(TypeDescription typeDescription, ClassFileLocator locator) {
+        DynamicType.Builder<?> builder = new ByteBuddy().rebase(typeDescription, locator);
+        return inst.transformer().transform(builder, typeDescription, null, null).make()
+                .load(getClass().getClassLoader(), ClassLoadingStrategy.Default.CHILD_FIRST).getLoaded();
+    }
+
+    private static void assertCaptured(Class<?> taskClass) throws Exception {
+        Constructor<?> constructor = taskClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Object task = constructor.newInstance();
+        assertTrue(task instanceof CapturedAccessor);
+        ((CapturedAccessor) task).arex$setCaptured("mock-captured");
+        assertEquals("mock-captured", ((CapturedAccessor) task).arex$getCaptured());
+    }
+
+    @Test
+    void capturedField() {
+        ArexThreadLocal<String> threadLocal = new ArexThreadLocal<>();
+        threadLocal.set("mock-captured");
+        AccessorTask task = new AccessorTask();
+        ForkJoinTaskConstructorInstrumentation.ConstructorAdvice.onExit(task);
+        threadLocal.remove();
+        assertNotNull(task.captured);
+
+        ExecAdvice.onEnter(task, null);
+        assertEquals("mock-captured", threadLocal.get());
+        threadLocal.remove();
+    }
+
+    static class AccessorTask implements CapturedAccessor {
+        Object captured;
+
+        @Override
+        public Object arex$getCaptured() {
+            return captured;
+        }
+
+        @Override
+        public void arex$setCaptured(Object captured) {
+            this.captured = captured;
+        }
+    }
+}
+
+/**
+ * Not nested, a nested class loaded by another class loader could not reach its enclosing class
+ */
+class PoolTask extends ForkJoinTask<Void> {
+    @Override
+    public Void getRawResult() {
+        return null;
+    }
+
+    @Override
+    protected void setRawResult(Void value) {
+    }
+
+    @Override
+    protected boolean exec() {
+        return true;
+    }
 }
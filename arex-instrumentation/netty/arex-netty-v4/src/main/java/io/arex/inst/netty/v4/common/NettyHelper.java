@@ -4,7 +4,6 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.EmptyByteBuf;
 import io.netty.handler.codec.http.HttpHeaders;
 
-import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,14 +17,17 @@ public class NettyHelper {
         return headers;
     }
 
-    public static String parseBody(ByteBuf byteData) {
+    /**
+     * @return the readable bytes, the reader index is left as it was
+     */
+    public static byte[] parseBody(ByteBuf byteData) {
         if (byteData instanceof EmptyByteBuf) {
             return null;
         }
         byte[] msgByte = new byte[byteData.readableBytes()];
         byteData.readBytes(msgByte);
         byteData.resetReaderIndex();
-        return Base64.getEncoder().encodeToString(msgByte);
+        return msgByte;
     }
 
 }
@@ -47,9 +47,9 @@ public class RequestTracingHandler extends ChannelInboundHandlerAdapter {
             LastHttpContent httpContent = (LastHttpContent) msg;
             Mocker mocker = ctx.channel().attr(AttributeKey.TRACING_MOCKER).get();
             if (mocker != null) {
-                String content = NettyHelper.parseBody(httpContent.content());
+                byte[] content = NettyHelper.parseBody(httpContent.content());
                 if (content != null) {
-                    mocker.getTargetRequest().setBody(content);
+                    mocker.getTargetRequest().setBodyBytes(content);
                     ctx.channel().attr(AttributeKey.TRACING_MOCKER).set(mocker);
                 }
             }
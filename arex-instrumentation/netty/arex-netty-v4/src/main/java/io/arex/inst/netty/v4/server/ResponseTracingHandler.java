@@ -1,7 +1,6 @@
 package io.arex.inst.netty.v4.server;
 
 import io.arex.agent.bootstrap.model.Mocker;
-import io.arex.agent.bootstrap.util.StringUtil;
 import io.arex.inst.runtime.context.ContextManager;
 import io.arex.inst.runtime.listener.CaseEvent;
 import io.arex.inst.runtime.listener.CaseEventDispatcher;
@@ -36,7 +35,7 @@ public class ResponseTracingHandler extends ChannelOutboundHandlerAdapter {
                     prm = ctx.newPromise();
                 }
 
-                String body = NettyHelper.parseBody(((LastHttpContent) msg).content());
+                byte[] body = NettyHelper.parseBody(((LastHttpContent) msg).content());
                 prm.addListener(future -> invoke(ctx.channel(), body));
             } else {
                 if (msg instanceof HttpResponse) {
@@ -70,8 +69,8 @@ public class ResponseTracingHandler extends ChannelOutboundHandlerAdapter {
         }
     }
 
-    private void invoke(final Channel channel, final String content) {
-        if (StringUtil.isEmpty(content)) {
+    private void invoke(final Channel channel, final byte[] content) {
+        if (content == null || content.length == 0) {
             return;
         }
 
@@ -79,13 +78,14 @@ public class ResponseTracingHandler extends ChannelOutboundHandlerAdapter {
         if (mocker == null) {
             return;
         }
-        mocker.getTargetResponse().setBody(content);
+        mocker.getTargetResponse().setBodyBytes(content);
         if (ContextManager.needReplay()) {
-           MockUtils.replayBody(mocker);
+            MockUtils.replayMockerAsync(mocker);
         } else if (ContextManager.needRecord()) {
             MockUtils.recordMocker(mocker);
         }
 
+        CaseEventDispatcher.onEvent(CaseEvent.ofDestroyEvent());
         CaseEventDispatcher.onEvent(CaseEvent.ofEnterEvent());
     }
 }
\ No newline at end of file
@@ -102,7 +102,7 @@ class RequestTracingHandlerTest {
             mocker.setTargetRequest(new Target());
             mocker.setTargetResponse(new Target());
             Mockito.when(attribute.get()).thenReturn(mocker);
-            Mockito.when(NettyHelper.parseBody(any())).thenReturn("mock");
+            Mockito.when(NettyHelper.parseBody(any())).thenReturn("mock".getBytes());
         };
 
         LastHttpContent content = Mockito.mock(LastHttpContent.class);
@@ -1,7 +1,6 @@
 package io.arex.inst.lettuce.v6;
 
 import io.arex.agent.bootstrap.ctx.TraceTransmitter;
-import io.arex.agent.bootstrap.model.MockResult;
 import io.arex.inst.runtime.context.ContextManager;
 import io.arex.inst.redis.common.RedisExtractor;
 import io.arex.inst.redis.common.RedisKeyUtil;
@@ -597,17 +596,7 @@ public class RedisAsyncCommandsImplWrapper<K, V> extends RedisAsyncCommandsImpl<
             redisUri = LettuceHelper.getRedisUri(this.getStatefulConnection().hashCode());
         }
         if (ContextManager.needReplay()) {
-            AsyncCommand<K, V, T> asyncCommand = new AsyncCommand<>(cmd);
-            RedisExtractor extractor = new RedisExtractor(this.redisUri, cmd.getType().name(), key, field);
-            MockResult mockResult = extractor.replay();
-            if (mockResult.notIgnoreMockResult()) {
-                if (mockResult.getThrowable() != null) {
-                    asyncCommand.completeExceptionally(mockResult.getThrowable());
-                } else {
-                    asyncCommand.complete((T) mockResult.getResult());
-                }
-                return asyncCommand;
-            }
+            return replay(cmd, key, field);
         }
 
         AsyncCommand<K, V, T> resultFuture = super.dispatch(cmd);
@@ -629,4 +618,37 @@ public class RedisAsyncCommandsImplWrapper<K, V> extends RedisAsyncCommandsImpl<
 
         return resultFuture;
     }
+
+    /**
+     * The caller (often a netty event loop) must not wait for the storage service,
+     * the command is completed from the replay response, or dispatched to redis if there is no usable mock.
+     */
+    private <T> AsyncCommand<K, V, T> replay(RedisCommand<K, V, T> cmd, String key, String field) {
+        AsyncCommand<K, V, T> asyncCommand = new AsyncCommand<>(cmd);
+        RedisExtractor extractor = new RedisExtractor(this.redisUri, cmd.getType().name(), key, field);
+        TraceTransmitter traceTransmitter = TraceTransmitter.create();
+        extractor.replayAsync().whenComplete((mockResult, replayThrowable) -> {
+            try (TraceTransmitter tm = traceTransmitter.transmit()) {
+                if (mockResult != null && mockResult.notIgnoreMockResult()) {
+                    if (mockResult.getThrowable() != null) {
+                        asyncCommand.completeExceptionally(mockResult.getThrowable());
+                    } else {
+                        asyncCommand.complete((T) mockResult.getResult());
+                    }
+                    return;
+                }
+                super.dispatch(cmd).whenComplete((v, throwable) -> {
+                    if (throwable != null) {
+                        asyncCommand.completeExceptionally(throwable);
+                    } else {
+                        asyncCommand.complete(v);
+                    }
+                });
+            } catch (Throwable e) {
+                // the completion stage of replayAsync is never read, the command must not be left pending
+                asyncCommand.completeExceptionally(e);
+            }
+        });
+        return asyncCommand;
+    }
 }
@@ -12,6 +12,7 @@ import io.lettuce.core.protocol.ProtocolKeyword;
 import io.lettuce.core.protocol.RedisCommand;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -21,9 +22,14 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
@@ -41,7 +47,7 @@ class RedisAsyncCommandsImplWrapperTest {
             Mockito.when(mock.hget(any(), any())).thenReturn(cmd);
         })) {}
         try (MockedConstruction<RedisExtractor> mocked = Mockito.mockConstruction(RedisExtractor.class, (mock, context) -> {
-            Mockito.when(mock.replay()).thenReturn(MockResult.success("mock"));
+            Mockito.when(mock.replayAsync()).thenReturn(CompletableFuture.completedFuture(MockResult.success("mock")));
         })) {}
         Mockito.mockStatic(ContextManager.class);
         Mockito.mockStatic(LettuceHelper.class);
@@ -62,13 +68,32 @@ class RedisAsyncCommandsImplWrapperTest {
         mocker.run();
         try (MockedConstruction<RedisExtractor> mocked = Mockito.mockConstruction(RedisExtractor.class, (mock, context) -> {
             System.out.println("mock RedisExtractor");
-            Mockito.when(mock.replay()).thenReturn(MockResult.success(null));
+            Mockito.when(mock.replayAsync()).thenReturn(CompletableFuture.completedFuture(MockResult.success(null)));
         })) {
             RedisFuture<?> result = target.hget("key", "field");
             assertTrue(predicate.test(result));
         }
     }
 
+    @Test
+    void replayDispatchFailure() {
+        Mockito.when(LettuceHelper.getRedisUri(anyInt())).thenReturn("");
+        Mockito.when(ContextManager.needReplay()).thenReturn(true);
+        Mockito.when(cmd.getType()).thenReturn(Mockito.mock(ProtocolKeyword.class));
+        Mockito.when(connection.dispatch(any(RedisCommand.class))).thenThrow(new IllegalStateException("mock"));
+        try (MockedConstruction<RedisExtractor> mocked = Mockito.mockConstruction(RedisExtractor.class, (mock, context) -> {
+            Mockito.when(mock.replayAsync()).thenReturn(CompletableFuture.completedFuture(MockResult.success(true, null)));
+        })) {
+            RedisFuture<?> result = target.hget("key", "field");
+            // not usable mock, the real command fails to dispatch and the future must not hang
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> result.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+        } finally {
+            Mockito.reset(connection);
+        }
+    }
+
     static Stream<Arguments> dispatchCase() {
         Runnable mocker1 = () -> {
             Mockito.when(LettuceHelper.getRedisUri(anyInt())).thenReturn("");
@@ -7,6 +7,7 @@ import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.util.IgnoreUtils;
 import io.arex.inst.runtime.util.MockUtils;
 import io.arex.inst.runtime.util.TypeUtil;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -62,7 +63,7 @@ public class RedisExtractor {
     }
 
     public void record(Object response) {
-        MockUtils.recordMocker(makeMocker(response));
+        MockUtils.recordMocker(makeRequestMocker(response), response);
     }
 
     public MockResult replay() {
@@ -71,11 +72,28 @@ public class RedisExtractor {
         return MockResult.success(ignoreResult, replayBody);
     }
 
+    /**
+     * Non-blocking replay for async clients, the future completes on the storage client thread
+     */
+    public CompletableFuture<MockResult> replayAsync() {
+        boolean ignoreResult = IgnoreUtils.ignoreMockResult(clusterName, command);
+        return MockUtils.replayBodyAsync(makeMocker(null))
+            .thenApply(replayBody -> MockResult.success(ignoreResult, replayBody));
+    }
+
     private Mocker makeMocker(Object response) {
+        Mocker mocker = makeRequestMocker(response);
+        mocker.getTargetResponse().setBody(Serializer.serialize(response));
+        return mocker;
+    }
+
+    /**
+     * Without the response body, it is serialized when recorded
+     */
+    private Mocker makeRequestMocker(Object response) {
         Mocker mocker = MockUtils.createRedis(this.command);
         mocker.getTargetRequest().setBody(Serializer.serialize(new RedisMultiKey(key, field)));
         mocker.getTargetRequest().setAttribute("clusterName", this.clusterName);
-        mocker.getTargetResponse().setBody(Serializer.serialize(response));
         mocker.getTargetResponse().setType(normalizeTypeName(response));
         return mocker;
     }
@@ -1,6 +1,5 @@
 package io.arex.inst.httpservlet;
 
-import io.arex.agent.bootstrap.TraceContextManager;
 import io.arex.agent.bootstrap.internal.Pair;
 import io.arex.agent.bootstrap.util.StringUtil;
 import io.arex.inst.httpservlet.adapter.ServletAdapter;
@@ -100,7 +99,7 @@ public class ServletAdviceHelper {
         // 302 Redirect request
         String redirectRecordId = getRedirectRecordId(adapter, httpServletRequest);
         if (StringUtil.isNotEmpty(redirectRecordId)) {
-            TraceContextManager.set(redirectRecordId);
+            ContextManager.attach(redirectRecordId);
         } else {
             CaseEventDispatcher.onEvent(CaseEvent.ofEnterEvent());
             String caseId = adapter.getRequestHeader(httpServletRequest, ArexConstants.RECORD_ID);
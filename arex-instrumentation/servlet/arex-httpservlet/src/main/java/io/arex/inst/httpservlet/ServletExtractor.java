@@ -6,12 +6,13 @@ import io.arex.inst.httpservlet.converter.HttpMessageConvertFactory;
 import io.arex.inst.httpservlet.converter.HttpMessageConverter;
 import io.arex.inst.runtime.context.ArexContext;
 import io.arex.inst.runtime.context.ContextManager;
+import io.arex.inst.runtime.listener.CaseEvent;
+import io.arex.inst.runtime.listener.CaseEventDispatcher;
 import io.arex.inst.runtime.model.ArexConstants;
 import io.arex.inst.runtime.serializer.Serializer;
 import io.arex.inst.runtime.util.MockUtils;
 import io.arex.inst.runtime.util.TypeUtil;
 import java.io.IOException;
-import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -106,17 +107,18 @@ public class ServletExtractor<HttpServletRequest, HttpServletResponse> {
         Mocker mocker = MockUtils.createServlet(pattern);
 
         mocker.getTargetRequest().setAttributes(requestAttributes);
-        mocker.getTargetRequest().setBody(getRequest());
+        mocker.getTargetRequest().setBodyBytes(getRequest());
         mocker.getTargetResponse().setAttributes(Collections.singletonMap("Headers", getResponseHeaders()));
 
         Object response = getResponse();
         mocker.getTargetResponse().setBody(Serializer.serialize(response));
         mocker.getTargetResponse().setType(TypeUtil.getName(response));
         if (ContextManager.needReplay()) {
-            MockUtils.replayMocker(mocker);
+            MockUtils.replayMockerAsync(mocker);
         } else if (ContextManager.needRecord()) {
             MockUtils.recordMocker(mocker);
         }
+        CaseEventDispatcher.onEvent(CaseEvent.ofDestroyEvent());
     }
 
     private Map<String, String> getRequestHeaders() {
@@ -142,10 +144,10 @@ public class ServletExtractor<HttpServletRequest, HttpServletResponse> {
         return headers;
     }
 
-    private String getRequest() {
+    private byte[] getRequest() {
         HttpMessageConverter converter = HttpMessageConvertFactory.getSupportedConverter(
             httpServletRequest, adapter);
-        return Base64.getEncoder().encodeToString(converter.getRequest(httpServletRequest, adapter));
+        return converter.getRequest(httpServletRequest, adapter);
     }
 
     private Object getResponse() {